@@ -0,0 +1,53 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+
+//DTO -> entidade, com o usuario ja resolvido (isola o custo do converter, sem banco)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversaoBenchmark {
+	
+	LancamentoResource resource = new LancamentoResource(null, null);
+	
+	Usuario usuario = Usuario.builder().id(1l).build();
+	
+	LancamentoDTO dto;
+	
+	@Setup
+	public void preparar() {
+		dto = LancamentoDTO.builder()
+				.descricao("Salario")
+				.mes(1)
+				.ano(2019)
+				.valor(BigDecimal.TEN)
+				.usuario(1l)
+				.tipo("RECEITA")
+				.status("PENDENTE")
+				.build();
+	}
+
+	@Benchmark
+	public Lancamento converter() {
+		return resource.converter(dto, id -> usuario);
+	}
+}
@@ -0,0 +1,104 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.dsousa.minhasfinancas.MinhasfinancasApplication;
+
+//POST /api/lancamentos/importar sem a camada HTTP: extrato CSV de LINHAS linhas gerado em disco,
+//lido em stream e gravado no H2 do perfil "test". O resultado é o tempo de uma importaçao completa
+//(vazao = LINHAS / tempo); cada mediçao parte de uma base vazia.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ImportacaoBenchmark {
+	
+	public static final int LINHAS = 1000000;
+	
+	@Param({"500", "1000", "5000"})
+	public int tamanhoLote;
+	
+	ConfigurableApplicationContext contexto;
+	
+	LancamentoResource resource;
+	
+	JdbcTemplate jdbcTemplate;
+	
+	File extrato;
+	
+	final Long idUsuario = 1l;
+	
+	@Setup(Level.Trial)
+	public void iniciar() throws IOException {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.profiles("test")
+				.web(WebApplicationType.NONE)
+				.run();
+		resource = contexto.getBean(LancamentoResource.class);
+		ReflectionTestUtils.setField(resource, "tamanhoLoteImportacao", tamanhoLote);
+		jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+		jdbcTemplate.update("insert into financas.usuario (nome, email, senha) values ('usuario', 'usuario@email.com', 'senha')");
+		
+		//extrato de banco: data, descricao e valor com sinal
+		extrato = File.createTempFile("extrato-", ".csv");
+		extrato.deleteOnExit();
+		try (Writer saida = new BufferedWriter(Files.newBufferedWriter(extrato.toPath(), StandardCharsets.UTF_8))) {
+			saida.write("data,descricao,valor\n");
+			for(int i = 1; i <= LINHAS; i++) {
+				saida.write(String.format("2019-%02d-%02d,\"Lançamento %d\",%s%d.%02d\n", 
+						i % 12 + 1, i % 28 + 1, i, i % 3 == 0 ? "-" : "", i % 1000 + 1, i % 100));
+			}
+		}
+	}
+	
+	@Setup(Level.Iteration)
+	public void limpar() {
+		jdbcTemplate.execute("truncate table financas.lancamento");
+		jdbcTemplate.execute("truncate table financas.resumo_mensal");
+		jdbcTemplate.execute("truncate table financas.saldo_usuario");
+	}
+	
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		contexto.close();
+		extrato.delete();
+	}
+
+	@Benchmark
+	public ResponseEntity importar() throws IOException {
+		try (InputStream entrada = new BufferedInputStream(Files.newInputStream(extrato.toPath()))) {
+			return resource.importar(entrada, "csv", idUsuario);
+		}
+	}
+}
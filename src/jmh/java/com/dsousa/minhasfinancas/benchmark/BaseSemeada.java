@@ -0,0 +1,62 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.dsousa.minhasfinancas.MinhasfinancasApplication;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+//Contexto Spring sobre o H2 do perfil "test", semeado com {linhas} lancamentos
+//distribuidos entre USUARIOS usuarios, e saldo_usuario reconstruido no fim.
+@State(Scope.Benchmark)
+public class BaseSemeada {
+	
+	public static final int USUARIOS = 10;
+	
+	@Param({"1000", "100000", "1000000"})
+	public int linhas;
+	
+	public ConfigurableApplicationContext contexto;
+	
+	public LancamentoService lancamentoService;
+	
+	//usuario consultado pelos benchmarks: recebe linhas / USUARIOS lancamentos
+	public final Long idUsuario = 1l;
+	
+	@Setup(Level.Trial)
+	public void iniciar() {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.profiles("test")
+				.web(WebApplicationType.NONE)
+				.run();
+		lancamentoService = contexto.getBean(LancamentoService.class);
+		
+		JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+		jdbcTemplate.update("insert into financas.usuario (nome, email, senha)"
+				+ " select 'usuario' || x, 'usuario' || x || '@email.com', 'senha' from system_range(1, ?)", USUARIOS);
+		jdbcTemplate.update("insert into financas.lancamento (id, descricao, descricao_busca, mes, ano, valor, tipo, status, id_usuario)"
+				+ " select x, 'Lançamento ' || x, 'lancamento ' || x, mod(x, 12) + 1, 2015 + mod(x, 5), mod(x, 1000) + 0.5,"
+				+ " case when mod(x, 3) = 0 then 'DESPESA' else 'RECEITA' end, 'PENDENTE', 1 + mod(x, ?)"
+				+ " from system_range(1, ?)", USUARIOS, linhas);
+		//mesma carga de V6__resumo_mensal.sql
+		jdbcTemplate.update("insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, total, quantidade)"
+				+ " select id_usuario, ano, mes, tipo, status, sum(valor), count(*) from financas.lancamento"
+				+ " group by id_usuario, ano, mes, tipo, status");
+		jdbcTemplate.execute("analyze");
+		lancamentoService.reconstruirSaldos();
+	}
+	
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		contexto.close();
+	}
+}
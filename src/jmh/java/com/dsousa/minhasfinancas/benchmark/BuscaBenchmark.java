@@ -0,0 +1,71 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+
+//uma pagina (limite do endpoint GET /api/lancamentos) para cada combinaçao de filtros
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuscaBenchmark {
+	
+	static final int LIMITE = 50;
+	
+	@Param({"usuario", "ano", "anoMes", "descricao", "todos"})
+	public String filtros;
+	
+	Lancamento filtro;
+	
+	@Setup
+	public void montarFiltro(BaseSemeada base) {
+		filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(base.idUsuario).build());
+		switch (filtros) {
+			case "ano":
+				filtro.setAno(2017);
+				break;
+			case "anoMes":
+				filtro.setAno(2017);
+				filtro.setMes(6);
+				break;
+			case "descricao":
+				filtro.setDescricao("lancamento 9");
+				break;
+			case "todos":
+				filtro.setAno(2017);
+				filtro.setMes(6);
+				filtro.setDescricao("lancamento");
+				filtro.setTipo(TipoLancamento.RECEITA);
+				filtro.setStatus(StatusLancamento.PENDENTE);
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Benchmark
+	public List<LancamentoResumo> buscar(BaseSemeada base) {
+		return base.lancamentoService.buscar(filtro, null, LIMITE);
+	}
+}
@@ -0,0 +1,122 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+
+//relatorio em memoria (receitas, despesas e saldo de cada mes, como obterSaldoMensalPorUsuario e salvarLote),
+//validaçao do valor e escrita em texto: caminho anterior com BigDecimal contra Dinheiro com acumuladores long[]
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DinheiroBenchmark {
+
+	@Param({"1000", "100000"})
+	public int tamanho;
+
+	BigDecimal[] valoresBigDecimal;
+
+	Dinheiro[] valores;
+
+	TipoLancamento[] tipos;
+
+	int[] meses;
+
+	@Setup
+	public void preparar() {
+		Random aleatorio = new Random(42);
+		valoresBigDecimal = new BigDecimal[tamanho];
+		valores = new Dinheiro[tamanho];
+		tipos = new TipoLancamento[tamanho];
+		meses = new int[tamanho];
+		for(int i = 0; i < tamanho; i++) {
+			long centavos = 1 + aleatorio.nextInt(1_000_000);
+			//escala 2, como os valores lidos da coluna numeric(16,2)
+			valoresBigDecimal[i] = BigDecimal.valueOf(centavos, 2);
+			valores[i] = Dinheiro.deCentavos(centavos);
+			tipos[i] = aleatorio.nextInt(3) == 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA;
+			meses[i] = aleatorio.nextInt(12);
+		}
+	}
+
+	@Benchmark
+	public BigDecimal[] saldoMensalBigDecimal() {
+		BigDecimal[] receitas = new BigDecimal[12];
+		BigDecimal[] despesas = new BigDecimal[12];
+		for(int mes = 0; mes < 12; mes++) {
+			receitas[mes] = BigDecimal.ZERO;
+			despesas[mes] = BigDecimal.ZERO;
+		}
+		for(int i = 0; i < tamanho; i++) {
+			if(valoresBigDecimal[i].compareTo(BigDecimal.ZERO) < 1) {
+				continue;
+			}
+			if(tipos[i] == TipoLancamento.RECEITA) {
+				receitas[meses[i]] = receitas[meses[i]].add(valoresBigDecimal[i]);
+			} else {
+				despesas[meses[i]] = despesas[meses[i]].add(valoresBigDecimal[i]);
+			}
+		}
+		BigDecimal[] saldos = new BigDecimal[12];
+		for(int mes = 0; mes < 12; mes++) {
+			saldos[mes] = receitas[mes].subtract(despesas[mes]);
+		}
+		return saldos;
+	}
+
+	@Benchmark
+	public Dinheiro[] saldoMensalCentavos() {
+		long[][] movimentos = new long[12][2];
+		for(int i = 0; i < tamanho; i++) {
+			if(valores[i].signum() <= 0) {
+				continue;
+			}
+			long[] movimento = movimentos[meses[i]];
+			if(tipos[i] == TipoLancamento.RECEITA) {
+				movimento[0] += valores[i].getCentavos();
+			} else {
+				movimento[1] += valores[i].getCentavos();
+			}
+		}
+		Dinheiro[] saldos = new Dinheiro[12];
+		for(int mes = 0; mes < 12; mes++) {
+			saldos[mes] = Dinheiro.deCentavos(movimentos[mes][0] - movimentos[mes][1]);
+		}
+		return saldos;
+	}
+
+	@Benchmark
+	public void escreverBigDecimal(Blackhole buraco) {
+		for(int i = 0; i < tamanho; i++) {
+			buraco.consume(valoresBigDecimal[i].toPlainString());
+		}
+	}
+
+	@Benchmark
+	public void escreverCentavos(Blackhole buraco) {
+		char[] texto = new char[Dinheiro.TAMANHO_MAXIMO_TEXTO];
+		for(int i = 0; i < tamanho; i++) {
+			buraco.consume(valores[i].formatar(texto, 0));
+		}
+		buraco.consume(texto);
+	}
+}
@@ -0,0 +1,36 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dsousa.minhasfinancas.model.projection.TotalPorTipo;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaldoBenchmark {
+
+	//caminho normal: leitura do saldo consolidado (saldo_usuario)
+	@Benchmark
+	public BigDecimal obterSaldoPorUsuario(BaseSemeada base) {
+		return base.lancamentoService.obterSaldoPorUsuario(base.idUsuario);
+	}
+	
+	//caminho de reserva do obterSaldoPorUsuario: soma agrupada sobre os lancamentos do usuario
+	@Benchmark
+	public List<TotalPorTipo> obterTotaisPorTipo(BaseSemeada base) {
+		return base.contexto.getBean(LancamentoRepository.class).obterTotaisPorTipo(base.idUsuario, 0);
+	}
+}
@@ -0,0 +1,158 @@
+package com.dsousa.minhasfinancas.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.dsousa.minhasfinancas.api.serializacao.DinheiroSerializer;
+import com.dsousa.minhasfinancas.api.serializacao.LancamentoResumoSerializer;
+import com.dsousa.minhasfinancas.api.serializacao.LancamentoSerializer;
+import com.dsousa.minhasfinancas.api.serializacao.UsuarioSerializer;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+//serializaçao de listas de Lancamento como nas respostas da API, sem banco.
+//padrao: ObjectMapper do Spring Boot sem ajustes; otimizado: serializadores de api/serializacao + Afterburner;
+//otimizadoGzip: o mesmo com a compressao da resposta (server.compression).
+//Alem das operaçoes/s, json.bytes é o JSON produzido por segundo e enviados.bytes o que iria para a rede
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoBenchmark {
+	
+	@Param({"50", "500", "10000", "100000"})
+	public int tamanho;
+	
+	ObjectMapper padrao;
+	
+	ObjectMapper otimizado;
+	
+	List<Lancamento> lancamentos;
+	
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Bytes {
+		public long json;
+		public long enviados;
+		
+		@Setup(Level.Iteration)
+		public void zerar() {
+			json = 0;
+			enviados = 0;
+		}
+	}
+	
+	@Setup
+	public void preparar() {
+		//mesma configuraçao base do ObjectMapper do Spring Boot (o Dinheiro nao tem serializaçao sem o seu)
+		padrao = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.serializers(new DinheiroSerializer()).build();
+		otimizado = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.serializers(new DinheiroSerializer(), new LancamentoSerializer(), new LancamentoResumoSerializer(), new UsuarioSerializer())
+				.modulesToInstall(new AfterburnerModule()).build();
+		Usuario usuario = Usuario.builder().id(1l).nome("usuario").email("usuario@email.com").build();
+		lancamentos = new ArrayList<>(tamanho);
+		for(int i = 0; i < tamanho; i++) {
+			lancamentos.add(Lancamento.builder()
+					.id((long) i)
+					.descricao("Lançamento " + i)
+					.mes(1 + i % 12)
+					.ano(2019)
+					.valor(Dinheiro.deCentavos(i))
+					.dataCadastro(LocalDate.of(2019, 1 + i % 12, 1 + i % 28))
+					.tipo(i % 3 == 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA)
+					.status(StatusLancamento.PENDENTE)
+					.usuario(usuario)
+					.build());
+		}
+	}
+
+	@Benchmark
+	public long serializar(Bytes bytes) throws IOException {
+		return escrever(padrao, false, bytes);
+	}
+	
+	@Benchmark
+	public long serializarOtimizado(Bytes bytes) throws IOException {
+		return escrever(otimizado, false, bytes);
+	}
+	
+	@Benchmark
+	public long serializarOtimizadoGzip(Bytes bytes) throws IOException {
+		return escrever(otimizado, true, bytes);
+	}
+	
+	private long escrever(ObjectMapper mapper, boolean gzip, Bytes bytes) throws IOException {
+		Contador enviados = new Contador(null);
+		Contador json = gzip ? new Contador(new GZIPOutputStream(enviados, 8192)) : new Contador(enviados);
+		//writeValue fecha a saida, o que termina o gzip
+		mapper.writeValue(json, lancamentos);
+		bytes.json += json.total;
+		bytes.enviados += enviados.total;
+		return enviados.total;
+	}
+	
+	//conta os bytes e repassa ao destino (null descarta, como a rede)
+	static class Contador extends OutputStream {
+		
+		private final OutputStream destino;
+		long total;
+		
+		Contador(OutputStream destino) {
+			this.destino = destino;
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			total++;
+			if(destino != null) {
+				destino.write(b);
+			}
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			total += len;
+			if(destino != null) {
+				destino.write(b, off, len);
+			}
+		}
+		
+		@Override
+		public void close() throws IOException {
+			if(destino != null) {
+				destino.close();
+			}
+		}
+	}
+}
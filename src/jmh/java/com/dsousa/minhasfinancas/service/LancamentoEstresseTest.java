@@ -0,0 +1,191 @@
+package com.dsousa.minhasfinancas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dsousa.minhasfinancas.exception.ConflitoVersaoException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.ResumoMensalRepository;
+import com.dsousa.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+import lombok.extern.slf4j.Slf4j;
+
+//varias threads alterando o mesmo lancamento, cada chamada ao service na propria transaçao (sem a de teste):
+//metade soma um centavo ao valor (le, altera e grava com a versao lida, relendo a cada conflito) e metade
+//troca o status. Nenhum incremento pode se perder e saldo e resumo devem bater com o valor final.
+//Carga longa, fora da suite padrao: mvn -Pbenchmark -DskipTests=false -Dtest=LancamentoEstresseTest test
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = LancamentoConcorrenciaTest.ESPERA_TRAVA)
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import(LancamentoServiceImpl.class)
+@Slf4j
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LancamentoEstresseTest {
+
+	static final int THREADS = 16;
+
+	static final int OPERACOES_POR_THREAD = 20;
+
+	static final StatusLancamento[] STATUS = {StatusLancamento.EFETIVADO, StatusLancamento.CANCELADO, StatusLancamento.PENDENTE};
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Autowired
+	SaldoUsuarioRepository saldoRepository;
+
+	@Autowired
+	ResumoMensalRepository resumoRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	Long idUsuario;
+
+	Long idLancamento;
+
+	@Before
+	public void setUp() {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario")
+				.email("estresse-" + UUID.randomUUID() + "@email.com").senha("senha").build());
+		idUsuario = usuario.getId();
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setTipo(TipoLancamento.RECEITA);
+		lancamento.setValor(Dinheiro.deCentavos(100));
+		idLancamento = service.salvar(lancamento).getId();
+	}
+
+	@After
+	public void tearDown() {
+		List<Long> usuarios = new ArrayList<>();
+		usuarios.add(idUsuario);
+		LancamentoConcorrenciaTest.removerUsuarios(jdbcTemplate, transactionManager, usuarios);
+	}
+
+	@Test
+	public void naoDevePerderAtualizacoesConcorrentes() throws Exception {
+		AtomicInteger conflitos = new AtomicInteger();
+		AtomicInteger statusGravados = new AtomicInteger();
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> tarefas = new ArrayList<>();
+		for(int t = 0; t < THREADS; t++) {
+			boolean somaValor = t % 2 == 0;
+			tarefas.add(executor.submit(() -> {
+				largada.await();
+				for(int i = 0; i < OPERACOES_POR_THREAD; i++) {
+					if(somaValor) {
+						somarUmCentavo(conflitos);
+					} else {
+						try {
+							service.atualizarStatus(idLancamento, idUsuario, STATUS[i % STATUS.length]);
+							statusGravados.incrementAndGet();
+						} catch (ConflitoVersaoException e) {
+							//esgotou as tentativas: nada gravado, o cliente receberia 409
+							conflitos.incrementAndGet();
+						}
+					}
+				}
+				return null;
+			}));
+		}
+
+		long inicio = System.nanoTime();
+		largada.countDown();
+		try {
+			for(Future<?> tarefa : tarefas) {
+				tarefa.get(2, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		long milissegundos = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+
+		int incrementos = THREADS / 2 * OPERACOES_POR_THREAD;
+		int escritas = incrementos + statusGravados.get();
+		log.info("concorrencia: {} threads, {} escritas em {} ms ({} escritas/s), {} conflitos",
+				THREADS, escritas, milissegundos, escritas * 1000l / milissegundos, conflitos.get());
+
+		Lancamento gravado = lancamentoRepository.findById(idLancamento).get();
+		assertThat(gravado.getValor()).isEqualTo(Dinheiro.deCentavos(100 + incrementos));
+		assertThat(gravado.getVersao()).isEqualTo((long) escritas);
+
+		SaldoUsuario saldo = saldoRepository.findById(idUsuario).get();
+		assertThat(Dinheiro.de(saldo.getReceitas())).isEqualTo(gravado.getValor());
+
+		//o lancamento esta em um unico grupo do resumo, o do status final
+		long quantidade = 0;
+		Dinheiro total = Dinheiro.ZERO;
+		for(ResumoMensal grupo : resumoRepository.findAll()) {
+			if(!grupo.getIdUsuario().equals(idUsuario)) {
+				continue;
+			}
+			quantidade += grupo.getQuantidade();
+			total = total.mais(grupo.getTotal());
+			if(grupo.getStatus() != gravado.getStatus()) {
+				assertThat(grupo.getQuantidade()).isZero();
+			}
+		}
+		assertThat(quantidade).isEqualTo(1l);
+		assertThat(total).isEqualTo(gravado.getValor());
+	}
+
+	private void somarUmCentavo(AtomicInteger conflitos) {
+		while(true) {
+			Lancamento lancamento = service.obterPorId(idLancamento).get();
+			lancamento.setValor(lancamento.getValor().mais(Dinheiro.deCentavos(1)));
+			try {
+				service.atualizar(lancamento);
+				return;
+			} catch (ConflitoVersaoException e) {
+				conflitos.incrementAndGet();
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.mockito.Mockito;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.AnoArquivadoRepository;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacaoBenchmark {
+	
+	//validar so consulta o ultimo ano arquivado, lido uma vez no setup
+	LancamentoServiceImpl service = new LancamentoServiceImpl(null, null, null, null, Mockito.mock(AnoArquivadoRepository.class));
+	
+	Lancamento valido;
+	
+	Lancamento invalido;
+	
+	@Setup
+	public void preparar() {
+		service.carregarAnoArquivado();
+		valido = Lancamento.builder()
+				.descricao("Salario")
+				.mes(1)
+				.ano(2019)
+				.valor(Dinheiro.de(BigDecimal.TEN))
+				.tipo(TipoLancamento.RECEITA)
+				.usuario(Usuario.builder().id(1l).build())
+				.build();
+		//falha so na ultima regra: percorre todas as verificaçoes e paga a exceçao
+		invalido = Lancamento.builder()
+				.descricao("Salario")
+				.mes(1)
+				.ano(2019)
+				.valor(Dinheiro.de(BigDecimal.TEN))
+				.usuario(Usuario.builder().id(1l).build())
+				.build();
+	}
+
+	@Benchmark
+	public Lancamento validarValido() {
+		service.validar(valido);
+		return valido;
+	}
+	
+	@Benchmark
+	public RegraNegocioException validarInvalido() {
+		try {
+			service.validar(invalido);
+			return null;
+		} catch (RegraNegocioException e) {
+			return e;
+		}
+	}
+}
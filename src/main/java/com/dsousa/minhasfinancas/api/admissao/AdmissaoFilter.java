@@ -0,0 +1,213 @@
+package com.dsousa.minhasfinancas.api.admissao;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.dsousa.minhasfinancas.api.seguranca.AutenticacaoTokenFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admissao das requisiçoes da API antes de chegarem ao banco: um {@link BaldeTokens} por usuario
+ * autenticado (sem token, por endereço de origem) para as rotas comuns e outro para as custosas,
+ * mais um teto de requisiçoes em andamento.
+ * Quem passa do limite recebe 429 com Retry-After na hora, sem esperar por conexao.
+ */
+public class AdmissaoFilter extends OncePerRequestFilter {
+
+	public static final String METRICA = "minhasfinancas.admissao.recusas";
+
+	static final String COTA_ESGOTADA = "Limite de requisiçoes excedido. Tente novamente em instantes.";
+
+	static final String SERVIDOR_OCUPADO = "Servidor ocupado. Tente novamente em instantes.";
+
+	static final String API_LANCAMENTOS = "/api/lancamentos";
+
+	static final String API_USUARIOS = "/api/usuarios/";
+
+	static final long UM_SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+	private final Cota geral;
+
+	private final Cota custosa;
+
+	private final LongSupplier relogio;
+
+	//no maximo maximoChaves baldes. Sem uso pelo tempo de encher os dois, um balde é igual a um novo
+	//e pode expirar sem mudar o que o usuario pode fazer; so o limite de tamanho descarta baldes em uso
+	private final Cache<Object, Baldes> baldes;
+
+	//null sem teto de concorrencia
+	private final Semaphore emAndamento;
+
+	private final Counter recusasCota;
+
+	private final Counter recusasConcorrencia;
+
+	public AdmissaoFilter(Cota geral, Cota custosa, int concorrenciaMaxima, int maximoChaves, MeterRegistry registry) {
+		this(geral, custosa, concorrenciaMaxima, maximoChaves, registry, System::nanoTime);
+	}
+
+	AdmissaoFilter(Cota geral, Cota custosa, int concorrenciaMaxima, int maximoChaves, MeterRegistry registry, LongSupplier relogio) {
+		//cotas invalidas falham na subida, nao no primeiro request
+		geral.novoBalde(0);
+		custosa.novoBalde(0);
+		this.geral = geral;
+		this.custosa = custosa;
+		this.relogio = relogio;
+		this.baldes = Caffeine.newBuilder()
+				.maximumSize(maximoChaves)
+				.expireAfterAccess(Math.max(geral.nanosParaEncher(), custosa.nanosParaEncher()), TimeUnit.NANOSECONDS)
+				.ticker(relogio::getAsLong)
+				//manutençao (expiraçao e descarte) na propria requisiçao: pouco trabalho, e o tamanho fica no limite
+				.executor(Runnable::run)
+				.build();
+		this.emAndamento = concorrenciaMaxima > 0 ? new Semaphore(concorrenciaMaxima) : null;
+		this.recusasCota = registry.counter(METRICA, "motivo", "cota");
+		this.recusasConcorrencia = registry.counter(METRICA, "motivo", "concorrencia");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String caminho = caminho(request);
+		long agora = relogio.getAsLong();
+		Baldes doUsuario = baldes.get(chave(request), c -> new Baldes(geral.novoBalde(agora), custosa.novoBalde(agora)));
+		long falta = (custosa(request, caminho) ? doUsuario.custosa : doUsuario.geral).consumir(agora);
+		if(falta > 0) {
+			recusasCota.increment();
+			//Retry-After em segundos inteiros, arredondado para cima
+			recusar(response, (falta + UM_SEGUNDO - 1) / UM_SEGUNDO, COTA_ESGOTADA);
+			return;
+		}
+
+		if(emAndamento == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+		if(!emAndamento.tryAcquire()) {
+			recusasConcorrencia.increment();
+			recusar(response, 1, SERVIDOR_OCUPADO);
+			return;
+		}
+		boolean liberar = true;
+		try {
+			chain.doFilter(request, response);
+			//exportaçao (StreamingResponseBody) continua fora desta thread: a vaga vale ate o fim dela
+			if(request.isAsyncStarted()) {
+				request.getAsyncContext().addListener(new LiberarAoConcluir());
+				liberar = false;
+			}
+		} finally {
+			if(liberar) {
+				emAndamento.release();
+			}
+		}
+	}
+
+	//baldes guardados agora (depois da limpeza pendente do cache)
+	long chaves() {
+		baldes.cleanUp();
+		return baldes.estimatedSize();
+	}
+
+	//so o autenticado (id Long, posto pelo filtro de autenticaçao) tem cota propria: ids da rota ou
+	//de parametros nao sao confiaveis antes da autenticaçao e, trocados a cada requisiçao, dariam
+	//um balde novo a cada uma. Sem token, a cota é do endereço de origem
+	static Object chave(HttpServletRequest request) {
+		Object autenticado = request.getAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO);
+		return autenticado instanceof Long ? autenticado : request.getRemoteAddr();
+	}
+
+	//busca (GET /api/lancamentos), exportaçao e as rotas de saldo
+	static boolean custosa(HttpServletRequest request, String caminho) {
+		if(!"GET".equals(request.getMethod())) {
+			return false;
+		}
+		if(caminho.equals(API_LANCAMENTOS) || caminho.equals(API_LANCAMENTOS + "/export")) {
+			return true;
+		}
+		if(caminho.startsWith(API_USUARIOS)) {
+			int barra = caminho.indexOf('/', API_USUARIOS.length());
+			return barra > 0 && caminho.startsWith("/saldo", barra)
+					&& (caminho.length() == barra + 6 || caminho.charAt(barra + 6) == '/');
+		}
+		return false;
+	}
+
+	private static String caminho(HttpServletRequest request) {
+		String caminho = request.getRequestURI().substring(request.getContextPath().length());
+		return caminho.length() > 1 && caminho.endsWith("/") ? caminho.substring(0, caminho.length() - 1) : caminho;
+	}
+
+	private static void recusar(HttpServletResponse response, long segundos, String mensagem) throws IOException {
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+		response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		response.getWriter().write(mensagem);
+	}
+
+	private static class Baldes {
+
+		final BaldeTokens geral;
+
+		final BaldeTokens custosa;
+
+		Baldes(BaldeTokens geral, BaldeTokens custosa) {
+			this.geral = geral;
+			this.custosa = custosa;
+		}
+	}
+
+	//timeout e erro terminam em complete, mas nem todo container garante: libera uma vez no que vier antes
+	private class LiberarAoConcluir implements AsyncListener {
+
+		private final AtomicBoolean liberada = new AtomicBoolean();
+
+		@Override
+		public void onComplete(AsyncEvent evento) {
+			liberar();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent evento) {
+			liberar();
+		}
+
+		@Override
+		public void onError(AsyncEvent evento) {
+			liberar();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent evento) {
+			//um novo startAsync mantem o listener: a vaga continua presa
+			evento.getAsyncContext().addListener(this);
+		}
+
+		private void liberar() {
+			if(liberada.compareAndSet(false, true)) {
+				emAndamento.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.dsousa.minhasfinancas.api.admissao;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sem lock: o estado é um unico long, o instante (em nanos, do relogio do filtro) em que o
+ * balde estara cheio de novo. Cada token consumido empurra esse instante um intervalo para frente;
+ * ficar mais de {@code capacidade} intervalos a frente do agora é falta de token (GCRA).
+ */
+public class BaldeTokens {
+
+	private final long intervalo;
+
+	private final long limite;
+
+	private final AtomicLong cheioEm;
+
+	public BaldeTokens(int capacidade, double porSegundo, long agora) {
+		if(capacidade < 1 || porSegundo <= 0) {
+			throw new IllegalArgumentException("Capacidade e reposiçao do balde devem ser positivas.");
+		}
+		this.intervalo = Math.max(1, Math.round(1_000_000_000d / porSegundo));
+		this.limite = capacidade * intervalo;
+		this.cheioEm = new AtomicLong(agora);
+	}
+
+	/**
+	 * Consome um token. Devolve 0 se havia, senao quantos nanos faltam para o proximo
+	 * (a recusa nao consome nada).
+	 */
+	public long consumir(long agora) {
+		while(true) {
+			long atual = cheioEm.get();
+			//diferença, nao comparaçao direta: o System.nanoTime pode ser negativo
+			long proximo = (atual - agora > 0 ? atual : agora) + intervalo;
+			long falta = proximo - agora - limite;
+			if(falta > 0) {
+				return falta;
+			}
+			if(cheioEm.compareAndSet(atual, proximo)) {
+				return 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.dsousa.minhasfinancas.api.admissao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Orçamento de um {@link BaldeTokens}: rajada maxima e requisiçoes por segundo sustentadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cota {
+
+	private int capacidade;
+
+	private double porSegundo;
+
+	BaldeTokens novoBalde(long agora) {
+		return new BaldeTokens(capacidade, porSegundo, agora);
+	}
+
+	//tempo que um balde vazio leva para encher de novo
+	long nanosParaEncher() {
+		return (long) Math.ceil(capacidade * 1_000_000_000d / porSegundo);
+	}
+}
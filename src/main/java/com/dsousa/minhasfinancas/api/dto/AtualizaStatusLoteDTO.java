@@ -0,0 +1,23 @@
+package com.dsousa.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//ids e/ou filtro (ano, mes, tipo) dos lancamentos do usuario autenticado que vao para o novo status
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AtualizaStatusLoteDTO {
+	
+	private List<Long> ids;
+	private Integer ano;
+	private Integer mes;
+	private String tipo;
+	private String status;
+
+}
@@ -0,0 +1,16 @@
+package com.dsousa.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ErroLoteDTO {
+	
+	//posiçao do item no array enviado
+	private int indice;
+	private String mensagem;
+
+}
@@ -17,6 +17,8 @@ public class LancamentoDTO {
 	private Long usuario;
 	private String tipo;
 	private String status;
+	//versao lida pelo cliente; informada no PUT, o lancamento so é alterado se ainda estiver nela
+	private Long versao;
 	
 
 }
@@ -0,0 +1,19 @@
+package com.dsousa.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaDTO<T> {
+	
+	private List<T> itens;
+	
+	//nulo quando nao ha mais paginas
+	private String proximoCursor;
+
+}
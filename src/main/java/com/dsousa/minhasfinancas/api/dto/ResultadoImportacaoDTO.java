@@ -0,0 +1,21 @@
+package com.dsousa.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoImportacaoDTO {
+	
+	private int lidos;
+	private int salvos;
+	private int rejeitados;
+	private int lotes;
+	//indice = linha do arquivo; limitado aos primeiros ImportadorExtrato.MAXIMO_ERROS
+	private List<ErroLoteDTO> erros;
+
+}
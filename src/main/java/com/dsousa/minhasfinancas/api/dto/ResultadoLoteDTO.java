@@ -0,0 +1,18 @@
+package com.dsousa.minhasfinancas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoLoteDTO {
+	
+	private int recebidos;
+	private int salvos;
+	private List<ErroLoteDTO> erros;
+
+}
@@ -0,0 +1,18 @@
+package com.dsousa.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//resposta do login: dados do usuario (sem a senha) e o token para as proximas chamadas
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UsuarioAutenticadoDTO {
+	
+	private Long id;
+	private String nome;
+	private String email;
+	private String token;
+
+}
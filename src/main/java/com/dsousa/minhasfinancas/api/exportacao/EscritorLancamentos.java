@@ -0,0 +1,121 @@
+package com.dsousa.minhasfinancas.api.exportacao;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Escreve lancamentos um a um na saida, sem montar a resposta inteira em memoria.
+ */
+public abstract class EscritorLancamentos implements Closeable {
+	
+	private static final JsonFactory JSON = new JsonFactory();
+	
+	public static EscritorLancamentos para(FormatoExportacao formato, OutputStream saida) throws IOException {
+		switch (formato) {
+		case CSV:
+			return new Csv(saida);
+		case NDJSON:
+		default:
+			return new Ndjson(saida);
+		}
+	}
+	
+	public abstract void escrever(Lancamento lancamento) throws IOException;
+	
+	private static Long idUsuario(Lancamento lancamento) {
+		return lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+	}
+	
+	private static class Ndjson extends EscritorLancamentos {
+		
+		private final JsonGenerator gerador;
+		
+		private final char[] texto = new char[Dinheiro.TAMANHO_MAXIMO_TEXTO];
+		
+		Ndjson(OutputStream saida) throws IOException {
+			this.gerador = JSON.createGenerator(saida);
+			this.gerador.setRootValueSeparator(null);
+		}
+		
+		@Override
+		public void escrever(Lancamento lancamento) throws IOException {
+			gerador.writeStartObject();
+			gerador.writeObjectField("id", lancamento.getId());
+			gerador.writeStringField("descricao", lancamento.getDescricao());
+			gerador.writeObjectField("mes", lancamento.getMes());
+			gerador.writeObjectField("ano", lancamento.getAno());
+			valor(lancamento.getValor());
+			gerador.writeObjectField("tipo", lancamento.getTipo() == null ? null : lancamento.getTipo().name());
+			gerador.writeObjectField("status", lancamento.getStatus() == null ? null : lancamento.getStatus().name());
+			gerador.writeObjectField("usuario", idUsuario(lancamento));
+			gerador.writeObjectField("dataCadastro", lancamento.getDataCadastro() == null ? null : lancamento.getDataCadastro().toString());
+			gerador.writeEndObject();
+			gerador.writeRaw('\n');
+		}
+		
+		//numero com duas casas escrito direto dos centavos
+		private void valor(Dinheiro valor) throws IOException {
+			gerador.writeFieldName("valor");
+			if(valor == null) {
+				gerador.writeNull();
+			} else {
+				gerador.writeRawValue(texto, 0, valor.formatar(texto, 0));
+			}
+		}
+		
+		@Override
+		public void close() throws IOException {
+			gerador.close();
+		}
+	}
+	
+	private static class Csv extends EscritorLancamentos {
+		
+		private final Writer saida;
+		
+		Csv(OutputStream saida) throws IOException {
+			this.saida = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+			this.saida.write("id,descricao,mes,ano,valor,tipo,status,usuario,data_cadastro\n");
+		}
+		
+		@Override
+		public void escrever(Lancamento lancamento) throws IOException {
+			campo(lancamento.getId()).append(',');
+			texto(lancamento.getDescricao()).append(',');
+			campo(lancamento.getMes()).append(',');
+			campo(lancamento.getAno()).append(',');
+			campo(lancamento.getValor()).append(',');
+			campo(lancamento.getTipo()).append(',');
+			campo(lancamento.getStatus()).append(',');
+			campo(idUsuario(lancamento)).append(',');
+			campo(lancamento.getDataCadastro()).append('\n');
+		}
+		
+		private Writer campo(Object valor) throws IOException {
+			return valor == null ? saida : saida.append(valor.toString());
+		}
+		
+		//RFC 4180: aspas em volta e aspas internas duplicadas
+		private Writer texto(String valor) throws IOException {
+			if(valor == null) {
+				return saida;
+			}
+			return saida.append('"').append(valor.replace("\"", "\"\"")).append('"');
+		}
+		
+		@Override
+		public void close() throws IOException {
+			saida.close();
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.dsousa.minhasfinancas.api.exportacao;
+
+import org.springframework.http.MediaType;
+
+public enum FormatoExportacao {
+	
+	NDJSON("application/x-ndjson", "ndjson"),
+	CSV("text/csv", "csv");
+	
+	private final MediaType mediaType;
+	private final String extensao;
+	
+	FormatoExportacao(String mediaType, String extensao) {
+		this.mediaType = MediaType.parseMediaType(mediaType);
+		this.extensao = extensao;
+	}
+	
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+	
+	public String getExtensao() {
+		return extensao;
+	}
+}
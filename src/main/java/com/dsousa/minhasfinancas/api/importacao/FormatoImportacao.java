@@ -0,0 +1,8 @@
+package com.dsousa.minhasfinancas.api.importacao;
+
+public enum FormatoImportacao {
+	
+	CSV,
+	OFX;
+
+}
@@ -0,0 +1,84 @@
+package com.dsousa.minhasfinancas.api.importacao;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.dsousa.minhasfinancas.api.dto.ErroLoteDTO;
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.api.dto.ResultadoImportacaoDTO;
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Importa o extrato em lotes de {@code tamanhoLote} registros, cada um gravado por
+ * {@link LancamentoService#salvarLote(List)} numa transaçao propria. O proximo lote só é lido
+ * depois de gravado o anterior: a memoria usada nao depende do tamanho do arquivo.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ImportadorExtrato {
+	
+	public static final int MAXIMO_ERROS = 1000;
+	
+	private final LancamentoService service;
+	
+	private final int tamanhoLote;
+	
+	public ResultadoImportacaoDTO importar(LeitorExtrato leitor, Function<LancamentoDTO, Lancamento> conversor) throws IOException {
+		ResultadoImportacaoDTO resultado = new ResultadoImportacaoDTO(0, 0, 0, 0, new ArrayList<>());
+		List<Lancamento> lote = new ArrayList<>(tamanhoLote);
+		List<Integer> linhas = new ArrayList<>(tamanhoLote);
+		
+		LinhaExtrato registro;
+		while((registro = leitor.proxima()) != null) {
+			resultado.setLidos(resultado.getLidos() + 1);
+			if(registro.getErro() != null) {
+				rejeitar(resultado, registro.getLinha(), registro.getErro());
+				continue;
+			}
+			try {
+				lote.add(conversor.apply(registro.getLancamento()));
+				linhas.add(registro.getLinha());
+			} catch (RegraNegocioException e) {
+				rejeitar(resultado, registro.getLinha(), e.getMessage());
+			}
+			if(lote.size() == tamanhoLote) {
+				gravar(lote, linhas, resultado);
+			}
+		}
+		if(!lote.isEmpty()) {
+			gravar(lote, linhas, resultado);
+		}
+		
+		resultado.getErros().sort(Comparator.comparingInt(ErroLoteDTO::getIndice));
+		log.info("Importaçao concluida: {} registros lidos, {} salvos, {} rejeitados em {} lote(s).",
+				resultado.getLidos(), resultado.getSalvos(), resultado.getRejeitados(), resultado.getLotes());
+		return resultado;
+	}
+	
+	private void gravar(List<Lancamento> lote, List<Integer> linhas, ResultadoImportacaoDTO resultado) {
+		Map<Integer, String> erros = service.salvarLote(lote);
+		erros.forEach((i, mensagem) -> rejeitar(resultado, linhas.get(i), mensagem));
+		resultado.setSalvos(resultado.getSalvos() + lote.size() - erros.size());
+		resultado.setLotes(resultado.getLotes() + 1);
+		log.debug("Importaçao em andamento: lote {} gravado, {} registros lidos, {} salvos, {} rejeitados.",
+				resultado.getLotes(), resultado.getLidos(), resultado.getSalvos(), resultado.getRejeitados());
+		lote.clear();
+		linhas.clear();
+	}
+	
+	private static void rejeitar(ResultadoImportacaoDTO resultado, int linha, String mensagem) {
+		resultado.setRejeitados(resultado.getRejeitados() + 1);
+		if(resultado.getErros().size() < MAXIMO_ERROS) {
+			resultado.getErros().add(new ErroLoteDTO(linha, mensagem));
+		}
+	}
+}
@@ -0,0 +1,329 @@
+package com.dsousa.minhasfinancas.api.importacao;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+/**
+ * Le um extrato bancario registro a registro, sem carregar o arquivo inteiro em memoria.
+ * Valores negativos viram despesas e positivos receitas, salvo quando o CSV informa o tipo.
+ */
+public abstract class LeitorExtrato implements Closeable {
+	
+	//tamanho da coluna financas.lancamento.descricao
+	static final int TAMANHO_DESCRICAO = 100;
+	
+	private static final DateTimeFormatter DATA_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+	
+	protected final BufferedReader entrada;
+	
+	protected LeitorExtrato(InputStream entrada) {
+		this.entrada = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+	}
+	
+	public static LeitorExtrato de(FormatoImportacao formato, InputStream entrada) {
+		switch (formato) {
+		case OFX:
+			return new Ofx(entrada);
+		case CSV:
+		default:
+			return new Csv(entrada);
+		}
+	}
+	
+	//proximo registro, ou null no fim do arquivo
+	public abstract LinhaExtrato proxima() throws IOException;
+	
+	@Override
+	public void close() throws IOException {
+		entrada.close();
+	}
+	
+	static String descricao(String valor) {
+		String descricao = valor == null ? null : valor.trim();
+		return descricao != null && descricao.length() > TAMANHO_DESCRICAO 
+				? descricao.substring(0, TAMANHO_DESCRICAO) : descricao;
+	}
+	
+	//aceita 1234.56, 1,234.56 e 1.234,56: o ultimo separador é o decimal
+	static BigDecimal valor(String valor) {
+		String normalizado = valor.trim();
+		if(normalizado.lastIndexOf(',') > normalizado.lastIndexOf('.')) {
+			normalizado = normalizado.replace(".", "").replace(',', '.');
+		} else {
+			normalizado = normalizado.replace(",", "");
+		}
+		return new BigDecimal(normalizado);
+	}
+	
+	static LocalDate data(String valor) {
+		String data = valor.trim();
+		return data.indexOf('/') >= 0 ? LocalDate.parse(data, DATA_BR) : LocalDate.parse(data);
+	}
+	
+	static LancamentoDTO lancamento(String descricao, int mes, int ano, BigDecimal valor) {
+		return LancamentoDTO.builder()
+				.descricao(descricao(descricao))
+				.mes(mes)
+				.ano(ano)
+				.valor(valor.abs())
+				.tipo(valor.signum() < 0 ? TipoLancamento.DESPESA.name() : TipoLancamento.RECEITA.name())
+				.build();
+	}
+	
+	/**
+	 * CSV com cabeçalho (RFC 4180, separador ',' ou ';'). Colunas reconhecidas pelo nome: descricao,
+	 * valor e data (aaaa-mm-dd ou dd/mm/aaaa) ou mes e ano; tipo é opcional. Le tambem o CSV da exportaçao.
+	 */
+	private static class Csv extends LeitorExtrato {
+		
+		private int linha;
+		private char separador;
+		private Map<String, Integer> colunas;
+		
+		Csv(InputStream entrada) {
+			super(entrada);
+		}
+		
+		@Override
+		public LinhaExtrato proxima() throws IOException {
+			if(colunas == null && !lerCabecalho()) {
+				return null;
+			}
+			
+			List<String> campos;
+			int inicio;
+			do {
+				inicio = linha + 1;
+				campos = lerRegistro();
+				if(campos == null) {
+					return null;
+				}
+			} while(campos.size() == 1 && campos.get(0).trim().isEmpty());
+			
+			try {
+				return LinhaExtrato.lida(inicio, converter(campos));
+			} catch (NumberFormatException | DateTimeParseException e) {
+				return LinhaExtrato.invalida(inicio, "Valor ou data em formato invalido.");
+			} catch (RegraNegocioException e) {
+				return LinhaExtrato.invalida(inicio, e.getMessage());
+			}
+		}
+		
+		private boolean lerCabecalho() throws IOException {
+			String cabecalho = entrada.readLine();
+			if(cabecalho == null) {
+				return false;
+			}
+			linha++;
+			if(cabecalho.startsWith("\uFEFF")) {
+				cabecalho = cabecalho.substring(1);
+			}
+			separador = cabecalho.indexOf(';') >= 0 && cabecalho.indexOf(',') < 0 ? ';' : ',';
+			colunas = new HashMap<>();
+			List<String> nomes = new ArrayList<>();
+			StringBuilder nome = new StringBuilder();
+			separar(cabecalho, nome, nomes, false);
+			nomes.add(nome.toString());
+			for(int i = 0; i < nomes.size(); i++) {
+				colunas.put(nomes.get(i).trim().toLowerCase(Locale.ROOT), i);
+			}
+			return true;
+		}
+		
+		private LancamentoDTO converter(List<String> campos) {
+			String valor = campo(campos, "valor");
+			if(valor == null) {
+				throw new RegraNegocioException("Informe um Valor valido.");
+			}
+			
+			String data = campo(campos, "data");
+			String mes = campo(campos, "mes");
+			String ano = campo(campos, "ano");
+			LancamentoDTO lancamento;
+			if(data != null) {
+				LocalDate dataLancamento = data(data);
+				lancamento = lancamento(campo(campos, "descricao"), 
+						dataLancamento.getMonthValue(), dataLancamento.getYear(), valor(valor));
+			} else if(mes != null && ano != null) {
+				lancamento = lancamento(campo(campos, "descricao"), 
+						Integer.parseInt(mes.trim()), Integer.parseInt(ano.trim()), valor(valor));
+			} else {
+				throw new RegraNegocioException("Informe a data ou o mes e o ano do lancamento.");
+			}
+			
+			//com o tipo informado o valor é absoluto (como na exportaçao)
+			String tipo = campo(campos, "tipo");
+			if(tipo != null) {
+				lancamento.setTipo(tipo.trim().toUpperCase(Locale.ROOT));
+			}
+			return lancamento;
+		}
+		
+		private String campo(List<String> campos, String nome) {
+			Integer indice = colunas.get(nome);
+			if(indice == null || indice >= campos.size() || campos.get(indice).isEmpty()) {
+				return null;
+			}
+			return campos.get(indice);
+		}
+		
+		//um registro pode ocupar mais de uma linha quando um campo entre aspas contem quebras
+		private List<String> lerRegistro() throws IOException {
+			String texto = entrada.readLine();
+			if(texto == null) {
+				return null;
+			}
+			linha++;
+			List<String> campos = new ArrayList<>();
+			StringBuilder campo = new StringBuilder();
+			boolean entreAspas = separar(texto, campo, campos, false);
+			while(entreAspas && (texto = entrada.readLine()) != null) {
+				linha++;
+				campo.append('\n');
+				entreAspas = separar(texto, campo, campos, true);
+			}
+			campos.add(campo.toString());
+			return campos;
+		}
+		
+		//separa os campos completos da linha em campos; o ultimo fica em campo.
+		//Retorna true quando a linha termina dentro de aspas: o campo continua na proxima linha
+		private boolean separar(String texto, StringBuilder campo, List<String> campos, boolean entreAspas) {
+			for(int i = 0; i < texto.length(); i++) {
+				char c = texto.charAt(i);
+				if(entreAspas) {
+					if(c == '"' && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+						campo.append('"');
+						i++;
+					} else if(c == '"') {
+						entreAspas = false;
+					} else {
+						campo.append(c);
+					}
+				} else if(c == '"') {
+					entreAspas = true;
+				} else if(c == separador) {
+					campos.add(campo.toString());
+					campo.setLength(0);
+				} else {
+					campo.append(c);
+				}
+			}
+			return entreAspas;
+		}
+	}
+	
+	/**
+	 * OFX 1.x (SGML, tags sem fechamento) ou 2.x (XML): um registro por <STMTTRN>,
+	 * com DTPOSTED, TRNAMT e MEMO (ou NAME).
+	 */
+	private static class Ofx extends LeitorExtrato {
+		
+		private static final String TRANSACAO = "STMTTRN";
+		
+		private int linha = 1;
+		private int proximo = -2;
+		
+		Ofx(InputStream entrada) {
+			super(entrada);
+		}
+		
+		@Override
+		public LinhaExtrato proxima() throws IOException {
+			String tag;
+			while((tag = proximaTag()) != null && !TRANSACAO.equals(tag)) {
+				//cabeçalho e demais blocos do extrato
+			}
+			if(tag == null) {
+				return null;
+			}
+			
+			int inicio = linha;
+			Map<String, String> campos = new HashMap<>();
+			while(!("/" + TRANSACAO).equals(tag = proximaTag())) {
+				if(tag == null) {
+					return LinhaExtrato.invalida(inicio, "Transaçao incompleta no fim do arquivo.");
+				}
+				if(!tag.startsWith("/")) {
+					campos.put(tag, texto());
+				}
+			}
+			
+			String valor = campos.get("TRNAMT");
+			String data = campos.get("DTPOSTED");
+			String descricao = campos.containsKey("MEMO") ? campos.get("MEMO") : campos.get("NAME");
+			if(valor == null || data == null || data.length() < 8) {
+				return LinhaExtrato.invalida(inicio, "Transaçao sem valor ou data.");
+			}
+			try {
+				LocalDate dataLancamento = LocalDate.parse(data.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+				return LinhaExtrato.lida(inicio, 
+						lancamento(descricao, dataLancamento.getMonthValue(), dataLancamento.getYear(), valor(valor)));
+			} catch (NumberFormatException | DateTimeParseException e) {
+				return LinhaExtrato.invalida(inicio, "Valor ou data em formato invalido.");
+			}
+		}
+		
+		//nome da proxima tag (em maiusculas, "/NOME" para fechamento), ou null no fim do arquivo
+		private String proximaTag() throws IOException {
+			int c;
+			while((c = ler()) != -1 && c != '<') {
+				//texto fora de tags
+			}
+			if(c == -1) {
+				return null;
+			}
+			StringBuilder tag = new StringBuilder();
+			while((c = ler()) != -1 && c != '>') {
+				tag.append((char) c);
+			}
+			return tag.toString().trim().toUpperCase(Locale.ROOT);
+		}
+		
+		//conteudo ate a proxima tag, que fica para a proxima leitura
+		private String texto() throws IOException {
+			StringBuilder texto = new StringBuilder();
+			int c;
+			while((c = ler()) != -1 && c != '<') {
+				texto.append((char) c);
+			}
+			proximo = c;
+			return desescapar(texto.toString().trim());
+		}
+		
+		private int ler() throws IOException {
+			int c;
+			if(proximo != -2) {
+				c = proximo;
+				proximo = -2;
+			} else {
+				c = entrada.read();
+				if(c == '\n') {
+					linha++;
+				}
+			}
+			return c;
+		}
+		
+		private static String desescapar(String texto) {
+			return texto.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+		}
+	}
+}
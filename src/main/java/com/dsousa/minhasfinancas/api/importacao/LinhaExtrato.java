@@ -0,0 +1,28 @@
+package com.dsousa.minhasfinancas.api.importacao;
+
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Um registro do extrato: o lancamento lido ou o motivo de nao ter sido possivel le-lo.
+ */
+@Data
+@AllArgsConstructor
+public class LinhaExtrato {
+	
+	//linha do arquivo onde o registro começa (1 = primeira linha)
+	private int linha;
+	private LancamentoDTO lancamento;
+	private String erro;
+	
+	public static LinhaExtrato lida(int linha, LancamentoDTO lancamento) {
+		return new LinhaExtrato(linha, lancamento, null);
+	}
+	
+	public static LinhaExtrato invalida(int linha, String erro) {
+		return new LinhaExtrato(linha, null, erro);
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.dsousa.minhasfinancas.api.metricas;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.dsousa.minhasfinancas.model.repository.ContadorStatements;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Registra em {@link #METRICA} quantos statements SQL cada request emitiu,
+ * com as mesmas tags uri e method de http.server.requests.
+ */
+@RequiredArgsConstructor
+public class ContagemStatementsFilter extends OncePerRequestFilter {
+	
+	public static final String METRICA = "minhasfinancas.sql.statements";
+	
+	static final String URI_DESCONHECIDA = "UNKNOWN";
+	
+	private final MeterRegistry registry;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		ContadorStatements.iniciar();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			int statements = ContadorStatements.encerrar();
+			//padrao da rota (/api/lancamentos/{id}), nao o caminho: mantem a cardinalidade das tags baixa
+			Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			DistributionSummary.builder(METRICA)
+				.baseUnit("statements")
+				.tag("uri", padrao != null ? padrao.toString() : URI_DESCONHECIDA)
+				.tag("method", request.getMethod())
+				.register(registry)
+				.record(statements);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import java.util.Optional;
+
+import org.springframework.web.context.request.WebRequest;
+
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+/**
+ * ETag forte das leituras de um usuario, derivado da versao de saldo_usuario, que toda
+ * escrita em lancamentos incrementa. A versao é lida antes dos dados: uma escrita concorrente
+ * pode no maximo gerar uma resposta a mais, nunca um 304 com dados antigos.
+ */
+final class EtagUsuario {
+	
+	private EtagUsuario() {
+	}
+	
+	static String de(Long idUsuario, long versao) {
+		return "\"" + idUsuario + "-" + versao + "\"";
+	}
+	
+	//true quando o If-None-Match confere: a resposta 304 ja foi preparada e a consulta nao deve rodar.
+	//Nos demais casos o ETag vai no cabeçalho da resposta (usuario sem versao: sem ETag)
+	static boolean naoModificado(WebRequest request, LancamentoService service, Long idUsuario) {
+		Optional<Long> versao = service.obterVersao(idUsuario);
+		return versao.isPresent() && request.checkNotModified(de(idUsuario, versao.get()));
+	}
+}
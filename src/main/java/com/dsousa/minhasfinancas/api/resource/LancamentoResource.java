@@ -1,9 +1,21 @@
 package com.dsousa.minhasfinancas.api.resource;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,16 +24,34 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.dsousa.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.dsousa.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.dsousa.minhasfinancas.api.dto.ErroLoteDTO;
 import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.api.dto.PaginaDTO;
+import com.dsousa.minhasfinancas.api.dto.ResultadoImportacaoDTO;
+import com.dsousa.minhasfinancas.api.dto.ResultadoLoteDTO;
+import com.dsousa.minhasfinancas.api.exportacao.EscritorLancamentos;
+import com.dsousa.minhasfinancas.api.exportacao.FormatoExportacao;
+import com.dsousa.minhasfinancas.api.importacao.FormatoImportacao;
+import com.dsousa.minhasfinancas.api.importacao.ImportadorExtrato;
+import com.dsousa.minhasfinancas.api.importacao.LeitorExtrato;
+import com.dsousa.minhasfinancas.api.seguranca.AutenticacaoTokenFilter;
+import com.dsousa.minhasfinancas.exception.ConflitoVersaoException;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
 import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.CursorLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
 import com.dsousa.minhasfinancas.service.LancamentoService;
 import com.dsousa.minhasfinancas.service.UsuarioService;
 
@@ -36,104 +66,337 @@ public class LancamentoResource {
 	
 	private final UsuarioService usuarioService;
 	
+	static final int LIMITE_MAXIMO = 500;
+	
+	static final int LOTE_MAXIMO = 10000;
+	
+	static final String LANCAMENTO_NAO_ENCONTRADO = "Lancamento nao encontrado na base de Dados.";
+	
+	static final String USUARIO_NAO_ENCONTRADO = "Usuario nao encontrado para o id informado.";
+	
+	static final String OUTRO_USUARIO = "O usuario informado difere do usuario autenticado.";
+	
+	@Value("${minhasfinancas.importacao.tamanho-lote:1000}")
+	private int tamanhoLoteImportacao;
+	
 	@PostMapping
-	public ResponseEntity salvar(@RequestBody LancamentoDTO dto) {
+	public ResponseEntity salvar(@RequestBody LancamentoDTO dto,
+			@RequestAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO) Long idUsuarioAutenticado) {
 		
 		try {
-			Lancamento entidade =  converter(dto);
+			atribuirUsuario(dto, idUsuarioAutenticado);
+			Lancamento entidade =  converter(dto, usuarioService::obterReferencia);
 			entidade = service.salvar(entidade);
-			return new ResponseEntity(entidade, HttpStatus.CREATED);
+			return new ResponseEntity(converter(entidade), HttpStatus.CREATED);
 		} catch (RegraNegocioException e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (DataIntegrityViolationException e) {
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO);
 		}
 			
 	}
 	
-	private Lancamento converter(LancamentoDTO dto) {
+	@PostMapping("/lote")
+	public ResponseEntity salvarLote(@RequestBody List<LancamentoDTO> dtos,
+			@RequestAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO) Long idUsuarioAutenticado) {
+		if(dtos == null || dtos.isEmpty()) {
+			return ResponseEntity.badRequest().body("Informe ao menos um lancamento.");
+		}
+		if(dtos.size() > LOTE_MAXIMO) {
+			return ResponseEntity.badRequest().body("Envie no maximo " + LOTE_MAXIMO + " lancamentos por lote.");
+		}
+		
+		//todos os itens sao do usuario do token: uma unica referencia, sem consulta
+		Usuario usuario = usuarioService.obterReferencia(idUsuarioAutenticado);
+		Map<Integer, String> erros = new TreeMap<>();
+		List<Lancamento> lancamentos = new ArrayList<>(dtos.size());
+		List<Integer> indices = new ArrayList<>(dtos.size());
+		for(int i = 0; i < dtos.size(); i++) {
+			try {
+				atribuirUsuario(dtos.get(i), idUsuarioAutenticado);
+				lancamentos.add(converter(dtos.get(i), id -> usuario));
+				indices.add(i);
+			} catch (RegraNegocioException e) {
+				erros.put(i, e.getMessage());
+			}
+		}
+		
+		service.salvarLote(lancamentos).forEach((i, mensagem) -> erros.put(indices.get(i), mensagem));
+		
+		List<ErroLoteDTO> errosLote = new ArrayList<>(erros.size());
+		erros.forEach((i, mensagem) -> errosLote.add(new ErroLoteDTO(i, mensagem)));
+		ResultadoLoteDTO resultado = new ResultadoLoteDTO(dtos.size(), dtos.size() - erros.size(), errosLote);
+		
+		HttpStatus status = resultado.getSalvos() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+		return new ResponseEntity(resultado, status);
+	}
+	
+	//extrato bancario no corpo do request (text/csv ou OFX), lido como stream e gravado em lotes
+	@PostMapping("/importar")
+	public ResponseEntity importar(InputStream arquivo,
+			@RequestParam(value = "format", required = false, defaultValue = "csv") String formato,
+			@RequestAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO) Long idUsuarioAutenticado) throws IOException {
+		FormatoImportacao formatoSelecionado;
+		try {
+			formatoSelecionado = FormatoImportacao.valueOf(formato.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Formato de importaçao invalido. Use csv ou ofx.");
+		}
+		
+		Usuario usuario = usuarioService.obterReferencia(idUsuarioAutenticado);
+		ImportadorExtrato importador = new ImportadorExtrato(service, tamanhoLoteImportacao);
+		ResultadoImportacaoDTO resultado;
+		try (LeitorExtrato leitor = LeitorExtrato.de(formatoSelecionado, arquivo)) {
+			resultado = importador.importar(leitor, dto -> {
+				atribuirUsuario(dto, idUsuarioAutenticado);
+				return converter(dto, id -> usuario);
+			});
+		}
+		
+		HttpStatus status = resultado.getSalvos() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+		return new ResponseEntity(resultado, status);
+	}
+	
+	private LancamentoDTO converter(Lancamento lancamento) {
+		return LancamentoDTO.builder()
+				.id(lancamento.getId())
+				.descricao(lancamento.getDescricao())
+				.mes(lancamento.getMes())
+				.ano(lancamento.getAno())
+				.valor(lancamento.getValor() == null ? null : lancamento.getValor().paraBigDecimal())
+				//getId de um proxy nao dispara a carga do usuario
+				.usuario(lancamento.getUsuario().getId())
+				.tipo(lancamento.getTipo() == null ? null : lancamento.getTipo().name())
+				.status(lancamento.getStatus() == null ? null : lancamento.getStatus().name())
+				.versao(lancamento.getVersao())
+				.build();
+	}
+	
+	//409 com o estado atual (e a versao nova) para o cliente decidir; removido nesse meio tempo ou
+	//de outro usuario = nao encontrado
+	private ResponseEntity conflito(Long id, Long idUsuarioAutenticado) {
+		Optional<Lancamento> atual = service.obterPorId(id)
+				.filter(lancamento -> lancamento.getUsuario().getId().equals(idUsuarioAutenticado));
+		if(!atual.isPresent()) {
+			return new ResponseEntity(LANCAMENTO_NAO_ENCONTRADO, HttpStatus.BAD_REQUEST);
+		}
+		return new ResponseEntity(converter(atual.get()), HttpStatus.CONFLICT);
+	}
+	
+	//o usuario vem do token; se o corpo informar outro, o lancamento é recusado
+	private static void atribuirUsuario(LancamentoDTO dto, Long idUsuarioAutenticado) {
+		if(dto == null) {
+			throw new RegraNegocioException("Informe um lancamento.");
+		}
+		if(dto.getUsuario() == null) {
+			dto.setUsuario(idUsuarioAutenticado);
+		} else if(!dto.getUsuario().equals(idUsuarioAutenticado)) {
+			throw new RegraNegocioException(OUTRO_USUARIO);
+		}
+	}
+	
+	//visivel no pacote para o ConversaoBenchmark (src/jmh)
+	Lancamento converter(LancamentoDTO dto, Function<Long, Usuario> referenciaUsuario) {
+		if(dto == null) {
+			throw new RegraNegocioException("Informe um lancamento.");
+		}
+		if(dto.getUsuario() == null) {
+			throw new RegraNegocioException("Informe um Usuario.");
+		}
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
 		lancamento.setDescricao(dto.getDescricao());
 		lancamento.setAno(dto.getAno());
 		lancamento.setMes(dto.getMes());
-		lancamento.setValor(dto.getValor());
-
-		Usuario usuario = usuarioService
-				.obterPorId(dto.getUsuario())
-				.orElseThrow(() -> new RegraNegocioException("Usuario nao encontrado para o id informado."));
-		lancamento.setUsuario(usuario);
-		if(dto.getTipo() != null) {
-			lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+		lancamento.setVersao(dto.getVersao());
+		try {
+			lancamento.setValor(Dinheiro.de(dto.getValor()));
+		} catch (ArithmeticException e) {
+			throw new RegraNegocioException("Informe um Valor valido.");
 		}
-		
-		if(dto.getStatus() != null) {
-			lancamento.setStatus(StatusLancamento.valueOf(dto.getStatus()));
+
+		lancamento.setUsuario(referenciaUsuario.apply(dto.getUsuario()));
+		try {
+			if(dto.getTipo() != null) {
+				lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+			}
+			
+			if(dto.getStatus() != null) {
+				lancamento.setStatus(StatusLancamento.valueOf(dto.getStatus()));
+			}
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Informe um Tipo e um Status de Lancamento validos.");
 		}
 		
 		return lancamento;
 	}
 	
 	@PutMapping("{id}")
-	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
-		return service.obterPorId(id).map(entity -> {
-			try {
-				Lancamento lancamento =  converter(dto);
-				lancamento.setId(entity.getId());
-				service.atualizar(lancamento);
-				return ResponseEntity.ok(lancamento);
-			} catch (RegraNegocioException e) {
-				
-				return ResponseEntity.badRequest().body(e.getMessage());
-			}
-		}).orElseGet(() -> new ResponseEntity("Lancamento nao encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
-		
+	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto,
+			@RequestAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO) Long idUsuarioAutenticado) {
+		try {
+			atribuirUsuario(dto, idUsuarioAutenticado);
+			Lancamento lancamento = converter(dto, usuarioService::obterReferencia);
+			lancamento.setId(id);
+			service.atualizar(lancamento);
+			return ResponseEntity.ok(converter(lancamento));
+		} catch (ConflitoVersaoException e) {
+			return conflito(id, idUsuarioAutenticado);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (DataIntegrityViolationException e) {
+			return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO);
+		}
 	}
 	
 	@PutMapping("{id}/atualiza-status")
-	public ResponseEntity atualizarStatus (@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto) {
-		return service.obterPorId(id).map(entity -> {
-			StatusLancamento statusSelecionado =  StatusLancamento.valueOf(dto.getStatus());
-			if(statusSelecionado == null) {
-				return ResponseEntity.badRequest().body("Nao foi possivel atualizar o status do lançamento, envie um status valido.");
-			}
-			try {
-				entity.setStatus(statusSelecionado);
-				service.atualizar(entity);
-				return ResponseEntity.ok(entity);
-			} catch (RegraNegocioException e) {
-				return ResponseEntity.badRequest().body(e.getMessage());
+	public ResponseEntity atualizarStatus (@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto,
+			@RequestAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO) Long idUsuarioAutenticado) {
+		StatusLancamento statusSelecionado;
+		try {
+			statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			return ResponseEntity.badRequest().body("Nao foi possivel atualizar o status do lançamento, envie um status valido.");
+		}
+		
+		try {
+			if(!service.atualizarStatus(id, idUsuarioAutenticado, statusSelecionado)) {
+				return new ResponseEntity(LANCAMENTO_NAO_ENCONTRADO, HttpStatus.BAD_REQUEST);
 			}
-		}).orElseGet(() -> new ResponseEntity("Lancamento nao encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
+		} catch (ConflitoVersaoException e) {
+			return conflito(id, idUsuarioAutenticado);
+		}
+		return ResponseEntity.ok(new AtualizaStatusDTO(statusSelecionado.name()));
+	}
+	
+	@PutMapping("/atualiza-status")
+	public ResponseEntity atualizarStatusEmLote(@RequestBody AtualizaStatusLoteDTO dto,
+			@RequestAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO) Long idUsuarioAutenticado) {
+		boolean porIds = dto.getIds() != null && !dto.getIds().isEmpty();
+		if(!porIds && dto.getAno() == null) {
+			return ResponseEntity.badRequest().body("Informe os ids dos lancamentos ou ao menos o ano.");
+		}
+		if(porIds && dto.getIds().size() > LOTE_MAXIMO) {
+			return ResponseEntity.badRequest().body("Envie no maximo " + LOTE_MAXIMO + " ids por atualizaçao.");
+		}
 		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(idUsuarioAutenticado).build());
+		filtro.setAno(dto.getAno());
+		filtro.setMes(dto.getMes());
+		StatusLancamento statusSelecionado;
+		try {
+			filtro.setTipo(dto.getTipo() == null ? null : TipoLancamento.valueOf(dto.getTipo()));
+			statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			return ResponseEntity.badRequest().body("Nao foi possivel atualizar o status dos lançamentos, envie um tipo e um status validos.");
+		}
+		
+		int atualizados = service.atualizarStatus(filtro, dto.getIds(), statusSelecionado);
+		return ResponseEntity.ok(atualizados);
 	}
 	
 	@DeleteMapping("{id}")
-	public ResponseEntity deletar(@PathVariable ("id") Long id) {
-		return service.obterPorId(id).map(entidade -> {
-			service.deletar(entidade);
-			return new ResponseEntity( HttpStatus.NO_CONTENT );
-		}).orElseGet(() -> new ResponseEntity("Lancamento nao encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
+	public ResponseEntity deletar(@PathVariable ("id") Long id,
+			@RequestAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO) Long idUsuarioAutenticado) {
+		try {
+			if(!service.deletar(id, idUsuarioAutenticado)) {
+				return new ResponseEntity(LANCAMENTO_NAO_ENCONTRADO, HttpStatus.BAD_REQUEST);
+			}
+		} catch (ConflitoVersaoException e) {
+			return conflito(id, idUsuarioAutenticado);
+		}
+		return new ResponseEntity( HttpStatus.NO_CONTENT );
 	}
+	
 	@GetMapping
 	public ResponseEntity buscar(
 			@RequestParam(value = "descricao", required = false) String descricao,
 			@RequestParam(value = "mes", required = false) Integer mes,
 			@RequestParam(value = "ano", required = false) Integer ano,
-			@RequestParam("usuario") Long idUsuario
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", required = false, defaultValue = "50") Integer limite,
+			@RequestAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO) Long idUsuarioAutenticado,
+			WebRequest request
 			) {
+		if(limite < 1 || limite > LIMITE_MAXIMO) {
+			return ResponseEntity.badRequest().body("Informe um limite entre 1 e " + LIMITE_MAXIMO + ".");
+		}
 		Lancamento lancamentoFiltro = new Lancamento();
 		lancamentoFiltro.setDescricao(descricao);
 		lancamentoFiltro.setMes(mes);
 		lancamentoFiltro.setAno(ano);
 		
-		Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
+		if(idUsuario != null && !idUsuario.equals(idUsuarioAutenticado)) {
+			return ResponseEntity.badRequest().body(OUTRO_USUARIO);
+		}
+		//o filtro so usa o id: nada a buscar no banco
+		lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuarioAutenticado).build());
+		
+		try {
+			CursorLancamento aPartirDe = cursor == null ? null : CursorLancamento.decodificar(cursor);
+			if(EtagUsuario.naoModificado(request, service, idUsuarioAutenticado)) {
+				return null;
+			}
+			//um registro a mais so para saber se existe proxima pagina
+			List<LancamentoResumo> lancamentos = service.buscar(lancamentoFiltro, aPartirDe, limite + 1);
+			return ResponseEntity.ok(paginar(lancamentos, limite));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	//o tipo generico é obrigatorio para o Spring tratar o corpo como StreamingResponseBody
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportar(
+			@RequestParam(value = "usuario", required = false) Long idUsuarioInformado,
+			@RequestParam(value = "format", required = false, defaultValue = "ndjson") String formato,
+			@RequestAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO) Long idUsuario
+			) {
+		FormatoExportacao formatoSelecionado;
+		try {
+			formatoSelecionado = FormatoExportacao.valueOf(formato.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return erroExportacao("Formato de exportaçao invalido. Use ndjson ou csv.");
+		}
 		
-		if(!usuario.isPresent()) {
-			return ResponseEntity.badRequest().body("Nao foi possivel realizar a consulta. Usuario nao encontrado para o Id informado");
-		}else {
-			lancamentoFiltro.setUsuario(usuario.get());
+		if(idUsuarioInformado != null && !idUsuarioInformado.equals(idUsuario)) {
+			return erroExportacao(OUTRO_USUARIO);
 		}
 		
-		List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
-		return ResponseEntity.ok(lancamentos);
+		//executado fora da thread do request; a transaçao de leitura é aberta pelo proprio service
+		StreamingResponseBody corpo = saida -> {
+			try (EscritorLancamentos escritor = EscritorLancamentos.para(formatoSelecionado, saida)) {
+				service.exportar(idUsuario, lancamento -> {
+					try {
+						escritor.escrever(lancamento);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		
+		return ResponseEntity.ok()
+				.contentType(formatoSelecionado.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION, 
+						"attachment; filename=\"lancamentos-" + idUsuario + "." + formatoSelecionado.getExtensao() + "\"")
+				.body(corpo);
+	}
+	
+	private ResponseEntity<StreamingResponseBody> erroExportacao(String mensagem) {
+		return ResponseEntity.badRequest()
+				.contentType(MediaType.TEXT_PLAIN)
+				.body(saida -> saida.write(mensagem.getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	private PaginaDTO<LancamentoResumo> paginar(List<LancamentoResumo> lancamentos, int limite) {
+		if(lancamentos.size() <= limite) {
+			return new PaginaDTO<>(lancamentos, null);
+		}
+		List<LancamentoResumo> pagina = lancamentos.subList(0, limite);
+		String proximoCursor = CursorLancamento.de(pagina.get(limite - 1)).codificar();
+		return new PaginaDTO<>(pagina, proximoCursor);
 	}
 }
@@ -1,6 +1,10 @@
 package com.dsousa.minhasfinancas.api.resource;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.http.HttpStatus;
@@ -10,13 +14,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.dsousa.minhasfinancas.api.dto.UsuarioAutenticadoDTO;
 import com.dsousa.minhasfinancas.api.dto.UsuarioDTO;
 import com.dsousa.minhasfinancas.exception.ErroAutenticacao;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.Granularidade;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.projection.SaldoAcumulado;
+import com.dsousa.minhasfinancas.model.projection.SaldoMensal;
 import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.TokenService;
 import com.dsousa.minhasfinancas.service.UsuarioService;
 
 import lombok.RequiredArgsConstructor;
@@ -25,9 +38,15 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/api/usuarios")
 @RequiredArgsConstructor
 public class UsuarioResource {
+	
+	static final int MESES_RESUMO_PADRAO = 12;
+	
+	//limita o tamanho da resposta da serie mensal (cem anos)
+	static final int MESES_SERIE_MAXIMO = 1200;
 
 	private final UsuarioService service;
 	private final LancamentoService lancamentoService;
+	private final TokenService tokenService;
 	
 	@PostMapping
 	public ResponseEntity salvar( @RequestBody UsuarioDTO dto) {
@@ -51,7 +70,9 @@ public class UsuarioResource {
 		
 		try {
 			Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-			return ResponseEntity.ok(usuarioAutenticado);
+			String token = tokenService.gerarToken(usuarioAutenticado);
+			return ResponseEntity.ok(new UsuarioAutenticadoDTO(usuarioAutenticado.getId(),
+					usuarioAutenticado.getNome(), usuarioAutenticado.getEmail(), token));
 		} catch (ErroAutenticacao e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
 		}
@@ -59,13 +80,105 @@ public class UsuarioResource {
 	}
 	
 	@GetMapping("{id}/saldo")
-	public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
+	public ResponseEntity obterSaldo(@PathVariable("id") Long id, WebRequest request) {
 		Optional<Usuario> usuario = service.obterPorId(id);
 		if(!usuario.isPresent()) {
 			return new ResponseEntity(HttpStatus.NOT_FOUND);
 		}
+		if(EtagUsuario.naoModificado(request, lancamentoService, id)) {
+			return null;
+		}
 		
 		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
 		return ResponseEntity.ok(saldo);
 	}
+	
+	@GetMapping("{id}/saldo/mensal")
+	public ResponseEntity obterSaldoMensal(@PathVariable("id") Long id, @RequestParam("ano") Integer ano, WebRequest request) {
+		Optional<Usuario> usuario = service.obterPorId(id);
+		if(!usuario.isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		if(EtagUsuario.naoModificado(request, lancamentoService, id)) {
+			return null;
+		}
+		
+		List<SaldoMensal> saldoMensal = lancamentoService.obterSaldoMensalPorUsuario(id, ano);
+		return ResponseEntity.ok(saldoMensal);
+	}
+	
+	//painel: le so a tabela resumo_mensal. Sem periodo, os ultimos 12 meses
+	@GetMapping("{id}/resumo")
+	public ResponseEntity obterResumo(@PathVariable("id") Long id,
+			@RequestParam(value = "de", required = false) String de,
+			@RequestParam(value = "ate", required = false) String ate,
+			WebRequest request) {
+		YearMonth inicio;
+		YearMonth fim;
+		try {
+			fim = ate != null ? YearMonth.parse(ate) : YearMonth.now();
+			inicio = de != null ? YearMonth.parse(de) : fim.minusMonths(MESES_RESUMO_PADRAO - 1);
+		} catch (DateTimeParseException e) {
+			return ResponseEntity.badRequest().body("Informe o periodo no formato aaaa-mm.");
+		}
+		if(inicio.isAfter(fim)) {
+			return ResponseEntity.badRequest().body("O inicio do periodo deve ser anterior ao fim.");
+		}
+		
+		Optional<Usuario> usuario = service.obterPorId(id);
+		if(!usuario.isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		if(EtagUsuario.naoModificado(request, lancamentoService, id)) {
+			return null;
+		}
+		
+		List<ResumoMensal> resumo = lancamentoService.obterResumoMensal(id, inicio, fim);
+		return ResponseEntity.ok(resumo);
+	}
+	
+	//grafico do saldo: acumulado ao fim de cada mes (ou ano) do periodo, calculado a partir da tabela resumo_mensal.
+	//Sem periodo, os ultimos 12 meses
+	@GetMapping("{id}/saldo/serie")
+	public ResponseEntity obterSerieSaldo(@PathVariable("id") Long id,
+			@RequestParam(value = "de", required = false) String de,
+			@RequestParam(value = "ate", required = false) String ate,
+			@RequestParam(value = "granularidade", required = false, defaultValue = "mes") String granularidade,
+			@RequestParam(value = "status", required = false) String status,
+			WebRequest request) {
+		YearMonth inicio;
+		YearMonth fim;
+		try {
+			fim = ate != null ? YearMonth.parse(ate) : YearMonth.now();
+			inicio = de != null ? YearMonth.parse(de) : fim.minusMonths(MESES_RESUMO_PADRAO - 1);
+		} catch (DateTimeParseException e) {
+			return ResponseEntity.badRequest().body("Informe o periodo no formato aaaa-mm.");
+		}
+		if(inicio.isAfter(fim)) {
+			return ResponseEntity.badRequest().body("O inicio do periodo deve ser anterior ao fim.");
+		}
+		
+		Granularidade granularidadeSelecionada;
+		StatusLancamento statusSelecionado;
+		try {
+			granularidadeSelecionada = Granularidade.valueOf(granularidade.toUpperCase());
+			statusSelecionado = status != null ? StatusLancamento.valueOf(status.toUpperCase()) : null;
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Informe a granularidade (mes ou ano) e, se quiser, um status valido.");
+		}
+		if(granularidadeSelecionada == Granularidade.MES && inicio.until(fim, ChronoUnit.MONTHS) >= MESES_SERIE_MAXIMO) {
+			return ResponseEntity.badRequest().body("A serie mensal pode ter no maximo " + MESES_SERIE_MAXIMO + " meses.");
+		}
+		
+		Optional<Usuario> usuario = service.obterPorId(id);
+		if(!usuario.isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		if(EtagUsuario.naoModificado(request, lancamentoService, id)) {
+			return null;
+		}
+		
+		List<SaldoAcumulado> serie = lancamentoService.obterSerieSaldo(id, inicio, fim, statusSelecionado, granularidadeSelecionada);
+		return ResponseEntity.ok(serie);
+	}
 }
@@ -0,0 +1,51 @@
+package com.dsousa.minhasfinancas.api.roteamento;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.dsousa.minhasfinancas.api.resource.UsuarioResource;
+import com.dsousa.minhasfinancas.api.seguranca.AutenticacaoTokenFilter;
+import com.dsousa.minhasfinancas.model.datasource.RoteamentoDataSource;
+
+/**
+ * Informa ao RoteamentoDataSource de qual usuario é a requisiçao: o autenticado nas rotas de
+ * lancamentos, o {id} da rota nas de usuario (saldo, resumo).
+ */
+public class UsuarioRequisicaoInterceptor implements HandlerInterceptor {
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		RoteamentoDataSource.definirUsuario(usuario(request, handler));
+		return true;
+	}
+	
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		RoteamentoDataSource.definirUsuario(null);
+	}
+	
+	private static Long usuario(HttpServletRequest request, Object handler) {
+		Object autenticado = request.getAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO);
+		if(autenticado instanceof Long) {
+			return (Long) autenticado;
+		}
+		if(handler instanceof HandlerMethod && ((HandlerMethod) handler).getBeanType() == UsuarioResource.class) {
+			Map<?, ?> variaveis = (Map<?, ?>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+			Object id = variaveis == null ? null : variaveis.get("id");
+			if(id != null) {
+				try {
+					return Long.valueOf(id.toString());
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			}
+		}
+		return null;
+	}
+}
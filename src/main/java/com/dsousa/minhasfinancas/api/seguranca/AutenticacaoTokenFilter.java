@@ -0,0 +1,51 @@
+package com.dsousa.minhasfinancas.api.seguranca;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.dsousa.minhasfinancas.service.TokenService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Exige "Authorization: Bearer <token>" e publica o id do usuario autenticado
+ * no atributo {@link #USUARIO_AUTENTICADO} do request (lido com @RequestAttribute).
+ */
+@RequiredArgsConstructor
+public class AutenticacaoTokenFilter extends OncePerRequestFilter {
+	
+	public static final String USUARIO_AUTENTICADO = "idUsuarioAutenticado";
+	
+	static final String PREFIXO = "Bearer ";
+	
+	private final TokenService tokenService;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String autorizacao = request.getHeader(HttpHeaders.AUTHORIZATION);
+		Optional<Long> idUsuario = autorizacao != null && autorizacao.startsWith(PREFIXO)
+				? tokenService.validarToken(autorizacao.substring(PREFIXO.length()).trim())
+				: Optional.empty();
+		
+		if(!idUsuario.isPresent()) {
+			response.setStatus(HttpStatus.UNAUTHORIZED.value());
+			response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+			response.setCharacterEncoding("UTF-8");
+			response.getWriter().write("Token de autenticaçao ausente, invalido ou expirado.");
+			return;
+		}
+		request.setAttribute(USUARIO_AUTENTICADO, idUsuario.get());
+		chain.doFilter(request, response);
+	}
+}
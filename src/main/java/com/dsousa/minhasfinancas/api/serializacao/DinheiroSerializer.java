@@ -0,0 +1,26 @@
+package com.dsousa.minhasfinancas.api.serializacao;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * {@link Dinheiro} como numero JSON com duas casas, o mesmo texto que o BigDecimal da coluna numeric(16,2)
+ * gerava. Usado nos objetos sem serializador proprio (saldo mensal, por exemplo).
+ */
+@JsonComponent
+public class DinheiroSerializer extends SerializadorCampos<Dinheiro> {
+	
+	public DinheiroSerializer() {
+		super(Dinheiro.class);
+	}
+	
+	@Override
+	public void serialize(Dinheiro valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+		dinheiro(gerador, valor);
+	}
+}
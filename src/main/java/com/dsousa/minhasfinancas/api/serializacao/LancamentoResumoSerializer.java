@@ -0,0 +1,35 @@
+package com.dsousa.minhasfinancas.api.serializacao;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Linhas da listagem de lancamentos (GET /api/lancamentos), o maior payload da API.
+ */
+@JsonComponent
+public class LancamentoResumoSerializer extends SerializadorCampos<LancamentoResumo> {
+	
+	public LancamentoResumoSerializer() {
+		super(LancamentoResumo.class);
+	}
+	
+	@Override
+	public void serialize(LancamentoResumo lancamento, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+		gerador.writeStartObject();
+		numero(gerador, ID, lancamento.getId());
+		texto(gerador, DESCRICAO, lancamento.getDescricao());
+		numero(gerador, MES, lancamento.getMes());
+		numero(gerador, ANO, lancamento.getAno());
+		numero(gerador, VALOR, lancamento.getValor());
+		enumerado(gerador, TIPO, lancamento.getTipo());
+		enumerado(gerador, STATUS, lancamento.getStatus());
+		numero(gerador, USUARIO_ID, lancamento.getUsuarioId());
+		numero(gerador, VERSAO, lancamento.getVersao());
+		gerador.writeEndObject();
+	}
+}
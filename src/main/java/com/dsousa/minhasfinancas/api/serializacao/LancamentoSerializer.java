@@ -0,0 +1,39 @@
+package com.dsousa.minhasfinancas.api.serializacao;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Mesmo JSON do serializador padrao (campos na mesma ordem, sem descricaoBusca nem usuario),
+ * escrito direto no gerador: sem introspecçao nem reflexao por campo e sem passar pelos
+ * serializadores genericos de LocalDate e de objetos (o valor sai dos centavos, ver DinheiroSerializer).
+ */
+@JsonComponent
+public class LancamentoSerializer extends SerializadorCampos<Lancamento> {
+	
+	public LancamentoSerializer() {
+		super(Lancamento.class);
+	}
+	
+	@Override
+	public void serialize(Lancamento lancamento, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+		gerador.writeStartObject();
+		numero(gerador, ID, lancamento.getId());
+		texto(gerador, DESCRICAO, lancamento.getDescricao());
+		numero(gerador, MES, lancamento.getMes());
+		numero(gerador, ANO, lancamento.getAno());
+		numero(gerador, VALOR, lancamento.getValor());
+		data(gerador, DATA_CADASTRO, lancamento.getDataCadastro());
+		enumerado(gerador, TIPO, lancamento.getTipo());
+		enumerado(gerador, STATUS, lancamento.getStatus());
+		numero(gerador, VERSAO, lancamento.getVersao());
+		//getUsuarioId nao inicializa o proxy do usuario
+		numero(gerador, USUARIO_ID, lancamento.getUsuarioId());
+		gerador.writeEndObject();
+	}
+}
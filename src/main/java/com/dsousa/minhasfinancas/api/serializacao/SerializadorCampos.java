@@ -0,0 +1,130 @@
+package com.dsousa.minhasfinancas.api.serializacao;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+
+/**
+ * Base dos serializadores escritos a mao: campos com nomes pre-codificados (SerializedString: o nome
+ * é escapado e convertido para UTF-8 uma vez so) e null explicito, como o serializador padrao do Jackson faz.
+ */
+abstract class SerializadorCampos<T> extends JsonSerializer<T> {
+	
+	static final SerializableString ID = new SerializedString("id");
+	static final SerializableString DESCRICAO = new SerializedString("descricao");
+	static final SerializableString MES = new SerializedString("mes");
+	static final SerializableString ANO = new SerializedString("ano");
+	static final SerializableString VALOR = new SerializedString("valor");
+	static final SerializableString DATA_CADASTRO = new SerializedString("dataCadastro");
+	static final SerializableString TIPO = new SerializedString("tipo");
+	static final SerializableString STATUS = new SerializedString("status");
+	static final SerializableString USUARIO_ID = new SerializedString("usuarioId");
+	static final SerializableString VERSAO = new SerializedString("versao");
+	static final SerializableString NOME = new SerializedString("nome");
+	static final SerializableString EMAIL = new SerializedString("email");
+	
+	//nomes das constantes de cada enum ja codificados, por ordinal (como o EnumSerializer do Jackson)
+	private static final ClassValue<SerializableString[]> NOMES_ENUM = new ClassValue<SerializableString[]>() {
+		@Override
+		protected SerializableString[] computeValue(Class<?> tipo) {
+			Object[] constantes = tipo.getEnumConstants();
+			SerializableString[] nomes = new SerializableString[constantes.length];
+			for(int i = 0; i < constantes.length; i++) {
+				nomes[i] = new SerializedString(((Enum<?>) constantes[i]).name());
+			}
+			return nomes;
+		}
+	};
+	
+	private final Class<T> tipo;
+	
+	SerializadorCampos(Class<T> tipo) {
+		this.tipo = tipo;
+	}
+	
+	@Override
+	public Class<T> handledType() {
+		return tipo;
+	}
+	
+	static void numero(JsonGenerator gerador, SerializableString nome, Long valor) throws IOException {
+		gerador.writeFieldName(nome);
+		if(valor == null) {
+			gerador.writeNull();
+		} else {
+			gerador.writeNumber(valor.longValue());
+		}
+	}
+	
+	static void numero(JsonGenerator gerador, SerializableString nome, Integer valor) throws IOException {
+		gerador.writeFieldName(nome);
+		if(valor == null) {
+			gerador.writeNull();
+		} else {
+			gerador.writeNumber(valor.intValue());
+		}
+	}
+	
+	static void numero(JsonGenerator gerador, SerializableString nome, Dinheiro valor) throws IOException {
+		gerador.writeFieldName(nome);
+		dinheiro(gerador, valor);
+	}
+	
+	//numero com duas casas (1500.10) escrito direto dos centavos, sem BigDecimal nem String intermediaria
+	static void dinheiro(JsonGenerator gerador, Dinheiro valor) throws IOException {
+		if(valor == null) {
+			gerador.writeNull();
+		} else {
+			char[] texto = new char[Dinheiro.TAMANHO_MAXIMO_TEXTO];
+			gerador.writeRawValue(texto, 0, valor.formatar(texto, 0));
+		}
+	}
+	
+	static void texto(JsonGenerator gerador, SerializableString nome, String valor) throws IOException {
+		gerador.writeFieldName(nome);
+		if(valor == null) {
+			gerador.writeNull();
+		} else {
+			gerador.writeString(valor);
+		}
+	}
+	
+	static void enumerado(JsonGenerator gerador, SerializableString nome, Enum<?> valor) throws IOException {
+		gerador.writeFieldName(nome);
+		if(valor == null) {
+			gerador.writeNull();
+		} else {
+			gerador.writeString(NOMES_ENUM.get(valor.getDeclaringClass())[valor.ordinal()]);
+		}
+	}
+	
+	//ISO (yyyy-MM-dd), o mesmo texto do LocalDateSerializer, montado sem DateTimeFormatter nem String intermediaria
+	static void data(JsonGenerator gerador, SerializableString nome, LocalDate valor) throws IOException {
+		gerador.writeFieldName(nome);
+		if(valor == null) {
+			gerador.writeNull();
+		} else if(valor.getYear() < 0 || valor.getYear() > 9999) {
+			gerador.writeString(valor.toString());
+		} else {
+			char[] texto = new char[10];
+			digitos(texto, 0, valor.getYear(), 4);
+			texto[4] = '-';
+			digitos(texto, 5, valor.getMonthValue(), 2);
+			texto[7] = '-';
+			digitos(texto, 8, valor.getDayOfMonth(), 2);
+			gerador.writeString(texto, 0, texto.length);
+		}
+	}
+	
+	private static void digitos(char[] texto, int inicio, int valor, int tamanho) {
+		for(int i = inicio + tamanho - 1; i >= inicio; i--) {
+			texto[i] = (char) ('0' + valor % 10);
+			valor /= 10;
+		}
+	}
+}
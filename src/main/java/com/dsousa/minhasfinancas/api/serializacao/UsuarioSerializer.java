@@ -0,0 +1,29 @@
+package com.dsousa.minhasfinancas.api.serializacao;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Usuario sem a senha. Registrado pela classe, vale tambem para os proxies do Hibernate (subclasses).
+ */
+@JsonComponent
+public class UsuarioSerializer extends SerializadorCampos<Usuario> {
+	
+	public UsuarioSerializer() {
+		super(Usuario.class);
+	}
+	
+	@Override
+	public void serialize(Usuario usuario, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+		gerador.writeStartObject();
+		numero(gerador, ID, usuario.getId());
+		texto(gerador, NOME, usuario.getNome());
+		texto(gerador, EMAIL, usuario.getEmail());
+		gerador.writeEndObject();
+	}
+}
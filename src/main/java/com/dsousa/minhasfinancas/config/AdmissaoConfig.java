@@ -0,0 +1,30 @@
+package com.dsousa.minhasfinancas.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.dsousa.minhasfinancas.api.admissao.AdmissaoFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cotas por usuario e teto de concorrencia em todas as rotas da API. Roda depois da autenticaçao,
+ * para usar o usuario do token, e antes de qualquer acesso ao banco.
+ */
+@Configuration
+@ConditionalOnProperty(value = "minhasfinancas.admissao.habilitada", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissaoProperties.class)
+public class AdmissaoConfig {
+
+	@Bean
+	public FilterRegistrationBean<AdmissaoFilter> admissaoFilter(AdmissaoProperties properties, MeterRegistry registry) {
+		FilterRegistrationBean<AdmissaoFilter> registro = new FilterRegistrationBean<>(new AdmissaoFilter(
+				properties.getGeral(), properties.getCustosa(), properties.getConcorrenciaMaxima(), properties.getMaximoChaves(), registry));
+		registro.addUrlPatterns("/api/*");
+		registro.setOrder(SegurancaConfig.ORDEM_AUTENTICACAO + 1);
+		return registro;
+	}
+}
@@ -0,0 +1,27 @@
+package com.dsousa.minhasfinancas.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.dsousa.minhasfinancas.api.admissao.Cota;
+
+import lombok.Data;
+
+/**
+ * Controle de admissao da API (minhasfinancas.admissao.*): cota por usuario para as rotas comuns,
+ * outra para as custosas (busca, saldo e exportaçao) e o maximo de requisiçoes simultaneas.
+ */
+@Data
+@ConfigurationProperties("minhasfinancas.admissao")
+public class AdmissaoProperties {
+
+	private Cota geral = new Cota(60, 10);
+
+	private Cota custosa = new Cota(20, 2);
+
+	//requisiçoes da API em andamento ao mesmo tempo (todas vao ao banco); 0 desliga
+	private int concorrenciaMaxima = 40;
+
+	//usuarios (e endereços sem token) com balde guardado; acima disso os menos usados saem.
+	//Baldes sem uso pelo tempo de encher ja expiram sozinhos
+	private int maximoChaves = 100_000;
+}
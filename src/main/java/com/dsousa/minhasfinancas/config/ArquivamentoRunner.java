@@ -0,0 +1,46 @@
+package com.dsousa.minhasfinancas.config;
+
+import java.time.Year;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Com o argumento --arquivar-anos, arquiva os anos anteriores aos ultimos
+ * minhasfinancas.arquivamento.anos-ativos e prepara a particao do proximo ano.
+ * Feito para rodar periodicamente (ex.: cron no inicio de cada ano).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArquivamentoRunner implements ApplicationRunner {
+	
+	static final String OPCAO = "arquivar-anos";
+
+	private final LancamentoService lancamentoService;
+	
+	@Value("${minhasfinancas.arquivamento.anos-ativos:2}")
+	private int anosAtivos;
+	
+	@Override
+	public void run(ApplicationArguments args) {
+		if(!args.containsOption(OPCAO)) {
+			return;
+		}
+		int anoCorrente = Year.now().getValue();
+		lancamentoService.prepararParticao(anoCorrente + 1);
+		
+		int limite = anoCorrente - anosAtivos;
+		log.info("Arquivando os anos ate {}...", limite);
+		List<Integer> arquivados = lancamentoService.arquivarAnosAte(limite);
+		log.info("Anos arquivados: {}.", arquivados);
+	}
+}
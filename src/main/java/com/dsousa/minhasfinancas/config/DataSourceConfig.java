@@ -0,0 +1,94 @@
+package com.dsousa.minhasfinancas.config;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.dsousa.minhasfinancas.api.roteamento.UsuarioRequisicaoInterceptor;
+import com.dsousa.minhasfinancas.model.datasource.RoteamentoDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Com replicas configuradas (minhasfinancas.datasource.replicas[n].url), transaçoes readOnly
+ * leem das replicas e o resto vai para o primario (spring.datasource.*). Sem replicas,
+ * fica o DataSource padrao do Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty("minhasfinancas.datasource.replicas[0].url")
+@EnableConfigurationProperties(RoteamentoProperties.class)
+public class DataSourceConfig {
+	
+	//primario e replicas nao sao beans: um segundo DataSource no contexto faria o Boot
+	//inicializar o banco (DataSourceInitializer) por ele, durante a criaçao deste
+	@Bean
+	public DataSourceRoteado dataSource(DataSourceProperties primarioProperties, RoteamentoProperties properties,
+			Environment environment, ObjectProvider<MeterRegistry> registry) {
+		HikariDataSource primario = primarioProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+		if(primario.getPoolName() == null) {
+			primario.setPoolName("primario");
+		}
+		registry.ifAvailable(primario::setMetricRegistry);
+		
+		List<DataSource> replicas = new ArrayList<>();
+		for(int i = 0; i < properties.getReplicas().size(); i++) {
+			RoteamentoProperties.Replica replica = properties.getReplicas().get(i);
+			HikariDataSource dataSource = new HikariDataSource();
+			dataSource.setPoolName("replica-" + i);
+			dataSource.setJdbcUrl(replica.getUrl());
+			dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primarioProperties.determineUsername());
+			dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primarioProperties.determinePassword());
+			dataSource.setMaximumPoolSize(replica.getTamanhoPool());
+			//a replica pode estar fora na subida: o pool nao falha, a verificaçao a marca como fora
+			dataSource.setInitializationFailTimeout(-1);
+			dataSource.setReadOnly(true);
+			registry.ifAvailable(dataSource::setMetricRegistry);
+			replicas.add(dataSource);
+		}
+		return new DataSourceRoteado(new RoteamentoDataSource(primario, replicas,
+				properties.getPrimarioAposEscritaSegundos(), properties.getVerificacaoReplicasSegundos()));
+	}
+	
+	@Bean
+	public WebMvcConfigurer usuarioRequisicao() {
+		return new WebMvcConfigurer() {
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(new UsuarioRequisicaoInterceptor()).addPathPatterns("/api/**");
+			}
+		};
+	}
+	
+	/**
+	 * O DataSource do JPA, Flyway e JdbcTemplate: a conexao fisica so é escolhida no primeiro statement.
+	 * Fecha os pools do primario e das replicas junto com o contexto.
+	 */
+	public static class DataSourceRoteado extends LazyConnectionDataSourceProxy implements Closeable {
+		
+		DataSourceRoteado(RoteamentoDataSource roteamento) {
+			super(roteamento);
+		}
+		
+		@Override
+		public void close() {
+			((RoteamentoDataSource) getTargetDataSource()).close();
+		}
+	}
+}
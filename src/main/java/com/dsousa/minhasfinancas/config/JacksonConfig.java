@@ -0,0 +1,21 @@
+package com.dsousa.minhasfinancas.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+/**
+ * Modulos do ObjectMapper do Spring Boot (todo bean Module é registrado nele).
+ * Lancamento, LancamentoResumo e Usuario tem serializadores proprios (api/serializacao);
+ * o Afterburner troca a reflexao por acessores gerados em bytecode nos demais DTOs.
+ */
+@Configuration
+public class JacksonConfig {
+
+	@Bean
+	public Module afterburner() {
+		return new AfterburnerModule();
+	}
+}
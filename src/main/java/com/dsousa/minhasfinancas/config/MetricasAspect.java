@@ -0,0 +1,73 @@
+package com.dsousa.minhasfinancas.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Timers por metodo dos services e dos repositories, com as tags classe, metodo e excecao
+ * (percentis configurados em application.properties, prefixo minhasfinancas).
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricasAspect {
+	
+	public static final String METRICA_SERVICE = "minhasfinancas.service";
+	public static final String METRICA_REPOSITORY = "minhasfinancas.repository";
+	
+	static final String PACOTE = "com.dsousa.minhasfinancas.";
+	static final String SEM_EXCECAO = "none";
+	
+	private final MeterRegistry registry;
+	
+	//nome da interface de repository por classe de proxy
+	private final Map<Class<?>, String> repositories = new ConcurrentHashMap<>();
+
+	@Around("execution(public * com.dsousa.minhasfinancas.service.*Service.*(..))")
+	public Object medirService(ProceedingJoinPoint joinPoint) throws Throwable {
+		return medir(METRICA_SERVICE, joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+	}
+
+	//inclui os metodos herdados de JpaRepository (save, findById...), marcados com a interface da aplicaçao
+	@Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+	public Object medirRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+		String classe = repositories.computeIfAbsent(joinPoint.getTarget().getClass(), MetricasAspect::nomeRepository);
+		return medir(METRICA_REPOSITORY, classe, joinPoint);
+	}
+
+	private Object medir(String metrica, String classe, ProceedingJoinPoint joinPoint) throws Throwable {
+		Timer.Sample amostra = Timer.start(registry);
+		String excecao = SEM_EXCECAO;
+		try {
+			return joinPoint.proceed();
+		} catch (Throwable e) {
+			excecao = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			amostra.stop(Timer.builder(metrica)
+					.tag("classe", classe)
+					.tag("metodo", joinPoint.getSignature().getName())
+					.tag("excecao", excecao)
+					.register(registry));
+		}
+	}
+
+	private static String nomeRepository(Class<?> tipo) {
+		for(Class<?> interfaceRepository : ClassUtils.getAllInterfacesForClassAsSet(tipo)) {
+			if(interfaceRepository.getName().startsWith(PACOTE)) {
+				return interfaceRepository.getSimpleName();
+			}
+		}
+		return tipo.getSimpleName();
+	}
+}
@@ -0,0 +1,23 @@
+package com.dsousa.minhasfinancas.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.dsousa.minhasfinancas.api.metricas.ContagemStatementsFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Contagem de statements SQL por request em todas as rotas da API.
+ */
+@Configuration
+public class MetricasConfig {
+
+	@Bean
+	public FilterRegistrationBean<ContagemStatementsFilter> contagemStatementsFilter(MeterRegistry registry) {
+		FilterRegistrationBean<ContagemStatementsFilter> registro = new FilterRegistrationBean<>(new ContagemStatementsFilter(registry));
+		registro.addUrlPatterns("/api/*");
+		return registro;
+	}
+}
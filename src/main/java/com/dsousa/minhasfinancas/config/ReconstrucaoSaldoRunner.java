@@ -0,0 +1,34 @@
+package com.dsousa.minhasfinancas.config;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recalcula a tabela saldo_usuario a partir dos lancamentos quando a aplicaçao
+ * é iniciada com o argumento --reconstruir-saldos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReconstrucaoSaldoRunner implements ApplicationRunner {
+	
+	static final String OPCAO = "reconstruir-saldos";
+
+	private final LancamentoService lancamentoService;
+	
+	@Override
+	public void run(ApplicationArguments args) {
+		if(!args.containsOption(OPCAO)) {
+			return;
+		}
+		log.info("Reconstruindo saldos dos usuarios...");
+		int usuarios = lancamentoService.reconstruirSaldos();
+		log.info("Saldos reconstruidos para {} usuario(s).", usuarios);
+	}
+}
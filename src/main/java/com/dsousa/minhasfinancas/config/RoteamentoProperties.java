@@ -0,0 +1,31 @@
+package com.dsousa.minhasfinancas.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Replicas de leitura (minhasfinancas.datasource.*). Usuario e senha ausentes sao os do primario.
+ */
+@Data
+@ConfigurationProperties("minhasfinancas.datasource")
+public class RoteamentoProperties {
+	
+	private List<Replica> replicas = new ArrayList<>();
+	
+	//0 desliga a leitura apos escrita
+	private long primarioAposEscritaSegundos = 5;
+	
+	private long verificacaoReplicasSegundos = 10;
+	
+	@Data
+	public static class Replica {
+		private String url;
+		private String username;
+		private String password;
+		private int tamanhoPool = 10;
+	}
+}
@@ -0,0 +1,27 @@
+package com.dsousa.minhasfinancas.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.dsousa.minhasfinancas.api.seguranca.AutenticacaoTokenFilter;
+import com.dsousa.minhasfinancas.service.TokenService;
+
+/**
+ * Rotas de lancamentos só com token emitido em /api/usuarios/autenticar.
+ */
+@Configuration
+public class SegurancaConfig {
+	
+	//antes da admissao (AdmissaoConfig), que conta as cotas pelo usuario autenticado
+	public static final int ORDEM_AUTENTICACAO = Ordered.LOWEST_PRECEDENCE - 10;
+
+	@Bean
+	public FilterRegistrationBean<AutenticacaoTokenFilter> autenticacaoTokenFilter(TokenService tokenService) {
+		FilterRegistrationBean<AutenticacaoTokenFilter> registro = new FilterRegistrationBean<>(new AutenticacaoTokenFilter(tokenService));
+		registro.addUrlPatterns("/api/lancamentos/*");
+		registro.setOrder(ORDEM_AUTENTICACAO);
+		return registro;
+	}
+}
@@ -0,0 +1,17 @@
+package com.dsousa.minhasfinancas.exception;
+
+//o lancamento mudou entre a leitura e a escrita (a versao nao confere): nada foi gravado
+public class ConflitoVersaoException extends RuntimeException {
+	
+	private final Long id;
+	
+	public ConflitoVersaoException (Long id) {
+		super("O lancamento foi alterado por outra operaçao. Recarregue e tente novamente.");
+		this.id = id;
+	}
+	
+	public Long getId() {
+		return id;
+	}
+
+}
@@ -0,0 +1,211 @@
+package com.dsousa.minhasfinancas.model.datasource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Envia as transaçoes readOnly para as replicas (round-robin entre as saudaveis) e todo o resto
+ * para o primario. A escolha é feita quando a conexao fisica é pedida, por isso este DataSource
+ * deve ficar atras de um LazyConnectionDataSourceProxy: assim a conexao so é obtida no primeiro
+ * statement, quando a transaçao (e o readOnly) ja esta registrada.
+ * 
+ * Leitura apos escrita: depois do commit de uma transaçao de escrita, o usuario da requisiçao
+ * (ver {@link #definirUsuario}) le do primario por alguns segundos, ate a replica alcançar.
+ * A afinidade é local a esta instancia.
+ * 
+ * Os pools do primario e das replicas sao fechados junto com este DataSource.
+ */
+@Slf4j
+public class RoteamentoDataSource extends AbstractDataSource implements Closeable {
+	
+	private static final ThreadLocal<Long> USUARIO = new ThreadLocal<>();
+	
+	private final DataSource primario;
+	
+	private final List<Replica> replicas = new ArrayList<>();
+	
+	private final AtomicInteger proxima = new AtomicInteger();
+	
+	//usuarios que escreveram ha pouco; null quando a leitura apos escrita esta desligada
+	private final Cache<Long, Boolean> usuariosNoPrimario;
+	
+	private final ScheduledExecutorService verificacao;
+	
+	public RoteamentoDataSource(DataSource primario, List<DataSource> replicas, long primarioAposEscritaSegundos, long verificacaoSegundos) {
+		this.primario = primario;
+		for(int i = 0; i < replicas.size(); i++) {
+			this.replicas.add(new Replica(i, replicas.get(i)));
+		}
+		this.usuariosNoPrimario = primarioAposEscritaSegundos <= 0 ? null : Caffeine.newBuilder()
+				.maximumSize(100_000)
+				.expireAfterWrite(primarioAposEscritaSegundos, TimeUnit.SECONDS)
+				.build();
+		if(verificacaoSegundos > 0) {
+			this.verificacao = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+				Thread thread = new Thread(tarefa, "verificacao-replicas");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.verificacao.scheduleWithFixedDelay(this::verificarReplicas, verificacaoSegundos, verificacaoSegundos, TimeUnit.SECONDS);
+		} else {
+			this.verificacao = null;
+		}
+	}
+	
+	/**
+	 * Usuario da requisiçao corrente, para a leitura apos escrita (null limpa).
+	 */
+	public static void definirUsuario(Long idUsuario) {
+		if(idUsuario == null) {
+			USUARIO.remove();
+		} else {
+			USUARIO.set(idUsuario);
+		}
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		return conectar(DataSource::getConnection);
+	}
+
+	//mesma escolha de pool; as credenciais vao para ele
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return conectar(dataSource -> dataSource.getConnection(username, password));
+	}
+	
+	/**
+	 * Testa uma conexao de cada replica (tambem das que estao fora) e atualiza o estado delas.
+	 */
+	public void verificarReplicas() {
+		for(Replica replica : replicas) {
+			try (Connection conexao = replica.dataSource.getConnection()) {
+				replica.marcar(conexao.isValid(2), null);
+			} catch (SQLException e) {
+				replica.marcar(false, e);
+			}
+		}
+	}
+	
+	@Override
+	public void close() {
+		if(verificacao != null) {
+			verificacao.shutdownNow();
+		}
+		for(Replica replica : replicas) {
+			fechar(replica.dataSource);
+		}
+		fechar(primario);
+	}
+	
+	private static void fechar(DataSource dataSource) {
+		if(dataSource instanceof Closeable) {
+			try {
+				((Closeable) dataSource).close();
+			} catch (Exception e) {
+				log.warn("Erro ao fechar o pool {}", dataSource, e);
+			}
+		}
+	}
+	
+	private Connection conectar(Conexao conexao) throws SQLException {
+		if(!TransactionSynchronizationManager.isActualTransactionActive()
+				|| !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			registrarEscrita();
+			return conexao.obter(primario);
+		}
+		Replica replica = usuarioNoPrimario() ? null : proximaReplica();
+		if(replica == null) {
+			return conexao.obter(primario);
+		}
+		try {
+			return conexao.obter(replica.dataSource);
+		} catch (SQLException e) {
+			//fora ate a proxima verificaçao; a leitura segue no primario
+			replica.marcar(false, e);
+			return conexao.obter(primario);
+		}
+	}
+	
+	private boolean usuarioNoPrimario() {
+		Long usuario = USUARIO.get();
+		return usuario != null && usuariosNoPrimario != null && usuariosNoPrimario.getIfPresent(usuario) != null;
+	}
+	
+	private void registrarEscrita() {
+		Long usuario = USUARIO.get();
+		if(usuario == null || usuariosNoPrimario == null || !TransactionSynchronizationManager.isActualTransactionActive()
+				|| !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		//a janela conta a partir do commit, que é quando a replica começa a receber a escrita
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				usuariosNoPrimario.put(usuario, Boolean.TRUE);
+			}
+		});
+	}
+	
+	private Replica proximaReplica() {
+		int total = replicas.size();
+		if(total == 0) {
+			return null;
+		}
+		int inicio = Math.floorMod(proxima.getAndIncrement(), total);
+		for(int i = 0; i < total; i++) {
+			Replica replica = replicas.get((inicio + i) % total);
+			if(replica.saudavel) {
+				return replica;
+			}
+		}
+		return null;
+	}
+	
+	private interface Conexao {
+		
+		Connection obter(DataSource dataSource) throws SQLException;
+	}
+	
+	private static class Replica {
+		
+		final int indice;
+		final DataSource dataSource;
+		volatile boolean saudavel = true;
+		
+		Replica(int indice, DataSource dataSource) {
+			this.indice = indice;
+			this.dataSource = dataSource;
+		}
+		
+		void marcar(boolean saudavel, SQLException erro) {
+			if(this.saudavel == saudavel) {
+				return;
+			}
+			this.saudavel = saudavel;
+			if(saudavel) {
+				log.info("Replica {} de volta, recebendo leituras", indice);
+			} else {
+				log.warn("Replica {} fora, leituras vao para o primario: {}", indice, erro == null ? "conexao invalida" : erro.getMessage());
+			}
+		}
+	}
+}
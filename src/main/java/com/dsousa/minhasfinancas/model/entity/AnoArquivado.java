@@ -0,0 +1,38 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ano arquivado: os lancamentos dele sao somente leitura e os totais ficam em {@link TotalArquivado}.
+ * Os anos sao arquivados em ordem, entao todo ano ate o maior arquivado esta arquivado.
+ */
+@Entity
+@Table (name = "ano_arquivado", schema = "financas")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class AnoArquivado {
+	
+	@Id
+	@Column(name = "ano")
+	private Integer ano;
+	
+	@Column(name = "data_arquivamento")
+	@Convert(converter = Jsr310JpaConverters.LocalDateTimeConverter.class)
+	private LocalDateTime dataArquivamento;
+
+}
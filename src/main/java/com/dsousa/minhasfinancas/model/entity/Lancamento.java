@@ -1,32 +1,53 @@
 package com.dsousa.minhasfinancas.model.entity;
 
-import java.math.BigDecimal;
+import java.text.Normalizer;
 import java.time.LocalDate;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 import javax.persistence.Column;
 import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
 import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.dsousa.minhasfinancas.model.valor.DinheiroConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table (name = "lancamento", schema = "financas")
+@NamedEntityGraph(name = Lancamento.GRAFO_COM_USUARIO, attributeNodes = @NamedAttributeNode("usuario"))
+@Table (name = "lancamento", schema = "financas", indexes = {
+		@Index(name = "idx_lancamento_usuario_descricao_busca", columnList = "id_usuario, descricao_busca"),
+		@Index(name = "idx_lancamento_usuario_tipo_valor", columnList = "id_usuario, tipo, valor"),
+		@Index(name = "idx_lancamento_usuario_ano_mes_id", columnList = "id_usuario, ano, mes, id")
+})
 /*@Setter
 @Getter
 @EqualsAndHashCode
@@ -38,26 +59,44 @@ import lombok.NoArgsConstructor;
 @Data
 public class Lancamento {
 	
+	public static final String GRAFO_COM_USUARIO = "Lancamento.usuario";
+	
+	private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+	
+	//sequence com allocationSize > 1 usa o otimizador pooled: um nextval a cada 50 ids,
+	//o que permite ao Hibernate agrupar os inserts em batch (com IDENTITY isso é impossivel)
 	@Id
 	@Column (name = "id")
-	@GeneratedValue( strategy = GenerationType.IDENTITY)
+	@GeneratedValue( strategy = GenerationType.SEQUENCE, generator = "lancamento_id_seq")
+	@SequenceGenerator( name = "lancamento_id_seq", schema = "financas", sequenceName = "lancamento_id_seq", allocationSize = 50)
 	private Long id;
 	
 	@Column(name = "descricao")
 	private String descricao;
 	
+	//descricao sem acentos e em minusculas, indexada para a busca (ver normalizarParaBusca)
+	@JsonIgnore
+	@Column(name = "descricao_busca")
+	private String descricaoBusca;
+	
 	@Column( name = "mes")
 	private Integer mes;
 	
 	@Column (name = "ano")
 	private Integer ano;
 	
-	@ManyToOne
+	//LAZY: a maior parte dos caminhos so precisa do id (ver getUsuarioId); quem precisa
+	//do usuario completo usa o grafo GRAFO_COM_USUARIO. Fora de toString/equals para nao inicializar o proxy
+	@JsonIgnore
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "id_usuario")
 	private Usuario usuario;
 	
 	@Column (name = "valor")
-	private BigDecimal valor;
+	@Convert (converter = DinheiroConverter.class)
+	private Dinheiro valor;
 	
 	@Column (name = "data_cadastro")
 	@Convert (converter = Jsr310JpaConverters.LocalDateConverter.class)
@@ -72,5 +111,30 @@ public class Lancamento {
 	@Enumerated(value = EnumType.STRING)
 	private StatusLancamento status;
 	
+	//controle otimista: os updates e deletes diretos do LancamentoRepository conferem e incrementam a versao
+	@Version
+	@Column(name = "versao")
+	private Long versao;
+	
+	//getId de um proxy do Hibernate nao dispara a carga do usuario
+	@JsonProperty("usuarioId")
+	public Long getUsuarioId() {
+		return usuario == null ? null : usuario.getId();
+	}
+	
+	//chamado tambem explicitamente antes dos updates em massa, que nao disparam @PreUpdate
+	@PrePersist
+	@PreUpdate
+	public void atualizarDescricaoBusca() {
+		this.descricaoBusca = normalizarParaBusca(descricao);
+	}
+	
+	public static String normalizarParaBusca(String texto) {
+		if(texto == null) {
+			return null;
+		}
+		String semAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+		return semAcentos.trim().toLowerCase(Locale.ROOT);
+	}
 
 }
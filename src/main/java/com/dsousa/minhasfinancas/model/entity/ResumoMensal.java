@@ -0,0 +1,71 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.dsousa.minhasfinancas.model.valor.DinheiroConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Total e quantidade de lancamentos por usuario, mes, tipo e status, mantidos por deltas
+ * na mesma transaçao que grava os lancamentos (como {@link SaldoUsuario}).
+ * Serve o painel mensal sem ler a tabela lancamento.
+ */
+@Entity
+@IdClass(ResumoMensalId.class)
+@Table (name = "resumo_mensal", schema = "financas")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Data
+public class ResumoMensal {
+	
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Id
+	@Column(name = "ano")
+	private Integer ano;
+	
+	@Id
+	@Column(name = "mes")
+	private Integer mes;
+	
+	@Id
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+	
+	@Id
+	@Column(name = "status")
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+	
+	@Column(name = "total")
+	@Convert(converter = DinheiroConverter.class)
+	private Dinheiro total;
+	
+	@Column(name = "quantidade")
+	private Long quantidade;
+	
+	@JsonIgnore
+	public ResumoMensalId getChave() {
+		return new ResumoMensalId(idUsuario, ano, mes, tipo, status);
+	}
+
+}
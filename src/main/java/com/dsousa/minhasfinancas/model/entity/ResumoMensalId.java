@@ -0,0 +1,28 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import java.io.Serializable;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Chave de {@link ResumoMensal}: um grupo por usuario, mes, tipo e status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensalId implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Long idUsuario;
+	private Integer ano;
+	private Integer mes;
+	private TipoLancamento tipo;
+	private StatusLancamento status;
+
+}
@@ -0,0 +1,45 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saldo consolidado de um usuario, mantido na mesma transaçao que grava os lancamentos.
+ * Evita recalcular a soma de todo o historico a cada consulta de saldo.
+ */
+@Entity
+@Table (name = "saldo_usuario", schema = "financas")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class SaldoUsuario {
+	
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Column(name = "receitas")
+	private BigDecimal receitas;
+	
+	@Column(name = "despesas")
+	private BigDecimal despesas;
+	
+	@Column(name = "saldo")
+	private BigDecimal saldo;
+	
+	@Version
+	@Column(name = "versao")
+	private Long versao;
+
+}
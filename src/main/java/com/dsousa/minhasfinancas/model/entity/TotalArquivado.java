@@ -0,0 +1,54 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.dsousa.minhasfinancas.model.valor.DinheiroConverter;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Total dos lancamentos de um usuario num ano arquivado, por tipo. Calculado uma vez no arquivamento:
+ * o saldo soma estes totais aos lancamentos dos anos ativos em vez de ler os anos arquivados.
+ */
+@Entity
+@IdClass(TotalArquivadoId.class)
+@Table (name = "total_arquivado", schema = "financas")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class TotalArquivado {
+	
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Id
+	@Column(name = "ano")
+	private Integer ano;
+	
+	@Id
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+	
+	@Column(name = "total")
+	@Convert(converter = DinheiroConverter.class)
+	private Dinheiro total;
+	
+	@Column(name = "quantidade")
+	private Long quantidade;
+
+}
@@ -0,0 +1,25 @@
+package com.dsousa.minhasfinancas.model.entity;
+
+import java.io.Serializable;
+
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Chave de {@link TotalArquivado}: um total por usuario, ano e tipo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalArquivadoId implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Long idUsuario;
+	private Integer ano;
+	private TipoLancamento tipo;
+
+}
@@ -5,6 +5,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -15,7 +16,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table (name ="usuario", schema = "financas")
+@Table (name ="usuario", schema = "financas", indexes = {
+		@Index(name = "uk_usuario_email", columnList = "email", unique = true)
+})
 /*@Setter
 @Getter
 @EqualsAndHashCode
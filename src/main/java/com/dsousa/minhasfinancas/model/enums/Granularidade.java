@@ -0,0 +1,8 @@
+package com.dsousa.minhasfinancas.model.enums;
+
+public enum Granularidade {
+	
+	MES,
+	ANO
+
+}
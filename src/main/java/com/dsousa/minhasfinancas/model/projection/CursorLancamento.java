@@ -0,0 +1,43 @@
+package com.dsousa.minhasfinancas.model.projection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Posiçao de um lancamento na ordenaçao (ano, mes, id) usada pela paginaçao por chave.
+ * Circula entre cliente e servidor como texto opaco.
+ */
+@Data
+@AllArgsConstructor
+public class CursorLancamento {
+	
+	private Integer ano;
+	private Integer mes;
+	private Long id;
+	
+	public static CursorLancamento de(LancamentoResumo lancamento) {
+		return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+	}
+	
+	public String codificar() {
+		String valor = ano + ":" + mes + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static CursorLancamento decodificar(String cursor) {
+		try {
+			String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+			if(partes.length != 3) {
+				throw new RegraNegocioException("Cursor invalido.");
+			}
+			return new CursorLancamento(Integer.valueOf(partes[0]), Integer.valueOf(partes[1]), Long.valueOf(partes[2]));
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Cursor invalido.");
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.dsousa.minhasfinancas.model.projection;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Linha de listagem de lancamentos montada direto na consulta (select new): sem entidade gerenciada
+ * no contexto de persistencia, sem join com usuario e com o usuario reduzido ao id.
+ * A ordem do construtor é a do select em LancamentoRepositoryImpl.
+ */
+@Data
+@AllArgsConstructor
+public class LancamentoResumo {
+	
+	private Long id;
+	private String descricao;
+	private Integer mes;
+	private Integer ano;
+	private Dinheiro valor;
+	private TipoLancamento tipo;
+	private StatusLancamento status;
+	private Long usuarioId;
+	private Long versao;
+
+}
@@ -0,0 +1,26 @@
+package com.dsousa.minhasfinancas.model.projection;
+
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+
+/**
+ * Valores de um lancamento que afetam o saldo e o resumo mensal, tal como estao gravados na base.
+ */
+public interface MovimentoLancamento {
+
+	Long getIdUsuario();
+	
+	TipoLancamento getTipo();
+	
+	Dinheiro getValor();
+	
+	Integer getAno();
+	
+	Integer getMes();
+	
+	StatusLancamento getStatus();
+	
+	//a versao lida: o update ou delete seguinte so é aplicado se ela nao tiver mudado
+	Long getVersao();
+}
@@ -0,0 +1,31 @@
+package com.dsousa.minhasfinancas.model.projection;
+
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//um ponto da serie de saldo: movimento do periodo e saldo acumulado desde o primeiro lancamento ate o fim dele
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoAcumulado {
+	
+	private Integer ano;
+	//nulo na granularidade anual
+	private Integer mes;
+	private Dinheiro receitas;
+	private Dinheiro despesas;
+	private Dinheiro saldo;
+	
+	//posiçao do periodo na serie (ano * 12 + mes - 1, ou so o ano na granularidade anual)
+	@JsonIgnore
+	public int getIndicePeriodo() {
+		return mes == null ? ano : ano * 12 + mes - 1;
+	}
+
+}
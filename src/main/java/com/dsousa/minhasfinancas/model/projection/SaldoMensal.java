@@ -0,0 +1,21 @@
+package com.dsousa.minhasfinancas.model.projection;
+
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoMensal {
+	
+	private Integer mes;
+	private Dinheiro receitas;
+	private Dinheiro despesas;
+	private Dinheiro saldo;
+
+}
@@ -0,0 +1,6 @@
+package com.dsousa.minhasfinancas.model.projection;
+
+public interface TotalMensalPorTipo extends TotalPorTipo {
+	
+	Integer getMes();
+}
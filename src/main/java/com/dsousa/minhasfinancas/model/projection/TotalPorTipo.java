@@ -0,0 +1,22 @@
+package com.dsousa.minhasfinancas.model.projection;
+
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+
+public interface TotalPorTipo {
+	
+	TipoLancamento getTipo();
+	
+	//sum(valor) de um atributo convertido volta do banco ja como Dinheiro
+	Dinheiro getTotal();
+	
+	static Dinheiro somar(Iterable<? extends TotalPorTipo> totais, TipoLancamento tipo) {
+		long soma = 0;
+		for(TotalPorTipo total : totais) {
+			if(total.getTipo() == tipo && total.getTotal() != null) {
+				soma = Math.addExact(soma, total.getTotal().getCentavos());
+			}
+		}
+		return Dinheiro.deCentavos(soma);
+	}
+}
@@ -0,0 +1,6 @@
+package com.dsousa.minhasfinancas.model.projection;
+
+public interface TotalPorUsuario extends TotalPorTipo {
+
+	Long getIdUsuario();
+}
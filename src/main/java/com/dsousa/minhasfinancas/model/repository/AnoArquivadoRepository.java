@@ -0,0 +1,15 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.dsousa.minhasfinancas.model.entity.AnoArquivado;
+
+public interface AnoArquivadoRepository extends JpaRepository<AnoArquivado, Integer> {
+	
+	//anos ate este estao arquivados; vazio quando nenhum foi
+	@Query( value = " select max(a.ano) from AnoArquivado a")
+	Optional<Integer> obterUltimoAnoArquivado();
+}
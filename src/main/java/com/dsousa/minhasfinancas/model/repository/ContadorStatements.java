@@ -0,0 +1,35 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os statements SQL preparados pelo Hibernate na thread corrente, entre
+ * {@link #iniciar()} e {@link #encerrar()} (ver ContagemStatementsFilter).
+ * Registrado em spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class ContadorStatements implements StatementInspector {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final ThreadLocal<int[]> CONTADOR = new ThreadLocal<>();
+	
+	public static void iniciar() {
+		CONTADOR.set(new int[1]);
+	}
+	
+	//retorna quantos statements foram preparados desde iniciar() e para de contar
+	public static int encerrar() {
+		int[] contador = CONTADOR.get();
+		CONTADOR.remove();
+		return contador != null ? contador[0] : 0;
+	}
+
+	@Override
+	public String inspect(String sql) {
+		int[] contador = CONTADOR.get();
+		if(contador != null) {
+			contador[0]++;
+		}
+		return sql;
+	}
+}
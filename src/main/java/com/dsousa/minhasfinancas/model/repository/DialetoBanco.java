@@ -0,0 +1,22 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Dialeto da base em uso, para os repositories customizados que tem SQL proprio do PostgreSQL
+ * (ON CONFLICT, janelas, particoes) e um caminho portavel para os demais (o H2 dos testes).
+ * Estatico e nao um bean: os testes @DataJpaTest so carregam os repositories.
+ */
+final class DialetoBanco {
+
+	private DialetoBanco() {
+	}
+
+	static boolean postgres(EntityManager entityManager) {
+		return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+				.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+	}
+}
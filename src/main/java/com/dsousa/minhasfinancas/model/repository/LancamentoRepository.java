@@ -1,17 +1,91 @@
 package com.dsousa.minhasfinancas.model.repository;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
-import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.projection.MovimentoLancamento;
+import com.dsousa.minhasfinancas.model.projection.TotalMensalPorTipo;
+import com.dsousa.minhasfinancas.model.projection.TotalPorTipo;
+import com.dsousa.minhasfinancas.model.projection.TotalPorUsuario;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long>{
+//No PostgreSQL a tabela é particionada por ano (V7__lancamento_particionado.sql): as consultas que
+//conhecem o ano o colocam no where para que o planner leia so as particoes necessarias
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
 	
-	@Query( value = " select sum(l.valor) from Lancamento l join l.usuario u"
-						+ " where u.id =:idUsuario and l.tipo =:tipo group by u")
-	BigDecimal obterSaldoPorTipoLancamentoEUsuario(@Param("idUsuario") Long idUsuario, @Param("tipo") TipoLancamento tipo);
+	int FETCH_SIZE = 500;
+
+	//lancamento e usuario num unico select com join (o usuario é LAZY nos demais caminhos)
+	@EntityGraph(Lancamento.GRAFO_COM_USUARIO)
+	Optional<Lancamento> findComUsuarioById(Long id);
+
+	//receitas e despesas dos anos ativos (posteriores a anoArquivado) numa unica consulta, uma linha por tipo;
+	//os anos arquivados estao totalizados em TotalArquivado
+	@Query( value = " select l.tipo as tipo, sum(l.valor) as total from Lancamento l"
+						+ " where l.usuario.id = :idUsuario and l.ano > :anoArquivado group by l.tipo")
+	List<TotalPorTipo> obterTotaisPorTipo(@Param("idUsuario") Long idUsuario, @Param("anoArquivado") Integer anoArquivado);
+
+	@Query( value = " select l.mes as mes, l.tipo as tipo, sum(l.valor) as total from Lancamento l"
+						+ " where l.usuario.id = :idUsuario and l.ano = :ano group by l.mes, l.tipo")
+	List<TotalMensalPorTipo> obterTotaisMensaisPorTipo(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+
+	//flushMode COMMIT: le o estado gravado na base, sem descarregar antes as alteraçoes pendentes da entidade.
+	//So o id é conhecido aqui: uma busca pela chave primaria em cada particao
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FLUSH_MODE, value = "COMMIT"))
+	@Query( value = " select l.usuario.id as idUsuario, l.tipo as tipo, l.valor as valor,"
+						+ " l.ano as ano, l.mes as mes, l.status as status, l.versao as versao from Lancamento l"
+						+ " where l.id = :id")
+	Optional<MovimentoLancamento> obterMovimentoPorId(@Param("id") Long id);
+
+	//update direto pela chave: sem carregar a entidade nem o usuario antes.
+	//anoAnterior (o gravado, de obterMovimentoPorId) limita o update a particao onde a linha esta.
+	//O usuario nao muda (o service so atualiza lancamentos do proprio dono).
+	//Os updates e o delete abaixo so alteram a linha se a versao for a lida antes (0 = conflito) e a incrementam
+	@Modifying
+	@Query( value = " update Lancamento l set l.descricao = :#{#lancamento.descricao},"
+						+ " l.descricaoBusca = :#{#lancamento.descricaoBusca},"
+						+ " l.mes = :#{#lancamento.mes}, l.ano = :#{#lancamento.ano},"
+						+ " l.valor = :#{#lancamento.valor}, l.tipo = :#{#lancamento.tipo},"
+						+ " l.status = :#{#lancamento.status}, l.versao = l.versao + 1"
+						+ " where l.id = :#{#lancamento.id} and l.ano = :anoAnterior and l.versao = :versao")
+	int atualizarDados(@Param("lancamento") Lancamento lancamento, @Param("anoAnterior") Integer anoAnterior,
+			@Param("versao") Long versao);
+
+	@Modifying
+	@Query( value = " update Lancamento l set l.status = :status, l.versao = l.versao + 1"
+						+ " where l.id = :id and l.ano = :ano and l.versao = :versao")
+	int atualizarStatus(@Param("id") Long id, @Param("ano") Integer ano, @Param("versao") Long versao,
+			@Param("status") StatusLancamento status);
+
+	@Modifying
+	@Query( value = " delete from Lancamento l where l.id = :id and l.ano = :ano and l.versao = :versao")
+	int deletarPorId(@Param("id") Long id, @Param("ano") Integer ano, @Param("versao") Long versao);
+
+	@Query( value = " select l.usuario.id as idUsuario, l.tipo as tipo, sum(l.valor) as total from Lancamento l"
+						+ " where l.ano > :anoArquivado group by l.usuario.id, l.tipo")
+	List<TotalPorUsuario> obterTotaisPorUsuarioETipo(@Param("anoArquivado") Integer anoArquivado);
+	
+	//anos com lancamentos ate o informado (candidatos ao arquivamento)
+	@Query( value = " select distinct l.ano from Lancamento l where l.ano <= :ano order by l.ano")
+	List<Integer> obterAnosAte(@Param("ano") Integer ano);
+
+	//cursor no banco: as linhas chegam em blocos de FETCH_SIZE e nao sao acumuladas em memoria.
+	//Precisa de transaçao aberta enquanto o Stream for consumido.
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + FETCH_SIZE),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+	})
+	@Query( value = " select l from Lancamento l where l.usuario.id = :idUsuario order by l.ano, l.mes, l.id")
+	Stream<Lancamento> streamPorUsuario(@Param("idUsuario") Long idUsuario);
 }
@@ -0,0 +1,42 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.projection.CursorLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+
+public interface LancamentoRepositoryCustom {
+	
+	//pagina ordenada por (ano, mes, id) começando logo apos o cursor; cursor nulo = primeira pagina.
+	//descricao é comparada com a coluna normalizada descricao_busca (sem acentos, minusculas).
+	//Devolve projeçoes, nao entidades: nada fica no contexto de persistencia
+	List<LancamentoResumo> buscarPagina(Lancamento filtro, CursorLancamento aPartirDe, int limite);
+	
+	//remove o lancamento do contexto de persistencia para que possa ser coletado
+	void desanexar(Lancamento lancamento);
+	
+	//persiste em blocos do tamanho do batch JDBC, limpando o contexto de persistencia entre eles
+	void salvarEmLote(List<Lancamento> lancamentos);
+	
+	//um unico UPDATE para os lancamentos do usuario do filtro que atendem aos demais criterios
+	//(e estao entre os ids, se informados), ainda nao tem o status e sao de anos posteriores a anoArquivado;
+	//retorna quantos foram alterados
+	int atualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status, Integer anoArquivado);
+	
+	//ids dos lancamentos que atualizarStatus alteraria, em ordem de id, travados (select ... for update)
+	//ate o fim da transaçao: nenhum deles muda de status nem de valor antes do update
+	List<Long> travarParaAtualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status, Integer anoArquivado);
+	
+	//os mesmos lancamentos de atualizarStatus, agrupados como no resumo mensal (status atual de cada grupo)
+	List<ResumoMensal> obterResumosParaAtualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status, Integer anoArquivado);
+	
+	//PostgreSQL: cria a particao do ano, se ainda nao existir (no H2 a tabela nao é particionada e nada muda)
+	void prepararParticao(Integer ano);
+	
+	//PostgreSQL: bloqueia escritas na particao do ano (trigger), desde ja e ate o fim da transaçao corrente
+	void protegerParticao(Integer ano);
+}
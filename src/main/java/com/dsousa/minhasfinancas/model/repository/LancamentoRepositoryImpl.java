@@ -0,0 +1,210 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.CursorLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int tamanhoLote;
+
+	@Override
+	public List<LancamentoResumo> buscarPagina(Lancamento filtro, CursorLancamento aPartirDe, int limite) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<LancamentoResumo> query = cb.createQuery(LancamentoResumo.class);
+		Root<Lancamento> lancamento = query.from(Lancamento.class);
+		
+		List<Predicate> condicoes = filtrar(cb, lancamento, filtro);
+		if(aPartirDe != null) {
+			condicoes.add(depoisDe(cb, lancamento, aPartirDe));
+		}
+		
+		//usuario.id é a propria FK: nao gera join com usuario
+		query.select(cb.construct(LancamentoResumo.class,
+					lancamento.get("id"), lancamento.get("descricao"), lancamento.get("mes"), lancamento.get("ano"),
+					lancamento.get("valor"), lancamento.get("tipo"), lancamento.get("status"),
+					lancamento.get("usuario").get("id"), lancamento.get("versao")))
+			.where(condicoes.toArray(new Predicate[0]))
+			.orderBy(cb.asc(lancamento.get("ano")), cb.asc(lancamento.get("mes")), cb.asc(lancamento.get("id")));
+		
+		return entityManager.createQuery(query)
+				.setMaxResults(limite)
+				.getResultList();
+	}
+	
+	@Override
+	public void salvarEmLote(List<Lancamento> lancamentos) {
+		for(int i = 0; i < lancamentos.size(); i++) {
+			entityManager.persist(lancamentos.get(i));
+			if((i + 1) % tamanhoLote == 0) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+	
+	@Override
+	public int atualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status, Integer anoArquivado) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Lancamento> update = cb.createCriteriaUpdate(Lancamento.class);
+		Root<Lancamento> lancamento = update.from(Lancamento.class);
+		
+		//incrementa a versao: atualizaçoes individuais concorrentes percebem a mudança
+		Path<Long> versao = lancamento.get("versao");
+		update.set(lancamento.<StatusLancamento>get("status"), status)
+			.set(versao, cb.sum(versao, 1l))
+			.where(transicaoDeStatus(cb, lancamento, filtro, ids, status, anoArquivado).toArray(new Predicate[0]));
+		return entityManager.createQuery(update).executeUpdate();
+	}
+	
+	@Override
+	public List<Long> travarParaAtualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status,
+			Integer anoArquivado) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Long> query = cb.createQuery(Long.class);
+		Root<Lancamento> lancamento = query.from(Lancamento.class);
+		
+		//em ordem de id: duas atualizaçoes em massa do mesmo usuario travam as linhas na mesma sequencia
+		Path<Long> id = lancamento.get("id");
+		query.select(id)
+			.where(transicaoDeStatus(cb, lancamento, filtro, ids, status, anoArquivado).toArray(new Predicate[0]))
+			.orderBy(cb.asc(id));
+		return entityManager.createQuery(query)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.getResultList();
+	}
+	
+	@Override
+	public List<ResumoMensal> obterResumosParaAtualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status,
+			Integer anoArquivado) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<ResumoMensal> query = cb.createQuery(ResumoMensal.class);
+		Root<Lancamento> lancamento = query.from(Lancamento.class);
+		
+		Path<Long> idUsuario = lancamento.get("usuario").get("id");
+		Path<Integer> ano = lancamento.get("ano");
+		Path<Integer> mes = lancamento.get("mes");
+		Path<TipoLancamento> tipo = lancamento.get("tipo");
+		Path<StatusLancamento> statusAtual = lancamento.get("status");
+		//lancamentos sem tipo nao entram no resumo
+		List<Predicate> condicoes = transicaoDeStatus(cb, lancamento, filtro, ids, status, anoArquivado);
+		condicoes.add(cb.isNotNull(tipo));
+		//BigDecimal so para a assinatura de sum: o Hibernate devolve a soma pelo converter do atributo (Dinheiro)
+		query.select(cb.construct(ResumoMensal.class, idUsuario, ano, mes, tipo, statusAtual,
+					cb.sum(lancamento.<BigDecimal>get("valor")), cb.count(lancamento)))
+			.where(condicoes.toArray(new Predicate[0]))
+			.groupBy(idUsuario, ano, mes, tipo, statusAtual);
+		return entityManager.createQuery(query).getResultList();
+	}
+	
+	//o filtro sempre inclui o usuario: ids de outros usuarios simplesmente nao sao alterados.
+	//Lancamentos que ja estao no status de destino ficam de fora (nao mudam nada no resumo), assim como
+	//os dos anos arquivados: no PostgreSQL o ano > :anoArquivado tambem descarta as particoes deles
+	private List<Predicate> transicaoDeStatus(CriteriaBuilder cb, Root<Lancamento> lancamento, Lancamento filtro,
+			Collection<Long> ids, StatusLancamento status, Integer anoArquivado) {
+		List<Predicate> condicoes = filtrar(cb, lancamento, filtro);
+		condicoes.add(cb.greaterThan(lancamento.<Integer>get("ano"), anoArquivado));
+		if(ids != null && !ids.isEmpty()) {
+			condicoes.add(lancamento.get("id").in(ids));
+		}
+		Path<StatusLancamento> statusAtual = lancamento.get("status");
+		condicoes.add(cb.or(cb.isNull(statusAtual), cb.notEqual(statusAtual, status)));
+		return condicoes;
+	}
+	
+	@Override
+	public void prepararParticao(Integer ano) {
+		if(particionado()) {
+			entityManager.createNativeQuery("select financas.criar_particao_lancamento(?1)").setParameter(1, ano).getSingleResult();
+		}
+	}
+	
+	@Override
+	public void protegerParticao(Integer ano) {
+		if(particionado()) {
+			entityManager.createNativeQuery("select financas.proteger_particao_lancamento(?1)").setParameter(1, ano).getSingleResult();
+		}
+	}
+	
+	//so a base PostgreSQL é particionada (migraçao V7); o H2 dos testes usa uma tabela unica
+	private boolean particionado() {
+		return DialetoBanco.postgres(entityManager);
+	}
+	
+	@Override
+	public void desanexar(Lancamento lancamento) {
+		entityManager.detach(lancamento);
+	}
+	
+	private List<Predicate> filtrar(CriteriaBuilder cb, Root<Lancamento> lancamento, Lancamento filtro) {
+		List<Predicate> condicoes = new ArrayList<>();
+		condicoes.add(cb.equal(lancamento.get("usuario").get("id"), filtro.getUsuario().getId()));
+		
+		String descricao = Lancamento.normalizarParaBusca(filtro.getDescricao());
+		if(descricao != null && !descricao.isEmpty()) {
+			//sem lower() na coluna: o indice trigram (PostgreSQL) atende o like '%termo%'
+			condicoes.add(cb.like(lancamento.get("descricaoBusca"), "%" + escaparLike(descricao) + "%", '\\'));
+		}
+		if(filtro.getMes() != null) {
+			condicoes.add(cb.equal(lancamento.get("mes"), filtro.getMes()));
+		}
+		if(filtro.getAno() != null) {
+			condicoes.add(cb.equal(lancamento.get("ano"), filtro.getAno()));
+		}
+		if(filtro.getTipo() != null) {
+			condicoes.add(cb.equal(lancamento.get("tipo"), filtro.getTipo()));
+		}
+		if(filtro.getStatus() != null) {
+			condicoes.add(cb.equal(lancamento.get("status"), filtro.getStatus()));
+		}
+		return condicoes;
+	}
+	
+	private static String escaparLike(String termo) {
+		return termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+	
+	/*
+	 * (ano, mes, id) > (cursor.ano, cursor.mes, cursor.id), escrito por extenso porque o JPQL
+	 * nao tem comparaçao de tuplas. O "ano >= cursor.ano" redundante deixa o banco iniciar
+	 * a leitura do indice ja na posiçao do cursor, de modo que a pagina N custa o mesmo que a primeira.
+	 */
+	private Predicate depoisDe(CriteriaBuilder cb, Root<Lancamento> lancamento, CursorLancamento cursor) {
+		Path<Integer> ano = lancamento.get("ano");
+		Path<Integer> mes = lancamento.get("mes");
+		Path<Long> id = lancamento.get("id");
+		
+		return cb.and(
+				cb.greaterThanOrEqualTo(ano, cursor.getAno()),
+				cb.or(
+					cb.greaterThan(ano, cursor.getAno()),
+					cb.and(cb.equal(ano, cursor.getAno()), cb.greaterThan(mes, cursor.getMes())),
+					cb.and(cb.equal(ano, cursor.getAno()), cb.equal(mes, cursor.getMes()), cb.greaterThan(id, cursor.getId()))));
+	}
+}
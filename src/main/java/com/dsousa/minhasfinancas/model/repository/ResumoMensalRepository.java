@@ -0,0 +1,32 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensalId;
+
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, ResumoMensalId>, ResumoMensalRepositoryCustom {
+	
+	//soma o delta (total e quantidade, podem ser negativos) ao grupo; 0 = grupo ainda nao existe (ver inserirOuAcumular)
+	@Modifying
+	@Query( value = " update ResumoMensal r set r.total = r.total + :#{#delta.total},"
+						+ " r.quantidade = r.quantidade + :#{#delta.quantidade}"
+						+ " where r.idUsuario = :#{#delta.idUsuario} and r.ano = :#{#delta.ano} and r.mes = :#{#delta.mes}"
+						+ " and r.tipo = :#{#delta.tipo} and r.status = :#{#delta.status}")
+	int acumular(@Param("delta") ResumoMensal delta);
+	
+	//(ano, mes) entre de e ate, inclusive, escrito por extenso para usar a chave primaria
+	@Query( value = " select r from ResumoMensal r where r.idUsuario = :idUsuario and r.quantidade > 0"
+						+ " and (r.ano > :deAno or (r.ano = :deAno and r.mes >= :deMes))"
+						+ " and (r.ano < :ateAno or (r.ano = :ateAno and r.mes <= :ateMes))"
+						+ " and r.ano between :deAno and :ateAno"
+						+ " order by r.ano, r.mes, r.tipo, r.status")
+	List<ResumoMensal> obterPorPeriodo(@Param("idUsuario") Long idUsuario,
+			@Param("deAno") Integer deAno, @Param("deMes") Integer deMes,
+			@Param("ateAno") Integer ateAno, @Param("ateMes") Integer ateMes);
+}
@@ -0,0 +1,22 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.time.YearMonth;
+import java.util.function.Consumer;
+
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.enums.Granularidade;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.projection.SaldoAcumulado;
+
+public interface ResumoMensalRepositoryCustom {
+	
+	//em ordem, um ponto por periodo com movimento entre de e ate (inclusive); o saldo acumulado inclui os
+	//periodos anteriores a de. Na granularidade anual de e ate devem cobrir anos inteiros. Status nulo = todos.
+	//Nada é guardado em lista: cada ponto vai para o consumidor assim que sai do banco
+	void percorrerSaldoAcumulado(Long idUsuario, YearMonth de, YearMonth ate, StatusLancamento status,
+			Granularidade granularidade, Consumer<SaldoAcumulado> consumidor);
+	
+	//grupo novo: insere ou, se outra transaçao ja o inseriu, soma total e quantidade a ele.
+	//Duas primeiras inclusoes concorrentes no mesmo grupo nao colidem na chave
+	void inserirOuAcumular(ResumoMensal grupo);
+}
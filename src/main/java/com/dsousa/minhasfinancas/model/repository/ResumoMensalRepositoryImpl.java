@@ -0,0 +1,238 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.enums.Granularidade;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.SaldoAcumulado;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+
+//Os dois caminhos entregam a mesma serie: o ultimo periodo com movimento antes de de (o saldo de abertura,
+//se houver) e depois cada periodo com movimento ate ate. O acumulado considera todo o historico do usuario
+public class ResumoMensalRepositoryImpl implements ResumoMensalRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	public void percorrerSaldoAcumulado(Long idUsuario, YearMonth de, YearMonth ate, StatusLancamento status,
+			Granularidade granularidade, Consumer<SaldoAcumulado> consumidor) {
+		if(postgres()) {
+			percorrerComJanela(idUsuario, de, ate, status, granularidade, consumidor);
+		} else {
+			percorrerEmUmaPassada(idUsuario, de, ate, status, granularidade, consumidor);
+		}
+	}
+	
+	//o banco agrupa por periodo e acumula com SUM(...) OVER; LEAD descarta os periodos anteriores ao de,
+	//menos o ultimo deles, que traz o saldo de abertura
+	void percorrerComJanela(Long idUsuario, YearMonth de, YearMonth ate, StatusLancamento status,
+			Granularidade granularidade, Consumer<SaldoAcumulado> consumidor) {
+		boolean porMes = granularidade == Granularidade.MES;
+		String periodo = porMes ? "ano, mes" : "ano";
+		String indice = porMes ? "ano * 12 + mes - 1" : "ano";
+		Query query = entityManager.createNativeQuery(
+				" select " + periodo + ", receitas, despesas, acumulado from ("
+				+ " select " + periodo + ", receitas, despesas,"
+				+ " sum(receitas - despesas) over (order by " + periodo + ") as acumulado,"
+				+ " lead(" + indice + ") over (order by " + periodo + ") as proximo"
+				+ " from (select " + periodo + ","
+				+ " coalesce(sum(total) filter (where tipo = 'RECEITA'), 0) as receitas,"
+				+ " coalesce(sum(total) filter (where tipo = 'DESPESA'), 0) as despesas"
+				+ " from financas.resumo_mensal"
+				+ " where id_usuario = :idUsuario and quantidade > 0"
+				+ " and ano <= :ateAno and (ano < :ateAno or mes <= :ateMes)"
+				+ (status != null ? " and status = :status" : "")
+				+ " group by " + periodo + ") as movimento) as serie"
+				+ " where coalesce(proximo, :de) >= :de"
+				+ " order by " + periodo)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("ateAno", ate.getYear())
+				.setParameter("ateMes", ate.getMonthValue())
+				.setParameter("de", porMes ? de.getYear() * 12 + de.getMonthValue() - 1 : de.getYear());
+		if(status != null) {
+			query.setParameter("status", status.name());
+		}
+		
+		try (Stream<?> linhas = query.getResultStream()) {
+			linhas.forEach(resultado -> {
+				Object[] linha = (Object[]) resultado;
+				int coluna = porMes ? 2 : 1;
+				consumidor.accept(SaldoAcumulado.builder()
+						.ano(((Number) linha[0]).intValue())
+						.mes(porMes ? ((Number) linha[1]).intValue() : null)
+						.receitas(Dinheiro.de((BigDecimal) linha[coluna]))
+						.despesas(Dinheiro.de((BigDecimal) linha[coluna + 1]))
+						.saldo(Dinheiro.de((BigDecimal) linha[coluna + 2]))
+						.build());
+			});
+		}
+	}
+	
+	//sem funçoes de janela: os grupos (ano, mes, tipo) chegam ordenados e o acumulado é somado enquanto
+	//sao lidos, sem guardar as linhas
+	void percorrerEmUmaPassada(Long idUsuario, YearMonth de, YearMonth ate, StatusLancamento status,
+			Granularidade granularidade, Consumer<SaldoAcumulado> consumidor) {
+		TypedQuery<Object[]> query = entityManager.createQuery(
+				" select r.ano, r.mes, r.tipo, sum(r.total) from ResumoMensal r"
+				+ " where r.idUsuario = :idUsuario and r.quantidade > 0"
+				+ " and r.ano <= :ateAno and (r.ano < :ateAno or r.mes <= :ateMes)"
+				+ (status != null ? " and r.status = :status" : "")
+				+ " group by r.ano, r.mes, r.tipo"
+				+ " order by r.ano, r.mes", Object[].class)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("ateAno", ate.getYear())
+				.setParameter("ateMes", ate.getMonthValue());
+		if(status != null) {
+			query.setParameter("status", status);
+		}
+		
+		SerieEmAndamento serie = new SerieEmAndamento(de, granularidade == Granularidade.MES, consumidor);
+		try (Stream<Object[]> linhas = query.getResultStream()) {
+			//a soma sobre o atributo convertido volta como Dinheiro
+			linhas.forEach(linha -> serie.somar((Integer) linha[0], (Integer) linha[1],
+					(TipoLancamento) linha[2], (Dinheiro) linha[3]));
+		}
+		serie.concluir();
+	}
+	
+	@Override
+	public void inserirOuAcumular(ResumoMensal grupo) {
+		if(postgres()) {
+			//insert direto (save() faria merge, com um select antes pela chave composta); o concorrente espera
+			//o commit do outro e soma ao grupo. Query nativa nao passa pelo converter de Dinheiro
+			entityManager.createNativeQuery(" insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, total, quantidade)"
+						+ " values (:idUsuario, :ano, :mes, :tipo, :status, :total, :quantidade)"
+						+ " on conflict (id_usuario, ano, mes, tipo, status) do update"
+						+ " set total = resumo_mensal.total + excluded.total,"
+						+ " quantidade = resumo_mensal.quantidade + excluded.quantidade")
+				.setParameter("idUsuario", grupo.getIdUsuario())
+				.setParameter("ano", grupo.getAno())
+				.setParameter("mes", grupo.getMes())
+				.setParameter("tipo", grupo.getTipo().name())
+				.setParameter("status", grupo.getStatus().name())
+				.setParameter("total", grupo.getTotal().paraBigDecimal())
+				.setParameter("quantidade", grupo.getQuantidade())
+				.executeUpdate();
+			return;
+		}
+		
+		//sem ON CONFLICT (o H2 dos testes): as escritas do LancamentoService passam antes pelo saldo do usuario,
+		//cuja linha fica travada ate o commit e enfileira as inclusoes em grupos novos; a que chega depois ja
+		//encontra o grupo inserido pela anterior. Travar o usuario aqui inverteria a ordem das travas do saldo
+		entityManager.createNativeQuery("select id_usuario from financas.saldo_usuario where id_usuario = :idUsuario for update")
+				.setParameter("idUsuario", grupo.getIdUsuario())
+				.getResultList();
+		int atualizados = entityManager.createQuery(" update ResumoMensal r set r.total = r.total + :total,"
+						+ " r.quantidade = r.quantidade + :quantidade"
+						+ " where r.idUsuario = :idUsuario and r.ano = :ano and r.mes = :mes"
+						+ " and r.tipo = :tipo and r.status = :status")
+				.setParameter("idUsuario", grupo.getIdUsuario())
+				.setParameter("ano", grupo.getAno())
+				.setParameter("mes", grupo.getMes())
+				.setParameter("tipo", grupo.getTipo())
+				.setParameter("status", grupo.getStatus())
+				.setParameter("total", grupo.getTotal())
+				.setParameter("quantidade", grupo.getQuantidade())
+				.executeUpdate();
+		if(atualizados == 0) {
+			entityManager.createNativeQuery(" insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, total, quantidade)"
+						+ " values (:idUsuario, :ano, :mes, :tipo, :status, :total, :quantidade)")
+				.setParameter("idUsuario", grupo.getIdUsuario())
+				.setParameter("ano", grupo.getAno())
+				.setParameter("mes", grupo.getMes())
+				.setParameter("tipo", grupo.getTipo().name())
+				.setParameter("status", grupo.getStatus().name())
+				.setParameter("total", grupo.getTotal().paraBigDecimal())
+				.setParameter("quantidade", grupo.getQuantidade())
+				.executeUpdate();
+		}
+	}
+	
+	//so a base PostgreSQL usa a consulta com janela e o ON CONFLICT; outros dialetos (o H2 dos testes)
+	//ficam com a passada unica e a trava no saldo
+	private boolean postgres() {
+		return DialetoBanco.postgres(entityManager);
+	}
+	
+	//periodo corrente da passada unica; o saldo de abertura espera pelo primeiro periodo a partir de de
+	private static class SerieEmAndamento {
+		
+		private final int inicio;
+		private final boolean porMes;
+		private final Consumer<SaldoAcumulado> consumidor;
+		
+		private Integer ano;
+		private Integer mes;
+		private long receitas;
+		private long despesas;
+		private long acumulado;
+		private SaldoAcumulado abertura;
+		
+		SerieEmAndamento(YearMonth de, boolean porMes, Consumer<SaldoAcumulado> consumidor) {
+			this.inicio = porMes ? de.getYear() * 12 + de.getMonthValue() - 1 : de.getYear();
+			this.porMes = porMes;
+			this.consumidor = consumidor;
+		}
+		
+		void somar(Integer anoGrupo, Integer mesGrupo, TipoLancamento tipo, Dinheiro total) {
+			Integer mesPeriodo = porMes ? mesGrupo : null;
+			if(ano != null && (!ano.equals(anoGrupo) || (porMes && !mes.equals(mesPeriodo)))) {
+				fechar();
+			}
+			ano = anoGrupo;
+			mes = mesPeriodo;
+			if(total == null) {
+				return;
+			}
+			if(tipo == TipoLancamento.RECEITA) {
+				receitas += total.getCentavos();
+				acumulado += total.getCentavos();
+			} else {
+				despesas += total.getCentavos();
+				acumulado -= total.getCentavos();
+			}
+		}
+		
+		void concluir() {
+			if(ano != null) {
+				fechar();
+			}
+			if(abertura != null) {
+				consumidor.accept(abertura);
+			}
+		}
+		
+		private void fechar() {
+			SaldoAcumulado ponto = SaldoAcumulado.builder()
+					.ano(ano)
+					.mes(mes)
+					.receitas(Dinheiro.deCentavos(receitas))
+					.despesas(Dinheiro.deCentavos(despesas))
+					.saldo(Dinheiro.deCentavos(acumulado))
+					.build();
+			ano = null;
+			receitas = 0;
+			despesas = 0;
+			if(ponto.getIndicePeriodo() < inicio) {
+				abertura = ponto;
+				return;
+			}
+			if(abertura != null) {
+				consumidor.accept(abertura);
+				abertura = null;
+			}
+			consumidor.accept(ponto);
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom {
+	
+	//Update atomico: duas transaçoes concorrentes nao perdem o incremento uma da outra
+	@Modifying
+	@Query( value = " update SaldoUsuario s set s.receitas = s.receitas + :receitas,"
+						+ " s.despesas = s.despesas + :despesas,"
+						+ " s.saldo = s.saldo + :receitas - :despesas,"
+						+ " s.versao = s.versao + 1"
+						+ " where s.idUsuario = :idUsuario")
+	int acumular(@Param("idUsuario") Long idUsuario, @Param("receitas") BigDecimal receitas, @Param("despesas") BigDecimal despesas);
+	
+	//alteraçoes que nao mexem no saldo (ex.: status) tambem mudam a versao dos dados do usuario
+	@Modifying
+	@Query( value = " update SaldoUsuario s set s.versao = s.versao + 1 where s.idUsuario = :idUsuario")
+	int incrementarVersao(@Param("idUsuario") Long idUsuario);
+	
+	//so a versao, pela chave: base do ETag das leituras do usuario
+	@Query( value = " select s.versao from SaldoUsuario s where s.idUsuario = :idUsuario")
+	Optional<Long> obterVersao(@Param("idUsuario") Long idUsuario);
+}
@@ -0,0 +1,12 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+
+public interface SaldoUsuarioRepositoryCustom {
+	
+	//primeira movimentaçao do usuario: insere o saldo inicial ou, se outra transaçao ja o inseriu,
+	//soma receitas e despesas a ele. Duas primeiras escritas concorrentes nao colidem na chave
+	void inserirOuAcumular(SaldoUsuario inicial, BigDecimal receitas, BigDecimal despesas);
+}
@@ -0,0 +1,64 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+
+public class SaldoUsuarioRepositoryImpl implements SaldoUsuarioRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	public void inserirOuAcumular(SaldoUsuario inicial, BigDecimal receitas, BigDecimal despesas) {
+		if(postgres()) {
+			//o insert concorrente espera o commit do outro e cai no update: so o delta, o outro ja consolidou o historico
+			entityManager.createNativeQuery(" insert into financas.saldo_usuario (id_usuario, receitas, despesas, saldo, versao)"
+						+ " values (:idUsuario, :receitasIniciais, :despesasIniciais, :saldoInicial, 0)"
+						+ " on conflict (id_usuario) do update set receitas = saldo_usuario.receitas + :receitas,"
+						+ " despesas = saldo_usuario.despesas + :despesas,"
+						+ " saldo = saldo_usuario.saldo + :receitas - :despesas,"
+						+ " versao = saldo_usuario.versao + 1")
+				.setParameter("idUsuario", inicial.getIdUsuario())
+				.setParameter("receitasIniciais", inicial.getReceitas())
+				.setParameter("despesasIniciais", inicial.getDespesas())
+				.setParameter("saldoInicial", inicial.getSaldo())
+				.setParameter("receitas", receitas)
+				.setParameter("despesas", despesas)
+				.executeUpdate();
+			return;
+		}
+		
+		//sem upsert que acumule (o H2 dos testes): a trava na linha do usuario enfileira as primeiras escritas
+		//dele, e a que chega depois ja encontra o saldo inserido pela anterior
+		entityManager.createNativeQuery("select id from financas.usuario where id = :idUsuario for update")
+				.setParameter("idUsuario", inicial.getIdUsuario())
+				.getResultList();
+		int atualizados = entityManager.createQuery(" update SaldoUsuario s set s.receitas = s.receitas + :receitas,"
+						+ " s.despesas = s.despesas + :despesas,"
+						+ " s.saldo = s.saldo + :receitas - :despesas,"
+						+ " s.versao = s.versao + 1"
+						+ " where s.idUsuario = :idUsuario")
+				.setParameter("idUsuario", inicial.getIdUsuario())
+				.setParameter("receitas", receitas)
+				.setParameter("despesas", despesas)
+				.executeUpdate();
+		if(atualizados == 0) {
+			entityManager.createNativeQuery(" insert into financas.saldo_usuario (id_usuario, receitas, despesas, saldo, versao)"
+						+ " values (:idUsuario, :receitas, :despesas, :saldo, 0)")
+				.setParameter("idUsuario", inicial.getIdUsuario())
+				.setParameter("receitas", inicial.getReceitas())
+				.setParameter("despesas", inicial.getDespesas())
+				.setParameter("saldo", inicial.getSaldo())
+				.executeUpdate();
+		}
+	}
+	
+	//ON CONFLICT so no PostgreSQL; outros dialetos (o H2 dos testes) ficam com a trava no usuario
+	private boolean postgres() {
+		return DialetoBanco.postgres(entityManager);
+	}
+}
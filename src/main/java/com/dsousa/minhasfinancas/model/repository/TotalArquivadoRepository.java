@@ -0,0 +1,33 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.dsousa.minhasfinancas.model.entity.TotalArquivado;
+import com.dsousa.minhasfinancas.model.entity.TotalArquivadoId;
+import com.dsousa.minhasfinancas.model.projection.TotalPorTipo;
+import com.dsousa.minhasfinancas.model.projection.TotalPorUsuario;
+
+public interface TotalArquivadoRepository extends JpaRepository<TotalArquivado, TotalArquivadoId> {
+	
+	//totais do ano tirados dos lancamentos num unico insert-select (le so a particao do ano);
+	//lancamentos sem usuario ou sem tipo ficam de fora, como no saldo
+	@Modifying
+	@Query( nativeQuery = true, value = " insert into financas.total_arquivado (id_usuario, ano, tipo, total, quantidade)"
+						+ " select l.id_usuario, l.ano, l.tipo, coalesce(sum(l.valor), 0), count(*) from financas.lancamento l"
+						+ " where l.ano = :ano and l.id_usuario is not null and l.tipo is not null"
+						+ " group by l.id_usuario, l.ano, l.tipo")
+	int totalizar(@Param("ano") Integer ano);
+	
+	@Query( value = " select t.tipo as tipo, sum(t.total) as total from TotalArquivado t"
+						+ " where t.idUsuario = :idUsuario group by t.tipo")
+	List<TotalPorTipo> obterTotaisPorTipo(@Param("idUsuario") Long idUsuario);
+	
+	@Query( value = " select t.idUsuario as idUsuario, t.tipo as tipo, sum(t.total) as total from TotalArquivado t"
+						+ " group by t.idUsuario, t.tipo")
+	List<TotalPorUsuario> obterTotaisPorUsuarioETipo();
+}
@@ -0,0 +1,111 @@
+package com.dsousa.minhasfinancas.model.valor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetario imutavel em centavos (long), o mesmo dominio da coluna numeric(16,2).
+ * Somas, comparaçoes e a escrita em texto nao alocam BigDecimal; a conversao fica na borda
+ * (banco, DTOs e colunas de saldo e resumo, que continuam numeric somadas pelo banco).
+ */
+public final class Dinheiro implements Comparable<Dinheiro>, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final Dinheiro ZERO = new Dinheiro(0);
+
+	//maior texto: sinal, 19 digitos e o ponto
+	public static final int TAMANHO_MAXIMO_TEXTO = 21;
+
+	private final long centavos;
+
+	private Dinheiro(long centavos) {
+		this.centavos = centavos;
+	}
+
+	public static Dinheiro deCentavos(long centavos) {
+		return centavos == 0 ? ZERO : new Dinheiro(centavos);
+	}
+
+	//mais de duas casas decimais arredondam como o numeric(16,2) do banco
+	public static Dinheiro de(BigDecimal valor) {
+		return valor == null ? null : deCentavos(centavos(valor));
+	}
+
+	public static long centavos(BigDecimal valor) {
+		return valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	public long getCentavos() {
+		return centavos;
+	}
+
+	public BigDecimal paraBigDecimal() {
+		return BigDecimal.valueOf(centavos, 2);
+	}
+
+	public Dinheiro mais(Dinheiro outro) {
+		return deCentavos(Math.addExact(centavos, outro.centavos));
+	}
+
+	public Dinheiro menos(Dinheiro outro) {
+		return deCentavos(Math.subtractExact(centavos, outro.centavos));
+	}
+
+	public Dinheiro negativo() {
+		return deCentavos(Math.negateExact(centavos));
+	}
+
+	public int signum() {
+		return Long.signum(centavos);
+	}
+
+	/**
+	 * Escreve o valor com duas casas (ex.: -1500.10) a partir de {@code inicio}, sem String intermediaria.
+	 * O destino precisa de {@link #TAMANHO_MAXIMO_TEXTO} posiçoes livres; devolve quantas foram usadas.
+	 */
+	public int formatar(char[] destino, int inicio) {
+		//digitos tirados de um long negativo, que comporta Long.MIN_VALUE; no minimo 0.0X
+		long resto = centavos < 0 ? centavos : -centavos;
+		int digitos = 1;
+		for(long r = resto / 10; r != 0; r /= 10) {
+			digitos++;
+		}
+		digitos = Math.max(digitos, 3);
+		int tamanho = digitos + (centavos < 0 ? 2 : 1);
+		int posicao = inicio + tamanho - 1;
+		for(int i = 0; i < digitos; i++) {
+			if(i == 2) {
+				destino[posicao--] = '.';
+			}
+			destino[posicao--] = (char) ('0' - resto % 10);
+			resto /= 10;
+		}
+		if(centavos < 0) {
+			destino[posicao] = '-';
+		}
+		return tamanho;
+	}
+
+	@Override
+	public int compareTo(Dinheiro outro) {
+		return Long.compare(centavos, outro.centavos);
+	}
+
+	@Override
+	public boolean equals(Object outro) {
+		return outro instanceof Dinheiro && ((Dinheiro) outro).centavos == centavos;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(centavos);
+	}
+
+	@Override
+	public String toString() {
+		char[] texto = new char[TAMANHO_MAXIMO_TEXTO];
+		return new String(texto, 0, formatar(texto, 0));
+	}
+}
@@ -0,0 +1,23 @@
+package com.dsousa.minhasfinancas.model.valor;
+
+import java.math.BigDecimal;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * numeric(16,2) <-> {@link Dinheiro}. Agregaçoes feitas no banco (sum) continuam devolvendo BigDecimal.
+ */
+@Converter
+public class DinheiroConverter implements AttributeConverter<Dinheiro, BigDecimal> {
+
+	@Override
+	public BigDecimal convertToDatabaseColumn(Dinheiro valor) {
+		return valor == null ? null : valor.paraBigDecimal();
+	}
+
+	@Override
+	public Dinheiro convertToEntityAttribute(BigDecimal valor) {
+		return Dinheiro.de(valor);
+	}
+}
@@ -1,27 +1,78 @@
 package com.dsousa.minhasfinancas.service;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.enums.Granularidade;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.projection.CursorLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.dsousa.minhasfinancas.model.projection.SaldoAcumulado;
+import com.dsousa.minhasfinancas.model.projection.SaldoMensal;
 
 public interface LancamentoService {
 	
 	Lancamento salvar(Lancamento lancamento);
 	
+	//retorna os erros de validaçao por posiçao na lista; os lancamentos validos sao gravados
+	Map<Integer, String> salvarLote(List<Lancamento> lancamentos);
+	
+	//com a versao do lancamento, so grava se ela ainda for a da base; sem versao, a lida no inicio.
+	//ConflitoVersaoException se outra escrita chegou antes (nada é gravado). O usuario do lancamento
+	//tem de ser o dono gravado: o de outro usuario é tratado como inexistente
 	Lancamento atualizar(Lancamento lancamento);
 	
 	void deletar(Lancamento lancamento);
 	
-	List<Lancamento> buscar(Lancamento lancamentoFiltro);
+	//so lancamentos do usuario informado (os demais = false, como inexistentes). Em conflito de versao
+	//releem e repetem, ate o limite de tentativas (depois ConflitoVersaoException)
+	boolean deletar(Long id, Long idUsuario);
+	
+	List<LancamentoResumo> buscar(Lancamento lancamentoFiltro, CursorLancamento aPartirDe, int limite);
+	
+	void exportar(Long idUsuario, Consumer<Lancamento> consumidor);
 	
 	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 	
+	//idem ao deletar por id
+	boolean atualizarStatus(Long id, Long idUsuario, StatusLancamento status);
+	
+	//transiçao em massa num unico UPDATE, restrita ao usuario do filtro; retorna quantos foram alterados
+	int atualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status);
+	
 	void validar(Lancamento lancamento);
 	
 	Optional<Lancamento> obterPorId(Long id);
 
 	BigDecimal obterSaldoPorUsuario(Long id);
+	
+	//muda a cada escrita nos lancamentos do usuario; vazio enquanto ele nao tiver saldo consolidado
+	Optional<Long> obterVersao(Long idUsuario);
+	
+	List<SaldoMensal> obterSaldoMensalPorUsuario(Long id, Integer ano);
+	
+	//le apenas a tabela resumo_mensal, de e ate inclusive
+	List<ResumoMensal> obterResumoMensal(Long idUsuario, YearMonth de, YearMonth ate);
+	
+	//saldo acumulado ao fim de cada periodo entre de e ate, inclusive os sem movimento (anos inteiros na
+	//granularidade anual); status nulo = todos. Le apenas a tabela resumo_mensal
+	List<SaldoAcumulado> obterSerieSaldo(Long idUsuario, YearMonth de, YearMonth ate, StatusLancamento status, Granularidade granularidade);
+	
+	void reconstruirSaldo(Long idUsuario);
+	
+	int reconstruirSaldos();
+	
+	//arquiva os anos ate o informado, em ordem: os lancamentos deles passam a ser somente leitura e os
+	//totais por usuario ficam em TotalArquivado. Retorna os anos com lancamentos que foram arquivados agora
+	List<Integer> arquivarAnosAte(Integer ano);
+	
+	//PostgreSQL: cria de antemao a particao do ano (no H2 nao faz nada)
+	void prepararParticao(Integer ano);
 }
@@ -0,0 +1,14 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.util.Optional;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+
+public interface TokenService {
+	
+	//token assinado (HMAC) com o id do usuario e a expiraçao, emitido no login
+	String gerarToken(Usuario usuario);
+	
+	//id do usuario se a assinatura confere e o token nao expirou; verificado so em memoria
+	Optional<Long> validarToken(String token);
+}
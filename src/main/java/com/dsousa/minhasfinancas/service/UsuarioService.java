@@ -13,4 +13,7 @@ public interface UsuarioService {
 	void validarEmail(String email);
 
 	Optional<Usuario> obterPorId(Long id);
+	
+	//referencia (proxy) sem consulta ao banco; a existencia é garantida pela FK ao gravar
+	Usuario obterReferencia(Long id);
 }
@@ -1,32 +1,108 @@
 package com.dsousa.minhasfinancas.service.impl;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.dsousa.minhasfinancas.exception.ConflitoVersaoException;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.AnoArquivado;
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensalId;
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+import com.dsousa.minhasfinancas.model.enums.Granularidade;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
 import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.CursorLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.dsousa.minhasfinancas.model.projection.MovimentoLancamento;
+import com.dsousa.minhasfinancas.model.projection.SaldoAcumulado;
+import com.dsousa.minhasfinancas.model.projection.SaldoMensal;
+import com.dsousa.minhasfinancas.model.projection.TotalMensalPorTipo;
+import com.dsousa.minhasfinancas.model.projection.TotalPorTipo;
+import com.dsousa.minhasfinancas.model.projection.TotalPorUsuario;
+import com.dsousa.minhasfinancas.model.repository.AnoArquivadoRepository;
 import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.ResumoMensalRepository;
+import com.dsousa.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dsousa.minhasfinancas.model.repository.TotalArquivadoRepository;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
 import com.dsousa.minhasfinancas.service.LancamentoService;
 
 @Service
 public class LancamentoServiceImpl implements LancamentoService {
+	
+	//a partir deste tamanho (lotes da importaçao) a validaçao roda em paralelo; validar nao guarda estado
+	static final int LOTE_VALIDACAO_PARALELA = 1000;
+	
+	//ids travados por statement na atualizaçao de status em massa (limite de parametros do in)
+	static final int LOTE_ATUALIZACAO_STATUS = 1000;
+	
+	//posiçoes dos acumuladores em centavos (long[2]) dos relatorios em memoria
+	private static final int RECEITAS = 0;
+	private static final int DESPESAS = 1;
 
 	private LancamentoRepository repository;
 	
+	private SaldoUsuarioRepository saldoRepository;
+	
+	private ResumoMensalRepository resumoRepository;
+	
+	private TotalArquivadoRepository totalArquivadoRepository;
+	
+	private AnoArquivadoRepository anoArquivadoRepository;
+	
+	//ultimo ano arquivado (0 = nenhum), relido a cada RECARGA_ANO_ARQUIVADO para ver arquivamentos
+	//feitos por outras instancias; no PostgreSQL a particao arquivada recusa escritas de qualquer forma
+	static final long RECARGA_ANO_ARQUIVADO = TimeUnit.MINUTES.toNanos(5);
+	
+	private volatile int anoArquivado;
+	
+	private volatile long anoArquivadoLidoEm;
+	
+	//operaçoes idempotentes (status, exclusao) releem o lancamento e repetem ate este numero de tentativas
+	//quando a versao muda entre a leitura e a escrita; atualizar nunca repete (o cliente decide)
+	@Value("${minhasfinancas.lancamento.tentativas-conflito:3}")
+	private int tentativasConflito = 3;
+	
 	@Autowired
-	public LancamentoServiceImpl(LancamentoRepository repository) {
+	public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioRepository saldoRepository,
+			ResumoMensalRepository resumoRepository, TotalArquivadoRepository totalArquivadoRepository,
+			AnoArquivadoRepository anoArquivadoRepository) {
 		this.repository = repository;
+		this.saldoRepository = saldoRepository;
+		this.resumoRepository = resumoRepository;
+		this.totalArquivadoRepository = totalArquivadoRepository;
+		this.anoArquivadoRepository = anoArquivadoRepository;
+	}
+	
+	//na subida, para que as escritas nao paguem a primeira leitura
+	@PostConstruct
+	public void carregarAnoArquivado() {
+		anoArquivado = anoArquivadoRepository.obterUltimoAnoArquivado().orElse(0);
+		anoArquivadoLidoEm = System.nanoTime();
 	}
 	
 	@Override
@@ -34,7 +110,56 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public Lancamento salvar(Lancamento lancamento) {
 		validar(lancamento);
 		lancamento.setStatus(StatusLancamento.PENDENTE);
-		return repository.save(lancamento);
+		Lancamento lancamentoSalvo = repository.save(lancamento);
+		movimentarSaldo(lancamento.getUsuario().getId(), lancamento.getTipo(), lancamento.getValor());
+		movimentarResumo(resumo(lancamento, lancamento.getValor(), 1));
+		return lancamentoSalvo;
+	}
+
+	@Override
+	@Transactional
+	public Map<Integer, String> salvarLote(List<Lancamento> lancamentos) {
+		String[] mensagens = new String[lancamentos.size()];
+		IntStream indices = IntStream.range(0, lancamentos.size());
+		(lancamentos.size() >= LOTE_VALIDACAO_PARALELA ? indices.parallel() : indices).forEach(i -> {
+			try {
+				validar(lancamentos.get(i));
+			} catch (RegraNegocioException e) {
+				mensagens[i] = e.getMessage();
+			}
+		});
+		
+		Map<Integer, String> erros = new LinkedHashMap<>();
+		List<Lancamento> validos = new ArrayList<>(lancamentos.size());
+		for(int i = 0; i < lancamentos.size(); i++) {
+			if(mensagens[i] != null) {
+				erros.put(i, mensagens[i]);
+			} else {
+				lancamentos.get(i).setStatus(StatusLancamento.PENDENTE);
+				validos.add(lancamentos.get(i));
+			}
+		}
+		
+		repository.salvarEmLote(validos);
+		
+		//um update de saldo por usuario, nao por lancamento; receitas e despesas somadas em centavos
+		Map<Long, long[]> movimentos = new HashMap<>();
+		for(Lancamento lancamento : validos) {
+			long[] movimento = movimentos.computeIfAbsent(lancamento.getUsuario().getId(), id -> new long[2]);
+			acumular(movimento, lancamento.getTipo(), lancamento.getValor().getCentavos());
+		}
+		movimentos.forEach((idUsuario, movimento) -> movimentarSaldo(idUsuario,
+				Dinheiro.deCentavos(movimento[RECEITAS]), Dinheiro.deCentavos(movimento[DESPESAS])));
+		
+		//idem para o resumo: um update por grupo (usuario, mes, tipo, status)
+		Map<ResumoMensalId, ResumoMensal> resumos = new HashMap<>();
+		for(Lancamento lancamento : validos) {
+			resumos.merge(resumo(lancamento, lancamento.getValor(), 1).getChave(),
+					resumo(lancamento, lancamento.getValor(), 1), LancamentoServiceImpl::somar);
+		}
+		resumos.values().forEach(this::movimentarResumo);
+		
+		return erros;
 	}
 
 	@Override
@@ -42,27 +167,89 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public Lancamento atualizar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
 		validar(lancamento);
-		return repository.save(lancamento);
+		Optional<MovimentoLancamento> anterior = repository.obterMovimentoPorId(lancamento.getId())
+				.filter(movimento -> movimento.getIdUsuario().equals(lancamento.getUsuario().getId()));
+		//o lancamento de outro usuario nao existe para quem atualiza: nao pode ser sobrescrito nem tomado
+		if(!anterior.isPresent()) {
+			throw new RegraNegocioException("Lancamento nao encontrado na base de Dados.");
+		}
+		validarAnoAtivo(anterior.get().getAno());
+		//sem versao informada vale a lida agora: ainda protege os deltas de saldo e resumo calculados a partir dela
+		Long versao = lancamento.getVersao() != null ? lancamento.getVersao() : anterior.get().getVersao();
+		//o status nulo no dto mantem o gravado; resolvido aqui porque o parametro dentro de um coalesce
+		//no update ficava sem tipo e o enum era gravado serializado
+		if(lancamento.getStatus() == null) {
+			lancamento.setStatus(anterior.get().getStatus());
+		}
+		lancamento.atualizarDescricaoBusca();
+		if(!versao.equals(anterior.get().getVersao())
+				|| repository.atualizarDados(lancamento, anterior.get().getAno(), versao) == 0) {
+			throw new ConflitoVersaoException(lancamento.getId());
+		}
+		lancamento.setVersao(versao + 1);
+		
+		//o usuario nao muda: aplica so a diferença num unico update
+		movimentarSaldo(lancamento.getUsuario().getId(),
+				receitas(lancamento.getTipo(), lancamento.getValor()).menos(receitas(anterior.get().getTipo(), anterior.get().getValor())),
+				despesas(lancamento.getTipo(), lancamento.getValor()).menos(despesas(anterior.get().getTipo(), anterior.get().getValor())));
+		
+		ResumoMensal removido = resumo(anterior.get(), anterior.get().getValor().negativo(), -1);
+		ResumoMensal incluido = resumo(lancamento, lancamento.getValor(), 1);
+		if(removido.getChave().equals(incluido.getChave())) {
+			ResumoMensal diferenca = somar(removido, incluido);
+			if(diferenca.getTotal().signum() != 0) {
+				movimentarResumo(diferenca);
+			}
+		} else {
+			movimentarResumo(removido);
+			movimentarResumo(incluido);
+		}
+		return lancamento;
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
-		repository.delete(lancamento);
+		//pelo delete direto: o delete da entidade sem versao seria ignorado pelo repositorio (entidade nova)
+		deletar(lancamento.getId(), lancamento.getUsuario().getId());
+	}
+
+	@Override
+	@Transactional
+	public boolean deletar(Long id, Long idUsuario) {
+		Objects.requireNonNull(idUsuario);
+		for(int tentativa = 1; ; tentativa++) {
+			Optional<MovimentoLancamento> anterior = movimentoDoUsuario(id, idUsuario);
+			if(!anterior.isPresent()) {
+				return false;
+			}
+			validarAnoAtivo(anterior.get().getAno());
+			if(repository.deletarPorId(id, anterior.get().getAno(), anterior.get().getVersao()) == 1) {
+				estornarSaldo(anterior.get());
+				movimentarResumo(resumo(anterior.get(), anterior.get().getValor().negativo(), -1));
+				return true;
+			}
+			validarTentativa(id, tentativa);
+		}
 	}
 
 	@Override
 	@Transactional (readOnly = true)
-	public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-		Example example = Example.of(
-				lancamentoFiltro, 
-				ExampleMatcher.matching()
-				.withIgnoreCase()
-				.withStringMatcher(StringMatcher.CONTAINING)
-				);
-		
-		return repository.findAll(example);
+	public List<LancamentoResumo> buscar(Lancamento lancamentoFiltro, CursorLancamento aPartirDe, int limite) {
+		Objects.requireNonNull(lancamentoFiltro.getUsuario());
+		return repository.buscarPagina(lancamentoFiltro, aPartirDe, limite);
+	}
+
+	@Override
+	@Transactional (readOnly = true)
+	public void exportar(Long idUsuario, Consumer<Lancamento> consumidor) {
+		try (Stream<Lancamento> lancamentos = repository.streamPorUsuario(idUsuario)) {
+			lancamentos.forEach(lancamento -> {
+				consumidor.accept(lancamento);
+				repository.desanexar(lancamento);
+			});
+		}
 	}
 
 	@Override
@@ -74,6 +261,69 @@ public class LancamentoServiceImpl implements LancamentoService {
 		
 	}
 
+	@Override
+	@Transactional
+	public boolean atualizarStatus(Long id, Long idUsuario, StatusLancamento status) {
+		Objects.requireNonNull(idUsuario);
+		Objects.requireNonNull(status);
+		for(int tentativa = 1; ; tentativa++) {
+			//o status anterior é necessario para mover o lancamento entre grupos do resumo
+			Optional<MovimentoLancamento> anterior = movimentoDoUsuario(id, idUsuario);
+			if(!anterior.isPresent()) {
+				return false;
+			}
+			validarAnoAtivo(anterior.get().getAno());
+			if(repository.atualizarStatus(id, anterior.get().getAno(), anterior.get().getVersao(), status) == 1) {
+				saldoRepository.incrementarVersao(anterior.get().getIdUsuario());
+				ResumoMensal removido = resumo(anterior.get(), anterior.get().getValor().negativo(), -1);
+				if(removido.getStatus() != status) {
+					movimentarResumo(removido);
+					movimentarResumo(resumo(anterior.get(), anterior.get().getValor(), 1).toBuilder().status(status).build());
+				}
+				return true;
+			}
+			validarTentativa(id, tentativa);
+		}
+	}
+
+	@Override
+	@Transactional
+	public int atualizarStatus(Lancamento filtro, Collection<Long> ids, StatusLancamento status) {
+		Objects.requireNonNull(filtro.getUsuario());
+		Objects.requireNonNull(status);
+		//trava antes as linhas que vao mudar: os grupos lidos (com o status que ainda tem) e o update
+		//ficam restritos a elas, entao nenhuma escrita concorrente entra ou sai do conjunto entre os dois.
+		//Lancamentos de anos arquivados nao mudam
+		int ultimoArquivado = anoArquivado();
+		List<Long> travados = repository.travarParaAtualizarStatus(filtro, ids, status, ultimoArquivado);
+		if(travados.isEmpty()) {
+			return 0;
+		}
+		List<ResumoMensal> grupos = new ArrayList<>();
+		int atualizados = 0;
+		for(int inicio = 0; inicio < travados.size(); inicio += LOTE_ATUALIZACAO_STATUS) {
+			List<Long> lote = travados.subList(inicio, Math.min(inicio + LOTE_ATUALIZACAO_STATUS, travados.size()));
+			grupos.addAll(repository.obterResumosParaAtualizarStatus(filtro, lote, status, ultimoArquivado));
+			atualizados += repository.atualizarStatus(filtro, lote, status, ultimoArquivado);
+		}
+		saldoRepository.incrementarVersao(filtro.getUsuario().getId());
+		Map<ResumoMensalId, ResumoMensal> deltas = new LinkedHashMap<>();
+		for(ResumoMensal grupo : grupos) {
+			ResumoMensal removido = grupo.toBuilder()
+					.status(statusResumo(grupo.getStatus()))
+					.total(grupo.getTotal().negativo())
+					.quantidade(-grupo.getQuantidade())
+					.build();
+			ResumoMensal incluido = grupo.toBuilder().status(status).build();
+			deltas.merge(removido.getChave(), removido, LancamentoServiceImpl::somar);
+			deltas.merge(incluido.getChave(), incluido, LancamentoServiceImpl::somar);
+		}
+		deltas.values().stream()
+			.filter(delta -> delta.getQuantidade() != 0 || delta.getTotal().signum() != 0)
+			.forEach(this::movimentarResumo);
+		return atualizados;
+	}
+
 	@Override
 	public void validar(Lancamento lancamento) {
 		
@@ -90,12 +340,14 @@ public class LancamentoServiceImpl implements LancamentoService {
 			throw new RegraNegocioException("Informe um Ano valido.");
 		}
 		
+		validarAnoAtivo(lancamento.getAno());
+		
 		if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
 			
 			throw new RegraNegocioException("Informe um Usuario.");
 		}
 		
-		if(lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1) {
+		if(lancamento.getValor() == null || lancamento.getValor().signum() <= 0) {
 			
 			throw new RegraNegocioException("Informe um Valor valido.");
 		}
@@ -107,22 +359,315 @@ public class LancamentoServiceImpl implements LancamentoService {
 	@Override
 	public Optional<Lancamento> obterPorId(Long id) {
 		
-		return repository.findById(id);
+		//a entidade sai do service e pode ser usada sem sessao aberta: o usuario vem junto
+		return repository.findComUsuarioById(id);
 	}
 
 	@Override
 	@Transactional(readOnly = true)
 	public BigDecimal obterSaldoPorUsuario(Long id) {
-		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.RECEITA);
-		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.DESPESA);
+		Optional<SaldoUsuario> saldo = saldoRepository.findById(id);
+		if(saldo.isPresent()) {
+			return saldo.get().getSaldo();
+		}
+		//usuario ainda sem saldo consolidado (historico anterior a tabela saldo_usuario)
+		List<TotalPorTipo> totais = totaisPorTipo(id);
+		return TotalPorTipo.somar(totais, TipoLancamento.RECEITA)
+				.menos(TotalPorTipo.somar(totais, TipoLancamento.DESPESA)).paraBigDecimal();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Long> obterVersao(Long idUsuario) {
+		return saldoRepository.obterVersao(idUsuario);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<SaldoMensal> obterSaldoMensalPorUsuario(Long id, Integer ano) {
+		List<TotalMensalPorTipo> totais = repository.obterTotaisMensaisPorTipo(id, ano);
 		
-		if(receitas == null ) {
-			receitas = BigDecimal.ZERO;
+		//receitas e despesas de cada mes em centavos
+		long[][] meses = new long[12][2];
+		for(TotalMensalPorTipo total : totais) {
+			if(total.getTotal() != null) {
+				acumular(meses[total.getMes() - 1], total.getTipo(), total.getTotal().getCentavos());
+			}
 		}
-		if(despesas == null ) {
-			despesas = BigDecimal.ZERO;
+		List<SaldoMensal> serie = new ArrayList<>(12);
+		for(int mes = 1; mes <= 12; mes++) {
+			long[] movimento = meses[mes - 1];
+			serie.add(SaldoMensal.builder()
+					.mes(mes)
+					.receitas(Dinheiro.deCentavos(movimento[RECEITAS]))
+					.despesas(Dinheiro.deCentavos(movimento[DESPESAS]))
+					.saldo(Dinheiro.deCentavos(movimento[RECEITAS] - movimento[DESPESAS]))
+					.build());
 		}
-		return receitas.subtract(despesas);
+		return serie;
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<ResumoMensal> obterResumoMensal(Long idUsuario, YearMonth de, YearMonth ate) {
+		return resumoRepository.obterPorPeriodo(idUsuario, de.getYear(), de.getMonthValue(), ate.getYear(), ate.getMonthValue());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<SaldoAcumulado> obterSerieSaldo(Long idUsuario, YearMonth de, YearMonth ate, StatusLancamento status,
+			Granularidade granularidade) {
+		boolean porMes = granularidade == Granularidade.MES;
+		YearMonth inicio = porMes ? de : YearMonth.of(de.getYear(), 1);
+		YearMonth fim = porMes ? ate : YearMonth.of(ate.getYear(), 12);
+		
+		SerieSaldo serie = new SerieSaldo(porMes, inicio, fim);
+		resumoRepository.percorrerSaldoAcumulado(idUsuario, inicio, fim, status, granularidade, serie);
+		return serie.concluir();
+	}
+
+	@Override
+	@Transactional
+	public void reconstruirSaldo(Long idUsuario) {
+		SaldoUsuario consolidado = saldoConsolidado(idUsuario);
+		
+		SaldoUsuario saldo = saldoRepository.findById(idUsuario).orElseGet(() -> novoSaldo(idUsuario));
+		saldo.setReceitas(consolidado.getReceitas());
+		saldo.setDespesas(consolidado.getDespesas());
+		saldo.setSaldo(consolidado.getSaldo());
+		saldoRepository.save(saldo);
+	}
+
+	@Override
+	@Transactional
+	public int reconstruirSaldos() {
+		Map<Long, SaldoUsuario> saldos = new HashMap<>();
+		for(SaldoUsuario saldo : saldoRepository.findAll()) {
+			saldos.put(saldo.getIdUsuario(), saldo);
+		}
+		
+		//receitas e despesas de cada usuario somadas em centavos, convertidas uma vez no fim
+		Map<Long, long[]> movimentos = new HashMap<>();
+		saldos.keySet().forEach(idUsuario -> movimentos.put(idUsuario, new long[2]));
+		List<TotalPorUsuario> totais = new ArrayList<>(repository.obterTotaisPorUsuarioETipo(anoArquivado()));
+		totais.addAll(totalArquivadoRepository.obterTotaisPorUsuarioETipo());
+		for(TotalPorUsuario total : totais) {
+			long[] movimento = movimentos.computeIfAbsent(total.getIdUsuario(), id -> new long[2]);
+			if(total.getTotal() != null) {
+				acumular(movimento, total.getTipo(), total.getTotal().getCentavos());
+			}
+		}
+		
+		movimentos.forEach((idUsuario, movimento) -> {
+			SaldoUsuario saldo = saldos.computeIfAbsent(idUsuario, this::novoSaldo);
+			saldo.setReceitas(BigDecimal.valueOf(movimento[RECEITAS], 2));
+			saldo.setDespesas(BigDecimal.valueOf(movimento[DESPESAS], 2));
+			saldo.setSaldo(BigDecimal.valueOf(movimento[RECEITAS] - movimento[DESPESAS], 2));
+		});
+		saldoRepository.saveAll(saldos.values());
+		return saldos.size();
+	}
+
+	@Override
+	@Transactional
+	public List<Integer> arquivarAnosAte(Integer ano) {
+		List<Integer> arquivados = new ArrayList<>();
+		for(Integer candidato : repository.obterAnosAte(ano)) {
+			if(anoArquivadoRepository.existsById(candidato)) {
+				continue;
+			}
+			//protege antes de totalizar: uma escrita concorrente no ano espera o commit ou falha
+			repository.protegerParticao(candidato);
+			totalArquivadoRepository.totalizar(candidato);
+			anoArquivadoRepository.save(new AnoArquivado(candidato, LocalDateTime.now()));
+			arquivados.add(candidato);
+		}
+		//o proprio limite marca o corte, mesmo sem lancamentos nele
+		if(!anoArquivadoRepository.existsById(ano)) {
+			anoArquivadoRepository.save(new AnoArquivado(ano, LocalDateTime.now()));
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				carregarAnoArquivado();
+			}
+		});
+		return arquivados;
+	}
+
+	@Override
+	@Transactional
+	public void prepararParticao(Integer ano) {
+		repository.prepararParticao(ano);
+	}
+
+	//lancamentos dos anos ativos somados aos totais ja calculados dos anos arquivados
+	private List<TotalPorTipo> totaisPorTipo(Long idUsuario) {
+		List<TotalPorTipo> totais = new ArrayList<>(repository.obterTotaisPorTipo(idUsuario, anoArquivado()));
+		totais.addAll(totalArquivadoRepository.obterTotaisPorTipo(idUsuario));
+		return totais;
+	}
+
+	private int anoArquivado() {
+		if(System.nanoTime() - anoArquivadoLidoEm > RECARGA_ANO_ARQUIVADO) {
+			carregarAnoArquivado();
+		}
+		return anoArquivado;
+	}
+
+	//lancamento de outro usuario = inexistente. A versao conferida no update ou delete garante que o dono
+	//nao mudou entre esta leitura e a escrita
+	private Optional<MovimentoLancamento> movimentoDoUsuario(Long id, Long idUsuario) {
+		return repository.obterMovimentoPorId(id).filter(movimento -> movimento.getIdUsuario().equals(idUsuario));
+	}
+
+	//o update ou delete nao achou a versao lida: outra transaçao gravou o lancamento nesse meio tempo.
+	//Em READ COMMITTED a proxima leitura ja ve o que ela confirmou (no PostgreSQL o update esperou o commit dela)
+	private void validarTentativa(Long id, int tentativa) {
+		if(tentativa >= tentativasConflito) {
+			throw new ConflitoVersaoException(id);
+		}
+	}
+
+	private void validarAnoAtivo(Integer ano) {
+		if(ano != null && ano <= anoArquivado()) {
+			throw new RegraNegocioException("O ano " + ano + " esta arquivado: seus lancamentos sao somente leitura.");
+		}
+	}
+
+	private SaldoUsuario saldoConsolidado(Long idUsuario) {
+		List<TotalPorTipo> totais = totaisPorTipo(idUsuario);
+		Dinheiro receitas = TotalPorTipo.somar(totais, TipoLancamento.RECEITA);
+		Dinheiro despesas = TotalPorTipo.somar(totais, TipoLancamento.DESPESA);
+		return SaldoUsuario.builder()
+				.idUsuario(idUsuario)
+				.receitas(receitas.paraBigDecimal())
+				.despesas(despesas.paraBigDecimal())
+				.saldo(receitas.menos(despesas).paraBigDecimal())
+				.build();
+	}
+
+	private SaldoUsuario novoSaldo(Long idUsuario) {
+		return SaldoUsuario.builder()
+				.idUsuario(idUsuario)
+				.receitas(BigDecimal.ZERO)
+				.despesas(BigDecimal.ZERO)
+				.saldo(BigDecimal.ZERO)
+				.build();
+	}
+
+	private void estornarSaldo(MovimentoLancamento movimento) {
+		movimentarSaldo(movimento.getIdUsuario(), movimento.getTipo(), movimento.getValor().negativo());
+	}
+
+	private void movimentarSaldo(Long idUsuario, TipoLancamento tipo, Dinheiro valor) {
+		movimentarSaldo(idUsuario, receitas(tipo, valor), despesas(tipo, valor));
+	}
+
+	private void movimentarSaldo(Long idUsuario, Dinheiro receitas, Dinheiro despesas) {
+		int atualizados = saldoRepository.acumular(idUsuario, receitas.paraBigDecimal(), despesas.paraBigDecimal());
+		if(atualizados == 0) {
+			//primeira movimentaçao desde a criaçao da tabela: consolida o historico completo,
+			//que ja inclui a gravaçao corrente. Se outra primeira escrita do usuario inserir o saldo
+			//antes desta, ele ja tem o historico e so recebe o delta
+			saldoRepository.inserirOuAcumular(saldoConsolidado(idUsuario), receitas.paraBigDecimal(), despesas.paraBigDecimal());
+		}
+	}
+
+	private void movimentarResumo(ResumoMensal delta) {
+		if(resumoRepository.acumular(delta) == 0) {
+			//grupo novo: so pode nascer de uma inclusao, o delta é o proprio grupo. Outra inclusao
+			//concorrente no mesmo grupo pode inseri-lo antes: entao o delta é somado a ele
+			resumoRepository.inserirOuAcumular(delta);
+		}
+	}
+
+	private static ResumoMensal resumo(Lancamento lancamento, Dinheiro total, long quantidade) {
+		return new ResumoMensal(lancamento.getUsuario().getId(), lancamento.getAno(), lancamento.getMes(),
+				lancamento.getTipo(), statusResumo(lancamento.getStatus()), total, quantidade);
+	}
+
+	private static ResumoMensal resumo(MovimentoLancamento movimento, Dinheiro total, long quantidade) {
+		return new ResumoMensal(movimento.getIdUsuario(), movimento.getAno(), movimento.getMes(),
+				movimento.getTipo(), statusResumo(movimento.getStatus()), total, quantidade);
+	}
+
+	private static ResumoMensal somar(ResumoMensal um, ResumoMensal outro) {
+		return um.toBuilder()
+				.total(um.getTotal().mais(outro.getTotal()))
+				.quantidade(um.getQuantidade() + outro.getQuantidade())
+				.build();
+	}
+
+	//lancamentos antigos podem nao ter status: contam como pendentes, como na migraçao V6
+	private static StatusLancamento statusResumo(StatusLancamento status) {
+		return status != null ? status : StatusLancamento.PENDENTE;
+	}
+
+	private static Dinheiro receitas(TipoLancamento tipo, Dinheiro valor) {
+		return tipo == TipoLancamento.RECEITA ? valor : Dinheiro.ZERO;
+	}
+
+	private static Dinheiro despesas(TipoLancamento tipo, Dinheiro valor) {
+		return tipo == TipoLancamento.DESPESA ? valor : Dinheiro.ZERO;
+	}
+
+	private static void acumular(long[] movimento, TipoLancamento tipo, long centavos) {
+		if(tipo == TipoLancamento.RECEITA) {
+			movimento[RECEITAS] = Math.addExact(movimento[RECEITAS], centavos);
+		} else if(tipo == TipoLancamento.DESPESA) {
+			movimento[DESPESAS] = Math.addExact(movimento[DESPESAS], centavos);
+		}
+	}
+
+
+	//recebe os periodos com movimento em ordem e completa os demais com o saldo do anterior;
+	//um ponto antes do inicio so traz o saldo de abertura
+	private static class SerieSaldo implements Consumer<SaldoAcumulado> {
+		
+		private final boolean porMes;
+		private final int fim;
+		private final List<SaldoAcumulado> pontos = new ArrayList<>();
+		
+		private int proximo;
+		private Dinheiro saldo = Dinheiro.ZERO;
+		
+		SerieSaldo(boolean porMes, YearMonth inicio, YearMonth fim) {
+			this.porMes = porMes;
+			this.proximo = indice(inicio);
+			this.fim = indice(fim);
+		}
+		
+		@Override
+		public void accept(SaldoAcumulado ponto) {
+			int periodo = ponto.getIndicePeriodo();
+			if(periodo >= proximo) {
+				completarAte(periodo);
+				pontos.add(ponto);
+				proximo = periodo + 1;
+			}
+			saldo = ponto.getSaldo();
+		}
+		
+		List<SaldoAcumulado> concluir() {
+			completarAte(fim + 1);
+			return pontos;
+		}
+		
+		private void completarAte(int periodo) {
+			for(; proximo < periodo; proximo++) {
+				pontos.add(SaldoAcumulado.builder()
+						.ano(porMes ? proximo / 12 : proximo)
+						.mes(porMes ? proximo % 12 + 1 : null)
+						.receitas(Dinheiro.ZERO)
+						.despesas(Dinheiro.ZERO)
+						.saldo(saldo)
+						.build());
+			}
+		}
+		
+		private int indice(YearMonth periodo) {
+			return porMes ? periodo.getYear() * 12 + periodo.getMonthValue() - 1 : periodo.getYear();
+		}
+	}
 }
@@ -0,0 +1,110 @@
+package com.dsousa.minhasfinancas.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.service.TokenService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Token no formato base64url("idUsuario:expiraEmSegundos") + "." + base64url(HMAC-SHA256 do conteudo).
+ * Nao guarda estado: qualquer instancia com a mesma chave valida o token sem consultar o banco.
+ */
+@Slf4j
+@Service
+public class TokenServiceImpl implements TokenService {
+	
+	static final String ALGORITMO = "HmacSHA256";
+	
+	private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+	
+	private final SecretKeySpec chave;
+	
+	private final long validadeSegundos;
+	
+	private final Clock relogio;
+	
+	@Autowired
+	public TokenServiceImpl(
+			@Value("${minhasfinancas.token.chave:}") String chave,
+			@Value("${minhasfinancas.token.validade-minutos:60}") long validadeMinutos) {
+		this(chave, validadeMinutos, Clock.systemUTC());
+	}
+	
+	public TokenServiceImpl(String chave, long validadeMinutos, Clock relogio) {
+		this.chave = new SecretKeySpec(bytesDaChave(chave), ALGORITMO);
+		this.validadeSegundos = validadeMinutos * 60;
+		this.relogio = relogio;
+	}
+
+	@Override
+	public String gerarToken(Usuario usuario) {
+		long expiraEm = relogio.instant().getEpochSecond() + validadeSegundos;
+		String conteudo = CODIFICADOR.encodeToString((usuario.getId() + ":" + expiraEm).getBytes(StandardCharsets.US_ASCII));
+		return conteudo + "." + CODIFICADOR.encodeToString(assinar(conteudo));
+	}
+
+	@Override
+	public Optional<Long> validarToken(String token) {
+		if(token == null) {
+			return Optional.empty();
+		}
+		int ponto = token.indexOf('.');
+		if(ponto < 1 || ponto != token.lastIndexOf('.')) {
+			return Optional.empty();
+		}
+		String conteudo = token.substring(0, ponto);
+		try {
+			byte[] assinatura = DECODIFICADOR.decode(token.substring(ponto + 1));
+			//comparaçao em tempo constante
+			if(!MessageDigest.isEqual(assinar(conteudo), assinatura)) {
+				return Optional.empty();
+			}
+			String[] campos = new String(DECODIFICADOR.decode(conteudo), StandardCharsets.US_ASCII).split(":");
+			if(campos.length != 2 || Long.parseLong(campos[1]) <= relogio.instant().getEpochSecond()) {
+				return Optional.empty();
+			}
+			return Optional.of(Long.valueOf(campos[0]));
+		} catch (IllegalArgumentException e) {
+			//base64 ou numeros mal formados
+			return Optional.empty();
+		}
+	}
+	
+	private byte[] assinar(String conteudo) {
+		try {
+			//Mac nao é thread-safe: uma instancia por chamada
+			Mac mac = Mac.getInstance(ALGORITMO);
+			mac.init(chave);
+			return mac.doFinal(conteudo.getBytes(StandardCharsets.US_ASCII));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] bytesDaChave(String chave) {
+		if(chave != null && !chave.trim().isEmpty()) {
+			return Base64.getDecoder().decode(chave.trim());
+		}
+		log.warn("minhasfinancas.token.chave nao configurada: usando chave aleatoria; "
+				+ "os tokens deixam de valer ao reiniciar e nao sao aceitos por outras instancias.");
+		byte[] aleatoria = new byte[32];
+		new SecureRandom().nextBytes(aleatoria);
+		return aleatoria;
+	}
+}
@@ -1,32 +1,53 @@
 package com.dsousa.minhasfinancas.service.impl;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.dsousa.minhasfinancas.exception.ErroAutenticacao;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
 import com.dsousa.minhasfinancas.service.UsuarioService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Service
-public class UsuarioServiceImpl implements UsuarioService {
+public class UsuarioServiceImpl implements UsuarioService, MeterBinder {
 
 	
 	private UsuarioRepository repository;
 	
+	//id -> usuario sem a senha: o caminho dos lancamentos so precisa de id, nome e email
+	private Cache<Long, Usuario> usuariosPorId;
+	
+	//email -> id, somente de emails que existem (validarEmail)
+	private Cache<String, Long> idsPorEmail;
+	
 	@Autowired
-	public UsuarioServiceImpl(UsuarioRepository repository) {
+	public UsuarioServiceImpl(UsuarioRepository repository,
+			@Value("${minhasfinancas.cache.usuario.tamanho-maximo:10000}") long tamanhoMaximo,
+			@Value("${minhasfinancas.cache.usuario.expiracao-minutos:10}") long expiracaoMinutos) {
 		super();
 		this.repository = repository;
+		this.usuariosPorId = novoCache(tamanhoMaximo, expiracaoMinutos);
+		this.idsPorEmail = novoCache(tamanhoMaximo, expiracaoMinutos);
 	}
 
 	@Override
 	public Usuario autenticar(String email, String senha) {
+		//a senha nunca fica em cache, entao a autenticaçao sempre confere na base
 		Optional<Usuario> usuario = repository.findByEmail(email);
 		
 		if(!usuario.isPresent()) {
@@ -35,6 +56,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 		if(!usuario.get().getSenha().equals(senha)) {
 			throw new ErroAutenticacao("Senha invalida.");
 		}
+		armazenar(usuario.get());
 		return usuario.get();
 	}
 
@@ -42,13 +64,18 @@ public class UsuarioServiceImpl implements UsuarioService {
 	@Transactional
 	public Usuario salvarUsuario(Usuario usuario) {
 		validarEmail(usuario.getEmail());
-		return repository.save(usuario);
+		//numa alteraçao o email anterior tambem sai do cache; o merge do save reaproveita esta leitura
+		String emailAnterior = usuario.getId() == null ? null
+				: repository.findById(usuario.getId()).map(Usuario::getEmail).orElse(null);
+		Usuario salvo = repository.save(usuario);
+		invalidarAposCommit(salvo.getId(), emailAnterior, salvo.getEmail());
+		return salvo;
 	}
 
 	@Override
 	public void validarEmail(String email) {
 		
-		boolean existe = repository.existsByEmail(email);
+		boolean existe = idsPorEmail.getIfPresent(email) != null || repository.existsByEmail(email);
 		
 		if(existe) {
 			throw new RegraNegocioException("Ja existe um usuario cadastrado com esse email.");
@@ -58,7 +85,79 @@ public class UsuarioServiceImpl implements UsuarioService {
 	@Override
 	public Optional<Usuario> obterPorId(Long id) {
 		
-		return repository.findById(id);
+		Usuario usuario = usuariosPorId.get(id, this::carregar);
+		//copia: quem chama pode alterar o objeto sem sujar o cache
+		return Optional.ofNullable(usuario).map(UsuarioServiceImpl::semSenha);
+	}
+
+	@Override
+	public Usuario obterReferencia(Long id) {
+		
+		return repository.getOne(id);
+	}
+	
+	//acertos, falhas e remoçoes dos dois caches (cache.gets, cache.evictions... com a tag cache) no Actuator
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, usuariosPorId, "usuariosPorId");
+		CaffeineCacheMetrics.monitor(registry, idsPorEmail, "idsPorEmail");
+	}
+	
+	public void invalidarCache() {
+		usuariosPorId.invalidateAll();
+		idsPorEmail.invalidateAll();
+	}
+	
+	//id inexistente nao é guardado (retorno null)
+	private Usuario carregar(Long id) {
+		Optional<Usuario> usuario = repository.findById(id);
+		usuario.ifPresent(u -> idsPorEmail.put(u.getEmail(), u.getId()));
+		return usuario.map(UsuarioServiceImpl::semSenha).orElse(null);
+	}
+	
+	private void armazenar(Usuario usuario) {
+		usuariosPorId.put(usuario.getId(), semSenha(usuario));
+		idsPorEmail.put(usuario.getEmail(), usuario.getId());
+	}
+	
+	//pelas chaves: o email so pode apontar para o id pelo anterior ou pelo atual
+	private void invalidar(Long id, String emailAnterior, String email) {
+		usuariosPorId.invalidate(id);
+		if(emailAnterior != null) {
+			idsPorEmail.invalidate(emailAnterior);
+		}
+		if(email != null) {
+			idsPorEmail.invalidate(email);
+		}
+	}
+	
+	//invalida tambem depois do commit: uma leitura concorrente pode ter recolocado o estado antigo
+	private void invalidarAposCommit(Long id, String emailAnterior, String email) {
+		invalidar(id, emailAnterior, email);
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					invalidar(id, emailAnterior, email);
+				}
+			});
+		}
+	}
+	
+	private static Usuario semSenha(Usuario usuario) {
+		return Usuario.builder()
+				.id(usuario.getId())
+				.nome(usuario.getNome())
+				.email(usuario.getEmail())
+				.build();
+	}
+	
+	private static <K, V> Cache<K, V> novoCache(long tamanhoMaximo, long expiracaoMinutos) {
+		return Caffeine.newBuilder()
+				.maximumSize(tamanhoMaximo)
+				.expireAfterWrite(expiracaoMinutos, TimeUnit.MINUTES)
+				.recordStats()
+				.build();
 	}
 
 }
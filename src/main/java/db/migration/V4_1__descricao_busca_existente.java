@@ -0,0 +1,52 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+
+/**
+ * Preenche a descricao_busca (V4) dos lancamentos gravados antes dela. Em Java para normalizar
+ * exatamente como a aplicaçao ({@link Lancamento#normalizarParaBusca}): o unaccent do banco
+ * nao remove as mesmas marcas e a busca nao acharia esses lancamentos.
+ */
+public class V4_1__descricao_busca_existente extends BaseJavaMigration {
+	
+	static final int LOTE = 1000;
+	
+	@Override
+	public void migrate(Context context) throws SQLException {
+		preencher(context.getConnection());
+	}
+	
+	//devolve quantos lancamentos foram preenchidos
+	static int preencher(Connection conexao) throws SQLException {
+		int preenchidos = 0;
+		try (PreparedStatement consulta = conexao.prepareStatement(
+					"select id, descricao from financas.lancamento where descricao_busca is null and descricao is not null");
+				PreparedStatement atualizacao = conexao.prepareStatement(
+					"update financas.lancamento set descricao_busca = ? where id = ?")) {
+			//cursor no PostgreSQL (a migraçao roda em transaçao): a tabela nao é lida inteira para a memoria
+			consulta.setFetchSize(LOTE);
+			try (ResultSet linhas = consulta.executeQuery()) {
+				while(linhas.next()) {
+					atualizacao.setString(1, Lancamento.normalizarParaBusca(linhas.getString("descricao")));
+					atualizacao.setLong(2, linhas.getLong("id"));
+					atualizacao.addBatch();
+					if(++preenchidos % LOTE == 0) {
+						atualizacao.executeBatch();
+					}
+				}
+			}
+			if(preenchidos % LOTE != 0) {
+				atualizacao.executeBatch();
+			}
+		}
+		return preenchidos;
+	}
+}
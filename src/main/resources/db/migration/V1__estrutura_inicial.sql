@@ -0,0 +1,28 @@
+-- estrutura existente antes das migraçoes versionadas (o sql/schema.sql original, sem o CREATE DATABASE).
+-- Bases ja criadas pelo script entram com baseline na versao 1 (spring.flyway.baseline-on-migrate).
+
+CREATE SCHEMA IF NOT EXISTS financas;
+
+CREATE TABLE financas.usuario
+(
+  id bigserial NOT NULL PRIMARY KEY,
+  nome character varying(150),
+  email character varying(100),
+  senha character varying(20),
+  data_cadastro date default now()
+);
+
+CREATE TABLE financas.lancamento
+(
+  id bigserial NOT NULL PRIMARY KEY ,
+  descricao character varying(100) NOT NULL,
+  mes integer NOT NULL,
+  ano integer NOT NULL,
+  valor numeric(16,2),
+  tipo character varying(20),
+  status character varying(20),
+  id_usuario bigint REFERENCES financas.usuario (id),
+  data_cadastro date default now()
+);
+
+insert into financas.usuario(nome, email, senha, data_cadastro) values('usuario','usuario@email.com','senha', now());
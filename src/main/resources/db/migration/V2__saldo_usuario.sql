@@ -0,0 +1,11 @@
+-- saldo consolidado por usuario, mantido pelo LancamentoService na mesma transaçao que grava o lancamento.
+-- Sem carga aqui: a primeira escrita de cada usuario reconstroi o saldo a partir do historico
+-- (ou todos de uma vez com --reconstruir-saldos)
+CREATE TABLE financas.saldo_usuario
+(
+  id_usuario bigint NOT NULL PRIMARY KEY REFERENCES financas.usuario (id),
+  receitas numeric(16,2) NOT NULL default 0,
+  despesas numeric(16,2) NOT NULL default 0,
+  saldo numeric(16,2) NOT NULL default 0,
+  versao bigint NOT NULL default 0
+);
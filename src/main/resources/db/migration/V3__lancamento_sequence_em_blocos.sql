@@ -0,0 +1,2 @@
+-- ids de lancamento alocados em blocos de 50 (otimizador pooled do Hibernate, ver Lancamento.id)
+ALTER SEQUENCE financas.lancamento_id_seq INCREMENT BY 50;
@@ -0,0 +1,7 @@
+-- busca por descricao: like '%termo%' sobre a descricao normalizada (sem acentos, minusculas),
+-- atendido por indice trigram junto com o usuario
+ALTER TABLE financas.lancamento ADD COLUMN descricao_busca character varying(100);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+CREATE INDEX idx_lancamento_usuario_descricao_busca ON financas.lancamento USING gin (id_usuario, descricao_busca gin_trgm_ops);
@@ -0,0 +1,12 @@
+-- caminhos de acesso das consultas de LancamentoRepository e UsuarioRepository
+-- (conferidos por PlanoConsultaRepositoryTest)
+
+-- existsByEmail / findByEmail; tambem impede emails duplicados por concorrencia
+-- (falha se a base ja tiver duplicados: corrigir os dados antes de migrar)
+CREATE UNIQUE INDEX uk_usuario_email ON financas.usuario (email);
+
+-- obterTotaisPorTipo: sum(valor) group by tipo de um usuario, resolvido so pelo indice (index only scan)
+CREATE INDEX idx_lancamento_usuario_tipo_valor ON financas.lancamento (id_usuario, tipo, valor);
+
+-- obterTotaisMensaisPorTipo (usuario + ano), paginaçao por cursor e exportaçao (order by ano, mes, id)
+CREATE INDEX idx_lancamento_usuario_ano_mes_id ON financas.lancamento (id_usuario, ano, mes, id);
@@ -0,0 +1,21 @@
+-- totais por usuario, mes, tipo e status para o painel (GET /api/usuarios/{id}/resumo).
+-- Mantida por deltas no LancamentoService na mesma transaçao que grava o lancamento;
+-- a chave primaria atende tanto o update do delta quanto a consulta por periodo.
+CREATE TABLE financas.resumo_mensal
+(
+  id_usuario bigint NOT NULL REFERENCES financas.usuario (id),
+  ano integer NOT NULL,
+  mes integer NOT NULL,
+  tipo character varying(20) NOT NULL,
+  status character varying(20) NOT NULL,
+  total numeric(16,2) NOT NULL default 0,
+  quantidade bigint NOT NULL default 0,
+  PRIMARY KEY (id_usuario, ano, mes, tipo, status)
+);
+
+-- carga do historico; lancamentos sem status contam como PENDENTE, sem tipo ficam de fora
+INSERT INTO financas.resumo_mensal (id_usuario, ano, mes, tipo, status, total, quantidade)
+SELECT id_usuario, ano, mes, tipo, coalesce(status, 'PENDENTE'), coalesce(sum(valor), 0), count(*)
+  FROM financas.lancamento
+ WHERE id_usuario IS NOT NULL AND tipo IS NOT NULL
+ GROUP BY id_usuario, ano, mes, tipo, coalesce(status, 'PENDENTE');
@@ -0,0 +1,117 @@
+-- financas.lancamento particionada por ano (particionamento declarativo, PostgreSQL 11+).
+-- Consultas com o ano no where (ver LancamentoRepository) leem so as particoes dele; anos antigos,
+-- imutaveis depois de arquivados, deixam de disputar vacuum e manutençao de indices com os anos ativos.
+-- A chave primaria inclui o ano (exigencia do particionamento); os ids continuam vindo da mesma sequence.
+
+ALTER SEQUENCE financas.lancamento_id_seq OWNED BY NONE;
+ALTER TABLE financas.lancamento RENAME TO lancamento_heap;
+DROP INDEX financas.idx_lancamento_usuario_descricao_busca;
+DROP INDEX financas.idx_lancamento_usuario_tipo_valor;
+DROP INDEX financas.idx_lancamento_usuario_ano_mes_id;
+
+CREATE TABLE financas.lancamento
+(
+  id bigint NOT NULL DEFAULT nextval('financas.lancamento_id_seq'),
+  descricao character varying(100) NOT NULL,
+  descricao_busca character varying(100),
+  mes integer NOT NULL,
+  ano integer NOT NULL,
+  valor numeric(16,2),
+  tipo character varying(20),
+  status character varying(20),
+  id_usuario bigint REFERENCES financas.usuario (id),
+  data_cadastro date default now(),
+  PRIMARY KEY (id, ano)
+) PARTITION BY RANGE (ano);
+
+ALTER SEQUENCE financas.lancamento_id_seq OWNED BY financas.lancamento.id;
+
+-- anos sem particao propria (ex.: digitados muito a frente) caem aqui
+CREATE TABLE financas.lancamento_outros PARTITION OF financas.lancamento DEFAULT;
+
+-- cria a particao financas.lancamento_<ano>, trazendo as linhas do ano que estiverem na particao padrao.
+-- Chamada pelo ArquivamentoRunner para o ano seguinte; devolve false se a particao ja existia
+CREATE FUNCTION financas.criar_particao_lancamento(p_ano integer) RETURNS boolean AS $$
+BEGIN
+  IF to_regclass(format('financas.lancamento_%s', p_ano)) IS NOT NULL THEN
+    RETURN false;
+  END IF;
+  CREATE TEMP TABLE lancamento_movido AS SELECT * FROM financas.lancamento_outros WHERE ano = p_ano;
+  DELETE FROM financas.lancamento_outros WHERE ano = p_ano;
+  EXECUTE format('CREATE TABLE financas.%I PARTITION OF financas.lancamento FOR VALUES FROM (%s) TO (%s)',
+                 'lancamento_' || p_ano, p_ano, p_ano + 1);
+  INSERT INTO financas.lancamento SELECT * FROM lancamento_movido;
+  DROP TABLE lancamento_movido;
+  RETURN true;
+END
+$$ LANGUAGE plpgsql;
+
+-- uma particao por ano com lancamentos, mais o ano corrente e o seguinte
+DO $$
+DECLARE
+  v_ano integer;
+BEGIN
+  FOR v_ano IN
+    SELECT DISTINCT ano FROM financas.lancamento_heap
+    UNION SELECT extract(year FROM now())::integer
+    UNION SELECT extract(year FROM now())::integer + 1
+  LOOP
+    PERFORM financas.criar_particao_lancamento(v_ano);
+  END LOOP;
+END
+$$;
+
+INSERT INTO financas.lancamento (id, descricao, descricao_busca, mes, ano, valor, tipo, status, id_usuario, data_cadastro)
+SELECT id, descricao, descricao_busca, mes, ano, valor, tipo, status, id_usuario, data_cadastro
+  FROM financas.lancamento_heap;
+
+DROP TABLE financas.lancamento_heap;
+
+-- os mesmos caminhos de acesso, criados em cada particao. O INCLUDE (ano) mantem obterTotaisPorTipo
+-- (agora com ano > :anoArquivado) como index only scan
+CREATE INDEX idx_lancamento_usuario_descricao_busca ON financas.lancamento USING gin (id_usuario, descricao_busca gin_trgm_ops);
+CREATE INDEX idx_lancamento_usuario_tipo_valor ON financas.lancamento (id_usuario, tipo, valor) INCLUDE (ano);
+CREATE INDEX idx_lancamento_usuario_ano_mes_id ON financas.lancamento (id_usuario, ano, mes, id);
+
+ANALYZE financas.lancamento;
+
+-- arquivamento (LancamentoService.arquivarAnosAte): anos somente leitura e os totais deles por usuario e tipo
+CREATE TABLE financas.ano_arquivado
+(
+  ano integer NOT NULL PRIMARY KEY,
+  data_arquivamento timestamp NOT NULL default now()
+);
+
+CREATE TABLE financas.total_arquivado
+(
+  id_usuario bigint NOT NULL REFERENCES financas.usuario (id),
+  ano integer NOT NULL,
+  tipo character varying(20) NOT NULL,
+  total numeric(16,2) NOT NULL default 0,
+  quantidade bigint NOT NULL default 0,
+  PRIMARY KEY (id_usuario, ano, tipo)
+);
+
+CREATE FUNCTION financas.recusar_escrita_arquivada() RETURNS trigger AS $$
+BEGIN
+  RAISE EXCEPTION 'Particao % arquivada: lancamentos somente leitura', TG_TABLE_NAME
+    USING ERRCODE = 'read_only_sql_transaction';
+END
+$$ LANGUAGE plpgsql;
+
+-- bloqueia escritas na particao do ano (o CREATE TRIGGER ja segura as escritas concorrentes ate o commit)
+-- e desliga o autovacuum comum dela: sem escritas nao ha o que limpar (o anti-wraparound continua ativo)
+CREATE FUNCTION financas.proteger_particao_lancamento(p_ano integer) RETURNS boolean AS $$
+DECLARE
+  v_particao text := 'lancamento_' || p_ano;
+BEGIN
+  IF to_regclass('financas.' || v_particao) IS NULL THEN
+    RETURN false;
+  END IF;
+  EXECUTE format('DROP TRIGGER IF EXISTS somente_leitura ON financas.%I', v_particao);
+  EXECUTE format('CREATE TRIGGER somente_leitura BEFORE INSERT OR UPDATE OR DELETE ON financas.%I'
+                 ' FOR EACH ROW EXECUTE PROCEDURE financas.recusar_escrita_arquivada()', v_particao);
+  EXECUTE format('ALTER TABLE financas.%I SET (autovacuum_enabled = false)', v_particao);
+  RETURN true;
+END
+$$ LANGUAGE plpgsql;
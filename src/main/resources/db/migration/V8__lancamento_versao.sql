@@ -0,0 +1,4 @@
+-- controle de concorrencia otimista (@Version em Lancamento): cada update e delete confere a versao
+-- lida antes e a incrementa, assim duas alteraçoes concorrentes nao se sobrescrevem em silencio.
+-- Com default constante o PostgreSQL 11+ adiciona a coluna sem reescrever as particoes.
+ALTER TABLE financas.lancamento ADD COLUMN versao bigint NOT NULL DEFAULT 0;
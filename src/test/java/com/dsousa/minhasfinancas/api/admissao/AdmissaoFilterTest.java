@@ -0,0 +1,165 @@
+package com.dsousa.minhasfinancas.api.admissao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.dsousa.minhasfinancas.api.seguranca.AutenticacaoTokenFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AdmissaoFilterTest {
+
+	AtomicLong agora = new AtomicLong();
+
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	public void deveRecusarComRetryAfterAoEsgotarACotaDoUsuario() throws Exception {
+		//cenario
+		AdmissaoFilter filter = new AdmissaoFilter(new Cota(2, 1), new Cota(1, 1), 0, 100, registry, agora::get);
+
+		//execuçao e verificaçao
+		Assertions.assertThat(executar(filter, autenticada("POST", "/api/lancamentos", 1l)).getStatus()).isEqualTo(200);
+		Assertions.assertThat(executar(filter, autenticada("POST", "/api/lancamentos", 1l)).getStatus()).isEqualTo(200);
+		MockHttpServletResponse recusada = executar(filter, autenticada("POST", "/api/lancamentos", 1l));
+		Assertions.assertThat(recusada.getStatus()).isEqualTo(429);
+		Assertions.assertThat(recusada.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		Assertions.assertThat(recusada.getContentAsString()).isEqualTo(AdmissaoFilter.COTA_ESGOTADA);
+		Assertions.assertThat(registry.counter(AdmissaoFilter.METRICA, "motivo", "cota").count()).isEqualTo(1);
+
+		//outro usuario tem a propria cota; o primeiro volta a passar quando repoe um token
+		Assertions.assertThat(executar(filter, autenticada("POST", "/api/lancamentos", 2l)).getStatus()).isEqualTo(200);
+		agora.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		Assertions.assertThat(executar(filter, autenticada("POST", "/api/lancamentos", 1l)).getStatus()).isEqualTo(200);
+		Assertions.assertThat(executar(filter, autenticada("POST", "/api/lancamentos", 1l)).getStatus()).isEqualTo(429);
+	}
+
+	@Test
+	public void deveUsarCotaSeparadaNasRotasCustosas() throws Exception {
+		//cenario
+		AdmissaoFilter filter = new AdmissaoFilter(new Cota(10, 1), new Cota(1, 0.1), 0, 100, registry, agora::get);
+
+		//execuçao e verificaçao
+		Assertions.assertThat(executar(filter, autenticada("GET", "/api/lancamentos", 1l)).getStatus()).isEqualTo(200);
+		MockHttpServletResponse recusada = executar(filter, autenticada("GET", "/api/lancamentos/export", 1l));
+		Assertions.assertThat(recusada.getStatus()).isEqualTo(429);
+		Assertions.assertThat(recusada.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+		Assertions.assertThat(executar(filter, autenticada("PUT", "/api/lancamentos/5", 1l)).getStatus()).isEqualTo(200);
+
+		//as rotas de saldo tambem sao custosas e contam pelo usuario autenticado
+		agora.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		Assertions.assertThat(executar(filter, autenticada("GET", "/api/usuarios/1/saldo/mensal", 1l)).getStatus()).isEqualTo(200);
+		Assertions.assertThat(executar(filter, autenticada("GET", "/api/usuarios/1/saldo", 1l)).getStatus()).isEqualTo(429);
+		Assertions.assertThat(executar(filter, autenticada("GET", "/api/usuarios/1/resumo", 1l)).getStatus()).isEqualTo(200);
+		Assertions.assertThat(executar(filter, autenticada("GET", "/api/usuarios/2/saldo", 2l)).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	public void deveContarPeloEnderecoDeOrigemSemAutenticacaoMesmoComOutroIdNaRota() throws Exception {
+		//cenario
+		AdmissaoFilter filter = new AdmissaoFilter(new Cota(10, 1), new Cota(1, 0.1), 0, 100, registry, agora::get);
+
+		//execuçao e verificaçao: trocar o id da rota ou do parametro nao da uma cota nova
+		Assertions.assertThat(executar(filter, new MockHttpServletRequest("GET", "/api/usuarios/1/saldo")).getStatus()).isEqualTo(200);
+		Assertions.assertThat(executar(filter, new MockHttpServletRequest("GET", "/api/usuarios/2/saldo")).getStatus()).isEqualTo(429);
+		MockHttpServletRequest comParametro = new MockHttpServletRequest("GET", "/api/lancamentos");
+		comParametro.setParameter("usuario", "3");
+		Assertions.assertThat(executar(filter, comParametro).getStatus()).isEqualTo(429);
+		MockHttpServletRequest outroEndereco = new MockHttpServletRequest("GET", "/api/usuarios/1/saldo");
+		outroEndereco.setRemoteAddr("10.0.0.2");
+		Assertions.assertThat(executar(filter, outroEndereco).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	public void deveLimitarOsBaldesGuardadosEExpirarOsQueJaEncheram() throws Exception {
+		//cenario: baldes enchem em ate 10 s
+		AdmissaoFilter filter = new AdmissaoFilter(new Cota(10, 1), new Cota(1, 0.1), 0, 5, registry, agora::get);
+
+		//execuçao
+		for(long idUsuario = 1; idUsuario <= 50; idUsuario++) {
+			executar(filter, autenticada("POST", "/api/lancamentos", idUsuario));
+		}
+
+		//verificaçao
+		Assertions.assertThat(filter.chaves()).isLessThanOrEqualTo(5);
+		agora.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		Assertions.assertThat(filter.chaves()).isZero();
+	}
+
+	@Test
+	public void deveRecusarAcimaDaConcorrenciaMaximaELiberarAVagaAoFinal() throws Exception {
+		//cenario
+		AdmissaoFilter filter = new AdmissaoFilter(new Cota(10, 1), new Cota(10, 1), 1, 100, registry, agora::get);
+		MockHttpServletResponse concorrente = new MockHttpServletResponse();
+		//a segunda chega enquanto a primeira ainda esta na cadeia
+		MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public void service(ServletRequest request, ServletResponse response) {
+				try {
+					filter.doFilter(autenticada("POST", "/api/lancamentos", 2l), concorrente, new MockFilterChain());
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+
+		//execuçao
+		MockHttpServletResponse primeira = new MockHttpServletResponse();
+		filter.doFilter(autenticada("POST", "/api/lancamentos", 1l), primeira, chain);
+
+		//verificaçao
+		Assertions.assertThat(primeira.getStatus()).isEqualTo(200);
+		Assertions.assertThat(concorrente.getStatus()).isEqualTo(429);
+		Assertions.assertThat(concorrente.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		Assertions.assertThat(registry.counter(AdmissaoFilter.METRICA, "motivo", "concorrencia").count()).isEqualTo(1);
+		Assertions.assertThat(executar(filter, autenticada("POST", "/api/lancamentos", 2l)).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	public void deveManterAVagaAteOFimDeUmaRequisicaoAssincrona() throws Exception {
+		//cenario
+		AdmissaoFilter filter = new AdmissaoFilter(new Cota(10, 1), new Cota(10, 1), 1, 100, registry, agora::get);
+		MockHttpServletRequest exportacao = autenticada("GET", "/api/lancamentos/export", 1l);
+		exportacao.setAsyncSupported(true);
+		MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public void service(ServletRequest request, ServletResponse response) {
+				request.startAsync();
+			}
+		});
+
+		//execuçao
+		filter.doFilter(exportacao, new MockHttpServletResponse(), chain);
+
+		//verificaçao
+		Assertions.assertThat(executar(filter, autenticada("POST", "/api/lancamentos", 2l)).getStatus()).isEqualTo(429);
+		((MockAsyncContext) exportacao.getAsyncContext()).complete();
+		Assertions.assertThat(executar(filter, autenticada("POST", "/api/lancamentos", 2l)).getStatus()).isEqualTo(200);
+	}
+
+	private static MockHttpServletRequest autenticada(String metodo, String caminho, Long idUsuario) {
+		MockHttpServletRequest request = new MockHttpServletRequest(metodo, caminho);
+		request.setAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, idUsuario);
+		return request;
+	}
+
+	private static MockHttpServletResponse executar(AdmissaoFilter filter, MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
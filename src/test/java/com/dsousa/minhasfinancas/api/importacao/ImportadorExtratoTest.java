@@ -0,0 +1,60 @@
+package com.dsousa.minhasfinancas.api.importacao;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.dsousa.minhasfinancas.api.dto.ResultadoImportacaoDTO;
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+public class ImportadorExtratoTest {
+	
+	LancamentoService service = Mockito.mock(LancamentoService.class);
+	
+	ImportadorExtrato importador = new ImportadorExtrato(service, 2);
+
+	@Test
+	public void deveGravarEmLotesReportandoOsErrosPelaLinhaDoArquivo() throws Exception {
+		//cenario
+		String csv = "descricao,mes,ano,valor,tipo\n"
+				+ "salario,1,2019,10,RECEITA\n"
+				+ "aluguel,1,2019,x,DESPESA\n"
+				+ "luz,1,2019,0,DESPESA\n"
+				+ "agua,1,2019,5,OUTRO\n"
+				+ "gas,1,2019,5,DESPESA\n";
+		List<Integer> tamanhosDosLotes = new ArrayList<>();
+		Mockito.when(service.salvarLote(Mockito.anyList())).thenAnswer(invocacao -> {
+			List<Lancamento> lote = invocacao.getArgument(0);
+			tamanhosDosLotes.add(lote.size());
+			//o segundo item do primeiro lote é a linha 4 (luz)
+			return tamanhosDosLotes.size() == 1 
+					? Collections.singletonMap(1, "Informe um Valor valido.") : Collections.emptyMap();
+		});
+		LeitorExtrato leitor = LeitorExtrato.de(FormatoImportacao.CSV, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+		
+		//execuçao
+		ResultadoImportacaoDTO resultado = importador.importar(leitor, dto -> {
+			if("OUTRO".equals(dto.getTipo())) {
+				throw new RegraNegocioException("Informe um Tipo e um Status de Lancamento validos.");
+			}
+			return new Lancamento();
+		});
+		
+		//verificaçao
+		Assertions.assertThat(tamanhosDosLotes).containsExactly(2, 1);
+		Assertions.assertThat(resultado.getLidos()).isEqualTo(5);
+		Assertions.assertThat(resultado.getSalvos()).isEqualTo(2);
+		Assertions.assertThat(resultado.getRejeitados()).isEqualTo(3);
+		Assertions.assertThat(resultado.getLotes()).isEqualTo(2);
+		Assertions.assertThat(resultado.getErros()).extracting("indice").containsExactly(3, 4, 5);
+		Assertions.assertThat(resultado.getErros().get(1).getMensagem()).isEqualTo("Informe um Valor valido.");
+	}
+}
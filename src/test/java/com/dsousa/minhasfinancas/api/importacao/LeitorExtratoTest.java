@@ -0,0 +1,94 @@
+package com.dsousa.minhasfinancas.api.importacao;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+public class LeitorExtratoTest {
+
+	@Test
+	public void deveLerUmCsvDeBancoComSinalNoValor() throws Exception {
+		//cenario
+		String csv = "data;descricao;valor\n"
+				+ "15/01/2019;Salario;1.500,00\n"
+				+ "\n"
+				+ "20/02/2019;\"Conta; \"\"luz\"\"\";-89,90\n";
+		
+		//execuçao
+		List<LinhaExtrato> linhas = ler(FormatoImportacao.CSV, csv);
+		
+		//verificaçao
+		Assertions.assertThat(linhas).hasSize(2);
+		Assertions.assertThat(linhas.get(0).getLinha()).isEqualTo(2);
+		Assertions.assertThat(linhas.get(0).getLancamento().getValor()).isEqualByComparingTo(new BigDecimal("1500.00"));
+		Assertions.assertThat(linhas.get(0).getLancamento().getTipo()).isEqualTo("RECEITA");
+		Assertions.assertThat(linhas.get(0).getLancamento().getMes()).isEqualTo(1);
+		Assertions.assertThat(linhas.get(1).getLinha()).isEqualTo(4);
+		Assertions.assertThat(linhas.get(1).getLancamento().getDescricao()).isEqualTo("Conta; \"luz\"");
+		Assertions.assertThat(linhas.get(1).getLancamento().getValor()).isEqualByComparingTo(new BigDecimal("89.90"));
+		Assertions.assertThat(linhas.get(1).getLancamento().getTipo()).isEqualTo("DESPESA");
+		Assertions.assertThat(linhas.get(1).getLancamento().getAno()).isEqualTo(2019);
+	}
+	
+	@Test
+	public void deveLerOCsvDaExportacaoEReportarRegistrosInvalidos() throws Exception {
+		//cenario
+		String csv = "id,descricao,mes,ano,valor,tipo,status,usuario,data_cadastro\n"
+				+ "1,\"conta\nde luz\",1,2019,10,DESPESA,PENDENTE,1,2019-01-01\n"
+				+ "2,aluguel,2,2019,abc,DESPESA,PENDENTE,1,2019-01-01\n"
+				+ "3,mercado,,2019,10,DESPESA,PENDENTE,1,2019-01-01\n";
+		
+		//execuçao
+		List<LinhaExtrato> linhas = ler(FormatoImportacao.CSV, csv);
+		
+		//verificaçao
+		Assertions.assertThat(linhas).hasSize(3);
+		Assertions.assertThat(linhas.get(0).getLancamento().getDescricao()).isEqualTo("conta\nde luz");
+		Assertions.assertThat(linhas.get(0).getLancamento().getTipo()).isEqualTo("DESPESA");
+		Assertions.assertThat(linhas.get(1).getLinha()).isEqualTo(4);
+		Assertions.assertThat(linhas.get(1).getErro()).isEqualTo("Valor ou data em formato invalido.");
+		Assertions.assertThat(linhas.get(2).getLinha()).isEqualTo(5);
+		Assertions.assertThat(linhas.get(2).getErro()).isEqualTo("Informe a data ou o mes e o ano do lancamento.");
+	}
+	
+	@Test
+	public void deveLerAsTransacoesDeUmOfx() throws Exception {
+		//cenario
+		String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX>\n<BANKMSGSRSV1><STMTTRNRS><STMTRS>\n<BANKTRANLIST>\n"
+				+ "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20190305120000[-3:BRT]\n<TRNAMT>-42.50\n<MEMO>Padaria &amp; cafe\n</STMTTRN>\n"
+				+ "<STMTTRN><TRNTYPE>CREDIT</TRNTYPE><DTPOSTED>20190310</DTPOSTED><TRNAMT>100.00</TRNAMT><NAME>Pix</NAME></STMTTRN>\n"
+				+ "<STMTTRN>\n<TRNTYPE>DEBIT\n<MEMO>sem valor\n</STMTTRN>\n"
+				+ "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+		
+		//execuçao
+		List<LinhaExtrato> linhas = ler(FormatoImportacao.OFX, ofx);
+		
+		//verificaçao
+		Assertions.assertThat(linhas).hasSize(3);
+		Assertions.assertThat(linhas.get(0).getLinha()).isEqualTo(7);
+		Assertions.assertThat(linhas.get(0).getLancamento().getDescricao()).isEqualTo("Padaria & cafe");
+		Assertions.assertThat(linhas.get(0).getLancamento().getValor()).isEqualByComparingTo(new BigDecimal("42.50"));
+		Assertions.assertThat(linhas.get(0).getLancamento().getTipo()).isEqualTo("DESPESA");
+		Assertions.assertThat(linhas.get(0).getLancamento().getMes()).isEqualTo(3);
+		Assertions.assertThat(linhas.get(1).getLancamento().getDescricao()).isEqualTo("Pix");
+		Assertions.assertThat(linhas.get(1).getLancamento().getTipo()).isEqualTo("RECEITA");
+		Assertions.assertThat(linhas.get(2).getErro()).isEqualTo("Transaçao sem valor ou data.");
+	}
+	
+	private static List<LinhaExtrato> ler(FormatoImportacao formato, String conteudo) throws IOException {
+		List<LinhaExtrato> linhas = new ArrayList<>();
+		try (LeitorExtrato leitor = LeitorExtrato.de(formato, new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8)))) {
+			LinhaExtrato linha;
+			while((linha = leitor.proxima()) != null) {
+				linhas.add(linha);
+			}
+		}
+		return linhas;
+	}
+}
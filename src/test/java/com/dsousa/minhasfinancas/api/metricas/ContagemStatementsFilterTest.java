@@ -0,0 +1,52 @@
+package com.dsousa.minhasfinancas.api.metricas;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.dsousa.minhasfinancas.model.repository.ContadorStatements;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ContagemStatementsFilterTest {
+	
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	
+	ContagemStatementsFilter filter = new ContagemStatementsFilter(registry);
+
+	@Test
+	public void deveRegistrarOsStatementsDoRequestPeloPadraoDaRota() throws Exception {
+		//cenario
+		ContadorStatements inspector = new ContadorStatements();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lancamentos/1");
+		MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) {
+				req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/lancamentos/{id}");
+				inspector.inspect("select 1");
+				inspector.inspect("select 2");
+			}
+		});
+		
+		//execuçao
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		
+		//verificaçao
+		DistributionSummary resumo = registry.get(ContagemStatementsFilter.METRICA)
+				.tag("uri", "/api/lancamentos/{id}").tag("method", "GET").summary();
+		Assertions.assertThat(resumo.count()).isEqualTo(1);
+		Assertions.assertThat(resumo.totalAmount()).isEqualTo(2);
+		//fora do request nada é contado
+		inspector.inspect("select 3");
+		Assertions.assertThat(ContadorStatements.encerrar()).isEqualTo(0);
+	}
+}
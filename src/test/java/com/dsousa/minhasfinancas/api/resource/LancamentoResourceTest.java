@@ -0,0 +1,376 @@
+package com.dsousa.minhasfinancas.api.resource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.dsousa.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.dsousa.minhasfinancas.api.dto.LancamentoDTO;
+import com.dsousa.minhasfinancas.api.seguranca.AutenticacaoTokenFilter;
+import com.dsousa.minhasfinancas.exception.ConflitoVersaoException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.CursorLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.UsuarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = LancamentoResource.class)
+@AutoConfigureMockMvc
+public class LancamentoResourceTest {
+
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	LancamentoService service;
+	
+	@MockBean
+	UsuarioService usuarioService;
+	
+	@Test
+	public void deveRetornarUmaPaginaComOCursorDaProxima() throws Exception {
+		
+		//cenario
+		LancamentoResumo primeiro = criarResumo(1l);
+		LancamentoResumo segundo = criarResumo(2l);
+		LancamentoResumo terceiro = criarResumo(3l);
+		
+		Mockito.when( service.buscar(Mockito.any(Lancamento.class), Mockito.isNull(), Mockito.eq(3)) )
+				.thenReturn(Arrays.asList(primeiro, segundo, terceiro));
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API)
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.param("usuario", "1")
+														.param("limit", "2")
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isOk())
+					.andExpect( MockMvcResultMatchers.jsonPath("itens.length()").value(2))
+					.andExpect( MockMvcResultMatchers.jsonPath("itens[0].usuarioId").value(1))
+					.andExpect( MockMvcResultMatchers.jsonPath("itens[0].usuario").doesNotExist())
+					.andExpect( MockMvcResultMatchers.jsonPath("proximoCursor").value(CursorLancamento.de(segundo).codificar()));
+	}
+	
+	@Test
+	public void deveRetornarBadRequestParaUmCursorInvalido() throws Exception {
+		
+		//cenario
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API)
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.param("usuario", "1")
+														.param("cursor", "@@@")
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isBadRequest());
+	}
+	
+	@Test
+	public void deveRecusarBuscaPorOutroUsuarioQueNaoODoToken() throws Exception {
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API)
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.param("usuario", "2")
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isBadRequest())
+					.andExpect( MockMvcResultMatchers.content().string(LancamentoResource.OUTRO_USUARIO));
+		Mockito.verify(service, Mockito.never()).buscar(Mockito.any(Lancamento.class), Mockito.any(), Mockito.anyInt());
+	}
+	
+	@Test
+	public void deveAtualizarOStatusEmLoteDoUsuarioAutenticado() throws Exception {
+		
+		//cenario
+		List<Long> ids = Arrays.asList(1l, 2l, 3l);
+		Mockito.when( service.atualizarStatus(Mockito.any(Lancamento.class), Mockito.eq(ids), Mockito.eq(StatusLancamento.EFETIVADO)) )
+				.thenReturn(3);
+		AtualizaStatusLoteDTO dto = AtualizaStatusLoteDTO.builder().ids(ids).status("EFETIVADO").build();
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.put(API.concat("/atualiza-status"))
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.accept(JSON)
+														.contentType(JSON)
+														.content(new ObjectMapper().writeValueAsString(dto));
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isOk())
+					.andExpect( MockMvcResultMatchers.content().string("3"));
+		
+		ArgumentCaptor<Lancamento> filtro = ArgumentCaptor.forClass(Lancamento.class);
+		Mockito.verify(service).atualizarStatus(filtro.capture(), Mockito.eq(ids), Mockito.eq(StatusLancamento.EFETIVADO));
+		Assertions.assertThat(filtro.getValue().getUsuario().getId()).isEqualTo(1l);
+	}
+	
+	@Test
+	public void deveExigirIdsOuAnoParaAtualizarOStatusEmLote() throws Exception {
+		
+		AtualizaStatusLoteDTO dto = AtualizaStatusLoteDTO.builder().status("EFETIVADO").build();
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.put(API.concat("/atualiza-status"))
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.accept(JSON)
+														.contentType(JSON)
+														.content(new ObjectMapper().writeValueAsString(dto));
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isBadRequest());
+		Mockito.verify(service, Mockito.never()).atualizarStatus(Mockito.any(Lancamento.class), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveResponderConflitoComOEstadoAtualQuandoAVersaoMudou() throws Exception {
+		
+		//cenario: o cliente editou a versao 0, a base ja esta na 1
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Lancamento atual = criarLancamento(5l, usuario);
+		atual.setVersao(1l);
+		Mockito.when( usuarioService.obterReferencia(1l) ).thenReturn(usuario);
+		Mockito.when( service.atualizar(Mockito.any(Lancamento.class)) ).thenThrow(new ConflitoVersaoException(5l));
+		Mockito.when( service.obterPorId(5l) ).thenReturn(Optional.of(atual));
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("editado").mes(1).ano(2019).valor(BigDecimal.TEN)
+				.tipo("RECEITA").versao(0l).build();
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.put(API.concat("/5"))
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.contentType(JSON)
+														.content(new ObjectMapper().writeValueAsString(dto))
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isConflict())
+					.andExpect( MockMvcResultMatchers.jsonPath("id").value(5))
+					.andExpect( MockMvcResultMatchers.jsonPath("versao").value(1));
+		ArgumentCaptor<Lancamento> enviado = ArgumentCaptor.forClass(Lancamento.class);
+		Mockito.verify(service).atualizar(enviado.capture());
+		Assertions.assertThat(enviado.getValue().getVersao()).isEqualTo(0l);
+	}
+	
+	@Test
+	public void deveDeletarSoComOUsuarioDoTokenSemExporLancamentoDeOutro() throws Exception {
+		
+		//cenario: o lancamento 5 é do usuario 2
+		Mockito.when( service.deletar(5l, 1l) ).thenThrow(new ConflitoVersaoException(5l));
+		Mockito.when( service.obterPorId(5l) ).thenReturn(Optional.of(criarLancamento(5l, Usuario.builder().id(2l).build())));
+		
+		//execuçao e verificaçao: nem o 409 traz o estado do lancamento alheio
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.delete(API.concat("/5"))
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isBadRequest())
+					.andExpect( MockMvcResultMatchers.content().string(LancamentoResource.LANCAMENTO_NAO_ENCONTRADO));
+		Mockito.verify(service).deletar(5l, 1l);
+	}
+	
+	private static LancamentoResumo criarResumo(Long id) {
+		return new LancamentoResumo(id, "lancamento qualquer", 1, 2019, Dinheiro.de(BigDecimal.TEN),
+				TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 1l, 0l);
+	}
+	
+	private static Lancamento criarLancamento(Long id, Usuario usuario) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(id);
+		lancamento.setUsuario(usuario);
+		return lancamento;
+	}
+	
+	@Test
+	public void deveExportarOsLancamentosEmCsv() throws Exception {
+		
+		//cenario
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Lancamento lancamento = criarLancamento(1l, usuario);
+		lancamento.setDescricao("conta \"luz\"");
+		
+		Mockito.doAnswer(invocacao -> {
+			Consumer<Lancamento> consumidor = invocacao.getArgument(1);
+			consumidor.accept(lancamento);
+			return null;
+		}).when(service).exportar(Mockito.eq(1l), Mockito.any());
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API.concat("/export"))
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.param("usuario", "1")
+														.param("format", "csv");
+		
+		MvcResult resultado = mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.request().asyncStarted())
+					.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+					.andExpect( MockMvcResultMatchers.status().isOk())
+					.andExpect( MockMvcResultMatchers.content().contentType("text/csv"))
+					.andExpect( MockMvcResultMatchers.content().string(
+							"id,descricao,mes,ano,valor,tipo,status,usuario,data_cadastro\n"
+							+ "1,\"conta \"\"luz\"\"\",1,2019,10.00,RECEITA,PENDENTE,1," + lancamento.getDataCadastro() + "\n"));
+	}
+	
+	@Test
+	public void deveRetornarBadRequestParaUmFormatoDeExportacaoInvalido() throws Exception {
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API.concat("/export"))
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.param("usuario", "1")
+														.param("format", "xls");
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isBadRequest());
+	}
+	
+	@Test
+	public void deveSalvarUmLoteReportandoOsErrosPorItem() throws Exception {
+		
+		//cenario
+		Usuario usuario = Usuario.builder().id(1l).build();
+		LancamentoDTO valido = LancamentoDTO.builder().descricao("salario").mes(1).ano(2019)
+				.valor(BigDecimal.TEN).tipo("RECEITA").usuario(1l).build();
+		LancamentoDTO outroUsuario = LancamentoDTO.builder().descricao("aluguel").mes(1).ano(2019)
+				.valor(BigDecimal.TEN).tipo("DESPESA").usuario(2l).build();
+		LancamentoDTO outroValido = LancamentoDTO.builder().descricao("luz").mes(1).ano(2019)
+				.valor(BigDecimal.ONE).tipo("DESPESA").build();
+		
+		Mockito.when( service.salvarLote(Mockito.anyList()) ).thenReturn(Collections.singletonMap(1, "Informe um Valor valido."));
+		
+		String json = new ObjectMapper().writeValueAsString(Arrays.asList(valido, outroUsuario, outroValido));
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.post(API.concat("/lote"))
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.accept(JSON)
+														.contentType(JSON)
+														.content(json);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isCreated())
+					.andExpect( MockMvcResultMatchers.jsonPath("recebidos").value(3))
+					.andExpect( MockMvcResultMatchers.jsonPath("salvos").value(1))
+					.andExpect( MockMvcResultMatchers.jsonPath("erros[0].indice").value(1))
+					.andExpect( MockMvcResultMatchers.jsonPath("erros[0].mensagem").value(LancamentoResource.OUTRO_USUARIO))
+					.andExpect( MockMvcResultMatchers.jsonPath("erros[1].indice").value(2))
+					.andExpect( MockMvcResultMatchers.jsonPath("erros[1].mensagem").value("Informe um Valor valido."));
+		
+		//o usuario vem do token: nenhuma consulta ao banco
+		Mockito.verify(usuarioService, Mockito.never()).obterPorId(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveImportarUmExtratoCsvComOUsuarioDoToken() throws Exception {
+		
+		//cenario
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when( usuarioService.obterReferencia(1l) ).thenReturn(usuario);
+		List<Lancamento> gravados = new ArrayList<>();
+		Mockito.when( service.salvarLote(Mockito.anyList()) ).thenAnswer(invocacao -> {
+			gravados.addAll(invocacao.getArgument(0));
+			return Collections.emptyMap();
+		});
+		String csv = "data,descricao,valor\n2019-01-05,salario,100.00\n2019-01-06,mercado,-35.10\n2019-01-07,padaria,x\n";
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.post(API.concat("/importar"))
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.accept(JSON)
+														.contentType("text/csv")
+														.content(csv);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isCreated())
+					.andExpect( MockMvcResultMatchers.jsonPath("lidos").value(3))
+					.andExpect( MockMvcResultMatchers.jsonPath("salvos").value(2))
+					.andExpect( MockMvcResultMatchers.jsonPath("erros[0].indice").value(4));
+		
+		Assertions.assertThat(gravados).extracting("tipo").containsExactly(TipoLancamento.RECEITA, TipoLancamento.DESPESA);
+		Assertions.assertThat(gravados).extracting("usuario").containsOnly(usuario);
+	}
+	
+	@Test
+	public void deveRetornarBadRequestParaUmFormatoDeImportacaoInvalido() throws Exception {
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.post(API.concat("/importar"))
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.param("format", "xls")
+														.content("qualquer");
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isBadRequest());
+		Mockito.verify(service, Mockito.never()).salvarLote(Mockito.anyList());
+	}
+	
+	@Test
+	public void deveResponderNaoModificadoSemBuscarOsLancamentos() throws Exception {
+		
+		//cenario
+		Mockito.when( service.obterVersao(1l) ).thenReturn(Optional.of(3l));
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API)
+														.requestAttr(AutenticacaoTokenFilter.USUARIO_AUTENTICADO, 1l)
+														.header("If-None-Match", "\"1-3\"")
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isNotModified());
+		Mockito.verify(service, Mockito.never()).buscar(Mockito.any(Lancamento.class), Mockito.any(), Mockito.anyInt());
+		
+		//outra versao: busca normalmente e devolve o novo ETag
+		Mockito.when( service.obterVersao(1l) ).thenReturn(Optional.of(4l));
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isOk())
+					.andExpect( MockMvcResultMatchers.header().string("ETag", "\"1-4\""));
+	}
+}
@@ -1,5 +1,11 @@
 package com.dsousa.minhasfinancas.api.resource;
 
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
@@ -18,8 +24,16 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import com.dsousa.minhasfinancas.api.dto.UsuarioDTO;
 import com.dsousa.minhasfinancas.exception.ErroAutenticacao;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.Granularidade;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.SaldoAcumulado;
+import com.dsousa.minhasfinancas.model.projection.SaldoMensal;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
 import com.dsousa.minhasfinancas.service.LancamentoService;
+import com.dsousa.minhasfinancas.service.TokenService;
 import com.dsousa.minhasfinancas.service.UsuarioService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -42,6 +56,9 @@ public class UsuarioResourceTest {
 	@MockBean
 	LancamentoService lancamentoService;
 	
+	@MockBean
+	TokenService tokenService;
+	
 	@Test
 	public void deveAtenticarUmUsuario() throws Exception {
 		
@@ -54,6 +71,7 @@ public class UsuarioResourceTest {
 		Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
 	
 		Mockito.when( service.autenticar(email, senha)).thenReturn(usuario);
+		Mockito.when( tokenService.gerarToken(usuario)).thenReturn("token");
 	
 		String json = new ObjectMapper().writeValueAsString(dto);
 		
@@ -68,7 +86,9 @@ public class UsuarioResourceTest {
 					.andExpect( MockMvcResultMatchers.status().isOk())
 					.andExpect( MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 					.andExpect( MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
-					.andExpect( MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()));
+					.andExpect( MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()))
+					.andExpect( MockMvcResultMatchers.jsonPath("token").value("token"))
+					.andExpect( MockMvcResultMatchers.jsonPath("senha").doesNotExist());
 					//.andExpect( MockMvcResultMatchers.jsonPath("senha").value(usuario.getSenha()));
 	}
 	
@@ -147,5 +167,130 @@ public class UsuarioResourceTest {
 		mvc.perform(request)
 					.andExpect( MockMvcResultMatchers.status().isBadRequest());
 	}
+	
+	@Test
+	public void deveRetornarOSaldoMensalDoAno() throws Exception {
+		
+		//cenario
+		Usuario usuario = Usuario.builder().id(1l).email("usuario@email.com").build();
+		List<SaldoMensal> serie = Arrays.asList(
+				SaldoMensal.builder().mes(1).receitas(Dinheiro.de(BigDecimal.TEN)).despesas(Dinheiro.de(BigDecimal.ONE)).saldo(Dinheiro.de(BigDecimal.valueOf(9))).build());
+		
+		Mockito.when( service.obterPorId(1l) ).thenReturn(Optional.of(usuario));
+		Mockito.when( lancamentoService.obterSaldoMensalPorUsuario(1l, 2019) ).thenReturn(serie);
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API.concat("/1/saldo/mensal"))
+														.param("ano", "2019")
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isOk())
+					.andExpect( MockMvcResultMatchers.jsonPath("[0].mes").value(1))
+					.andExpect( MockMvcResultMatchers.jsonPath("[0].saldo").value(9));
+	}
+	
+	@Test
+	public void deveRetornarOResumoMensalDoPeriodo() throws Exception {
+		
+		//cenario
+		Usuario usuario = Usuario.builder().id(1l).email("usuario@email.com").build();
+		List<ResumoMensal> resumo = Arrays.asList(new ResumoMensal(1l, 2019, 3, TipoLancamento.RECEITA,
+				StatusLancamento.EFETIVADO, Dinheiro.de(BigDecimal.TEN), 2l));
+		
+		Mockito.when( service.obterPorId(1l) ).thenReturn(Optional.of(usuario));
+		Mockito.when( lancamentoService.obterResumoMensal(1l, YearMonth.of(2019, 1), YearMonth.of(2019, 6)) ).thenReturn(resumo);
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API.concat("/1/resumo"))
+														.param("de", "2019-01")
+														.param("ate", "2019-06")
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isOk())
+					.andExpect( MockMvcResultMatchers.jsonPath("[0].mes").value(3))
+					.andExpect( MockMvcResultMatchers.jsonPath("[0].status").value("EFETIVADO"))
+					.andExpect( MockMvcResultMatchers.jsonPath("[0].quantidade").value(2));
+	}
+	
+	@Test
+	public void deveRetornarASerieAnualDoSaldoFiltradaPorStatus() throws Exception {
+		
+		//cenario
+		Usuario usuario = Usuario.builder().id(1l).email("usuario@email.com").build();
+		List<SaldoAcumulado> serie = Arrays.asList(new SaldoAcumulado(2019, null, Dinheiro.deCentavos(1000),
+				Dinheiro.ZERO, Dinheiro.deCentavos(1500)));
+		
+		Mockito.when( service.obterPorId(1l) ).thenReturn(Optional.of(usuario));
+		Mockito.when( lancamentoService.obterSerieSaldo(1l, YearMonth.of(2019, 1), YearMonth.of(2019, 6),
+				StatusLancamento.EFETIVADO, Granularidade.ANO) ).thenReturn(serie);
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API.concat("/1/saldo/serie"))
+														.param("de", "2019-01")
+														.param("ate", "2019-06")
+														.param("granularidade", "ano")
+														.param("status", "efetivado")
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isOk())
+					.andExpect( MockMvcResultMatchers.jsonPath("[0].ano").value(2019))
+					.andExpect( MockMvcResultMatchers.jsonPath("[0].saldo").value(15.0))
+					.andExpect( MockMvcResultMatchers.jsonPath("[0].indicePeriodo").doesNotExist());
+	}
+	
+	@Test
+	public void deveRetornarBadRequestParaUmaGranularidadeInvalida() throws Exception {
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API.concat("/1/saldo/serie"))
+														.param("granularidade", "semana")
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isBadRequest());
+		Mockito.verify(lancamentoService, Mockito.never()).obterSerieSaldo(Mockito.anyLong(), Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveRetornarBadRequestParaUmPeriodoInvalido() throws Exception {
+		
+		//execuçao e verificaçao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+														.get(API.concat("/1/resumo"))
+														.param("de", "2019-13")
+														.accept(JSON);
+		
+		mvc.perform(request)
+					.andExpect( MockMvcResultMatchers.status().isBadRequest());
+		Mockito.verify(lancamentoService, Mockito.never()).obterResumoMensal(Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveResponderNaoModificadoSemCalcularOSaldo() throws Exception {
+		
+		//cenario
+		Usuario usuario = Usuario.builder().id(1l).email("usuario@email.com").build();
+		Mockito.when( service.obterPorId(1l) ).thenReturn(Optional.of(usuario));
+		Mockito.when( lancamentoService.obterVersao(1l) ).thenReturn(Optional.of(7l));
+		Mockito.when( lancamentoService.obterSaldoPorUsuario(1l) ).thenReturn(BigDecimal.TEN);
+		
+		//execuçao e verificaçao
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).accept(JSON))
+					.andExpect( MockMvcResultMatchers.status().isOk())
+					.andExpect( MockMvcResultMatchers.header().string("ETag", "\"1-7\""));
+		
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).accept(JSON).header("If-None-Match", "\"1-7\""))
+					.andExpect( MockMvcResultMatchers.status().isNotModified())
+					.andExpect( MockMvcResultMatchers.header().string("ETag", "\"1-7\""));
+		
+		Mockito.verify(lancamentoService, Mockito.times(1)).obterSaldoPorUsuario(1l);
+	}
 }
-
@@ -0,0 +1,65 @@
+package com.dsousa.minhasfinancas.api.seguranca;
+
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.dsousa.minhasfinancas.service.TokenService;
+
+public class AutenticacaoTokenFilterTest {
+	
+	TokenService tokenService = Mockito.mock(TokenService.class);
+	
+	AutenticacaoTokenFilter filter = new AutenticacaoTokenFilter(tokenService);
+
+	@Test
+	public void devePublicarOUsuarioDeUmTokenValido() throws Exception {
+		//cenario
+		Mockito.when(tokenService.validarToken("valido")).thenReturn(Optional.of(1l));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lancamentos");
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer valido");
+		MockFilterChain chain = new MockFilterChain();
+		
+		//execuçao
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		
+		//verificaçao
+		Assertions.assertThat(chain.getRequest()).isNotNull();
+		Assertions.assertThat(request.getAttribute(AutenticacaoTokenFilter.USUARIO_AUTENTICADO)).isEqualTo(1l);
+	}
+	
+	@Test
+	public void deveRetornarUnauthorizedSemToken() throws Exception {
+		//cenario
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		
+		//execuçao
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/lancamentos"), response, chain);
+		
+		//verificaçao
+		Assertions.assertThat(response.getStatus()).isEqualTo(401);
+		Assertions.assertThat(chain.getRequest()).isNull();
+	}
+	
+	@Test
+	public void deveRetornarUnauthorizedComTokenInvalido() throws Exception {
+		//cenario
+		Mockito.when(tokenService.validarToken("invalido")).thenReturn(Optional.empty());
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lancamentos");
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer invalido");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		//execuçao
+		filter.doFilter(request, response, new MockFilterChain());
+		
+		//verificaçao
+		Assertions.assertThat(response.getStatus()).isEqualTo(401);
+	}
+}
@@ -0,0 +1,79 @@
+package com.dsousa.minhasfinancas.api.serializacao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.dsousa.minhasfinancas.model.projection.SaldoMensal;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+public class SerializadoresJsonTest {
+	
+	//configuraçao do ObjectMapper do Spring Boot, com e sem os serializadores escritos a mao
+	//(o de Dinheiro entra nos dois: sem ele o valor sairia como objeto)
+	ObjectMapper padrao = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.serializers(new DinheiroSerializer()).build();
+	ObjectMapper otimizado = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.serializers(new DinheiroSerializer(), new LancamentoSerializer(), new LancamentoResumoSerializer(), new UsuarioSerializer()).build();
+	
+	Usuario usuario = Usuario.builder().id(7l).nome("usuario").email("usuario@email.com").senha("senha").build();
+
+	@Test
+	public void deveSerializarOLancamentoIgualAoSerializadorPadrao() throws Exception {
+		Lancamento lancamento = Lancamento.builder().id(1l).descricao("Conta \"luz\" é ç").mes(1).ano(2019)
+				.valor(Dinheiro.de(new BigDecimal("1500.10"))).dataCadastro(LocalDate.of(2019, 1, 15))
+				.tipo(TipoLancamento.DESPESA).status(StatusLancamento.PENDENTE).usuario(usuario).build();
+		lancamento.atualizarDescricaoBusca();
+		
+		String json = otimizado.writeValueAsString(lancamento);
+		
+		Assertions.assertThat(json).isEqualTo(padrao.writeValueAsString(lancamento));
+		Assertions.assertThat(json).contains("\"dataCadastro\":\"2019-01-15\"", "\"usuarioId\":7").doesNotContain("descricaoBusca");
+	}
+	
+	@Test
+	public void deveEscreverNullNosCamposVazios() throws Exception {
+		Lancamento lancamento = new Lancamento();
+		
+		Assertions.assertThat(otimizado.writeValueAsString(lancamento)).isEqualTo(padrao.writeValueAsString(lancamento));
+	}
+	
+	@Test
+	public void deveSerializarOResumoIgualAoSerializadorPadrao() throws Exception {
+		LancamentoResumo resumo = new LancamentoResumo(1l, "Salario", 2, 2019, Dinheiro.de(new BigDecimal("10.5")),
+				TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 7l, 3l);
+		
+		Assertions.assertThat(otimizado.writeValueAsString(resumo)).isEqualTo(padrao.writeValueAsString(resumo));
+	}
+	
+	@Test
+	public void deveEscreverODinheiroComoNumeroComDuasCasas() throws Exception {
+		SaldoMensal saldo = SaldoMensal.builder().mes(1).receitas(Dinheiro.deCentavos(150010))
+				.despesas(Dinheiro.deCentavos(5)).saldo(Dinheiro.deCentavos(-150005)).build();
+		
+		Assertions.assertThat(otimizado.writeValueAsString(saldo))
+				.isEqualTo("{\"mes\":1,\"receitas\":1500.10,\"despesas\":0.05,\"saldo\":-1500.05}");
+		Assertions.assertThat(otimizado.readTree(otimizado.writeValueAsString(saldo)).get("receitas").decimalValue())
+				.isEqualByComparingTo(new BigDecimal("1500.10"));
+	}
+	
+	@Test
+	public void deveSerializarOUsuarioSemASenha() throws Exception {
+		String json = otimizado.writeValueAsString(usuario);
+		
+		Assertions.assertThat(json).isEqualTo(padrao.writeValueAsString(usuario));
+		Assertions.assertThat(json).doesNotContain("senha");
+	}
+}
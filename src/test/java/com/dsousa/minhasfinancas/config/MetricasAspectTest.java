@@ -0,0 +1,44 @@
+package com.dsousa.minhasfinancas.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.service.LancamentoService;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricasAspectTest {
+	
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	
+	LancamentoService alvo = Mockito.mock(LancamentoService.class);
+
+	@Test
+	public void deveMedirOsMetodosDoServicePorClasseMetodoEExcecao() {
+		//cenario
+		AspectJProxyFactory fabrica = new AspectJProxyFactory(alvo);
+		fabrica.addInterface(LancamentoService.class);
+		fabrica.addAspect(new MetricasAspect(registry));
+		LancamentoService service = fabrica.getProxy();
+		Lancamento lancamento = new Lancamento();
+		Mockito.doThrow(new RegraNegocioException("Informe uma descriçao valida.")).when(alvo).validar(lancamento);
+		
+		//execuçao
+		service.obterSaldoPorUsuario(1l);
+		Throwable erro = Assertions.catchThrowable(() -> service.validar(lancamento));
+		
+		//verificaçao
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class);
+		Timer saldo = registry.get(MetricasAspect.METRICA_SERVICE)
+				.tag("classe", "LancamentoService").tag("metodo", "obterSaldoPorUsuario").tag("excecao", "none").timer();
+		Assertions.assertThat(saldo.count()).isEqualTo(1);
+		Timer validar = registry.get(MetricasAspect.METRICA_SERVICE)
+				.tag("metodo", "validar").tag("excecao", "RegraNegocioException").timer();
+		Assertions.assertThat(validar.count()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,170 @@
+package com.dsousa.minhasfinancas.model.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+//tres bancos H2 em memoria no papel de primario e replicas, cada um com o proprio nome numa tabela
+public class RoteamentoDataSourceTest {
+	
+	RoteamentoDataSource roteamento;
+	
+	Alternavel replica1;
+	
+	JdbcTemplate jdbc;
+	
+	TransactionTemplate escrita;
+	
+	TransactionTemplate leitura;
+	
+	@Before
+	public void setUp() {
+		replica1 = new Alternavel(banco("replica1"));
+		roteamento = new RoteamentoDataSource(banco("primario"), Arrays.asList(banco("replica0"), replica1), 60, 0);
+		DataSource dataSource = new LazyConnectionDataSourceProxy(roteamento);
+		jdbc = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transacoes = new DataSourceTransactionManager(dataSource);
+		escrita = new TransactionTemplate(transacoes);
+		leitura = new TransactionTemplate(transacoes);
+		leitura.setReadOnly(true);
+	}
+	
+	@After
+	public void tearDown() {
+		RoteamentoDataSource.definirUsuario(null);
+		roteamento.close();
+	}
+
+	@Test
+	public void deveEnviarEscritasEConsultasForaDeTransacaoParaOPrimario() {
+		String naEscrita = escrita.execute(status -> origem());
+		
+		Assertions.assertThat(naEscrita).isEqualTo("primario");
+		Assertions.assertThat(origem()).isEqualTo("primario");
+	}
+	
+	@Test
+	public void deveAlternarAsLeiturasEntreAsReplicas() {
+		Assertions.assertThat(Arrays.asList(lerOrigem(), lerOrigem(), lerOrigem(), lerOrigem()))
+				.containsExactly("replica0", "replica1", "replica0", "replica1");
+	}
+	
+	@Test
+	public void deveTirarDaRotacaoUmaReplicaForaEVoltarComAVerificacao() {
+		replica1.fora = true;
+		
+		//a leitura que cai na replica fora vai para o primario; as seguintes nao passam mais por ela
+		Assertions.assertThat(Arrays.asList(lerOrigem(), lerOrigem(), lerOrigem(), lerOrigem()))
+				.containsExactly("replica0", "primario", "replica0", "replica0");
+		
+		replica1.fora = false;
+		roteamento.verificarReplicas();
+		
+		Assertions.assertThat(Arrays.asList(lerOrigem(), lerOrigem())).containsOnly("replica0", "replica1");
+	}
+	
+	@Test
+	public void deveLerDoPrimarioQuemAcabouDeEscrever() {
+		RoteamentoDataSource.definirUsuario(7l);
+		Assertions.assertThat(lerOrigem()).startsWith("replica");
+		
+		escrita.execute(status -> origem());
+		
+		Assertions.assertThat(lerOrigem()).isEqualTo("primario");
+		Assertions.assertThat(lerOrigem()).isEqualTo("primario");
+		RoteamentoDataSource.definirUsuario(8l);
+		Assertions.assertThat(lerOrigem()).startsWith("replica");
+	}
+	
+	@Test
+	public void naoDeveFixarNoPrimarioUmaEscritaDesfeita() {
+		RoteamentoDataSource.definirUsuario(7l);
+		
+		escrita.execute(status -> {
+			origem();
+			status.setRollbackOnly();
+			return null;
+		});
+		
+		Assertions.assertThat(lerOrigem()).startsWith("replica");
+	}
+	
+	@Test
+	public void deveRotearTambemAsConexoesComCredenciais() throws SQLException {
+		try (Connection conexao = roteamento.getConnection("sa", "sa")) {
+			Assertions.assertThat(origem(conexao)).isEqualTo("primario");
+		}
+		
+		String naLeitura = leitura.execute(status -> {
+			try (Connection conexao = roteamento.getConnection("sa", "sa")) {
+				return origem(conexao);
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		
+		Assertions.assertThat(naLeitura).startsWith("replica");
+	}
+	
+	private String lerOrigem() {
+		return leitura.execute(status -> origem());
+	}
+	
+	private String origem() {
+		return jdbc.queryForObject("select nome from origem", String.class);
+	}
+	
+	private static String origem(Connection conexao) throws SQLException {
+		try (ResultSet resultado = conexao.createStatement().executeQuery("select nome from origem")) {
+			resultado.next();
+			return resultado.getString(1);
+		}
+	}
+	
+	private static DataSource banco(String nome) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("create table if not exists origem (nome varchar(20))");
+		jdbc.update("delete from origem");
+		jdbc.update("insert into origem values (?)", nome);
+		return dataSource;
+	}
+	
+	//replica que pode ser derrubada e religada
+	static class Alternavel extends AbstractDataSource {
+		
+		final DataSource dataSource;
+		volatile boolean fora;
+		
+		Alternavel(DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			if(fora) {
+				throw new SQLException("Connection refused");
+			}
+			return dataSource.getConnection();
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return getConnection();
+		}
+	}
+}
@@ -2,7 +2,11 @@ package com.dsousa.minhasfinancas.model.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 //import org.assertj.core.api.Assertions;
 import static org.assertj.core.api.Assertions.*;
@@ -17,8 +21,14 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
 import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.CursorLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.dsousa.minhasfinancas.model.projection.TotalMensalPorTipo;
+import com.dsousa.minhasfinancas.model.projection.TotalPorTipo;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
@@ -80,12 +90,137 @@ public class LancamentoRepositoryTest {
 		assertThat(lancamentoEncontrado.isPresent()).isTrue();
 	}
 	
+	@Test
+	public void deveSomarReceitasEDespesasPorMesNumaUnicaConsulta() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		persistirLancamento(usuario, 1, TipoLancamento.RECEITA, 100);
+		persistirLancamento(usuario, 1, TipoLancamento.RECEITA, 50);
+		persistirLancamento(usuario, 1, TipoLancamento.DESPESA, 30);
+		persistirLancamento(usuario, 3, TipoLancamento.DESPESA, 20);
+		
+		List<TotalMensalPorTipo> totais = repository.obterTotaisMensaisPorTipo(usuario.getId(), 2019);
+		
+		assertThat(totais).hasSize(3);
+		assertThat(totais)
+			.filteredOn(total -> total.getMes() == 1 && total.getTipo() == TipoLancamento.RECEITA)
+			.extracting(TotalMensalPorTipo::getTotal)
+			.containsExactly(Dinheiro.deCentavos(15000));
+		assertThat(TotalPorTipo.somar(repository.obterTotaisPorTipo(usuario.getId(), 0), TipoLancamento.DESPESA))
+			.isEqualTo(Dinheiro.deCentavos(5000));
+	}
+	
+	@Test
+	public void devePaginarOsLancamentosPelaChaveAnoMesId() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento marco = persistirLancamento(usuario, 3, TipoLancamento.RECEITA, 10);
+		Lancamento janeiro = persistirLancamento(usuario, 1, TipoLancamento.RECEITA, 10);
+		Lancamento janeiroOutro = persistirLancamento(usuario, 1, TipoLancamento.DESPESA, 10);
+		Lancamento filtro = Lancamento.builder().usuario(usuario).build();
+		
+		List<LancamentoResumo> primeiraPagina = repository.buscarPagina(filtro, null, 2);
+		CursorLancamento cursor = CursorLancamento.de(primeiraPagina.get(1));
+		List<LancamentoResumo> segundaPagina = repository.buscarPagina(filtro, cursor, 2);
+		
+		assertThat(primeiraPagina).extracting(LancamentoResumo::getId).containsExactly(janeiro.getId(), janeiroOutro.getId());
+		assertThat(segundaPagina).extracting(LancamentoResumo::getId).containsExactly(marco.getId());
+		assertThat(segundaPagina.get(0).getUsuarioId()).isEqualTo(usuario.getId());
+		assertThat(segundaPagina.get(0).getValor()).isEqualTo(Dinheiro.deCentavos(1000));
+	}
+	
+	@Test
+	public void deveLerOsLancamentosDoUsuarioComoStreamOrdenado() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento marco = persistirLancamento(usuario, 3, TipoLancamento.RECEITA, 10);
+		Lancamento janeiro = persistirLancamento(usuario, 1, TipoLancamento.DESPESA, 10);
+		
+		try (Stream<Lancamento> lancamentos = repository.streamPorUsuario(usuario.getId())) {
+			assertThat(lancamentos).containsExactly(janeiro, marco);
+		}
+	}
+	
+	@Test
+	public void deveSalvarUmLoteMaiorQueOBatchJdbc() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		List<Lancamento> lote = new ArrayList<>();
+		for(int i = 0; i < 120; i++) {
+			Lancamento lancamento = criarLancamento();
+			lancamento.setUsuario(usuario);
+			lote.add(lancamento);
+		}
+		
+		repository.salvarEmLote(lote);
+		
+		assertThat(lote).allMatch(lancamento -> lancamento.getId() != null);
+		assertThat(repository.count()).isEqualTo(120);
+	}
+	
+	@Test
+	public void deveBuscarPelaDescricaoIgnorandoAcentosEMaiusculas() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento conta = persistirLancamento(usuario, 1, TipoLancamento.DESPESA, 10);
+		conta.setDescricao("Conta de Água");
+		Lancamento salario = persistirLancamento(usuario, 1, TipoLancamento.RECEITA, 10);
+		salario.setDescricao("Salário");
+		entityManager.flush();
+		
+		Lancamento filtro = Lancamento.builder().usuario(usuario).descricao("AGUA").build();
+		List<LancamentoResumo> resultado = repository.buscarPagina(filtro, null, 10);
+		
+		assertThat(conta.getDescricaoBusca()).isEqualTo("conta de agua");
+		assertThat(resultado).extracting(LancamentoResumo::getId).containsExactly(conta.getId());
+	}
+	
+	@Test
+	public void deveAtualizarOStatusEmMassaSomenteDoUsuarioDoFiltro() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Usuario outroUsuario = UsuarioRepositoryTest.criarUsuario();
+		outroUsuario.setEmail("outro@email.com");
+		outroUsuario = entityManager.persist(outroUsuario);
+		Lancamento janeiro = persistirLancamento(usuario, 1, TipoLancamento.RECEITA, 10);
+		Lancamento janeiroDespesa = persistirLancamento(usuario, 1, TipoLancamento.DESPESA, 10);
+		Lancamento fevereiro = persistirLancamento(usuario, 2, TipoLancamento.RECEITA, 10);
+		Lancamento deOutroUsuario = persistirLancamento(outroUsuario, 1, TipoLancamento.RECEITA, 10);
+		entityManager.flush();
+		
+		Lancamento filtro = Lancamento.builder().usuario(usuario).ano(2019).mes(1).build();
+		int porFiltro = repository.atualizarStatus(filtro, null, StatusLancamento.EFETIVADO, 0);
+		Lancamento somenteUsuario = Lancamento.builder().usuario(usuario).build();
+		int porIds = repository.atualizarStatus(somenteUsuario, Arrays.asList(fevereiro.getId(), deOutroUsuario.getId()), StatusLancamento.CANCELADO, 0);
+		entityManager.clear();
+		
+		assertThat(porFiltro).isEqualTo(2);
+		assertThat(porIds).isEqualTo(1);
+		assertThat(entityManager.find(Lancamento.class, janeiro.getId()).getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+		assertThat(entityManager.find(Lancamento.class, janeiroDespesa.getId()).getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+		assertThat(entityManager.find(Lancamento.class, fevereiro.getId()).getStatus()).isEqualTo(StatusLancamento.CANCELADO);
+		assertThat(entityManager.find(Lancamento.class, deOutroUsuario.getId()).getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+	}
+	
+	@Test
+	public void deveTravarSomenteOsLancamentosQueMudariamDeStatus() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Usuario outroUsuario = UsuarioRepositoryTest.criarUsuario();
+		outroUsuario.setEmail("outro@email.com");
+		outroUsuario = entityManager.persist(outroUsuario);
+		Lancamento fevereiro = persistirLancamento(usuario, 2, TipoLancamento.RECEITA, 10);
+		Lancamento janeiro = persistirLancamento(usuario, 1, TipoLancamento.RECEITA, 10);
+		Lancamento jaEfetivado = persistirLancamento(usuario, 1, TipoLancamento.DESPESA, 10);
+		jaEfetivado.setStatus(StatusLancamento.EFETIVADO);
+		persistirLancamento(outroUsuario, 1, TipoLancamento.RECEITA, 10);
+		entityManager.flush();
+		
+		List<Long> travados = repository.travarParaAtualizarStatus(Lancamento.builder().usuario(usuario).build(),
+				null, StatusLancamento.EFETIVADO, 0);
+		
+		assertThat(travados).containsExactly(fevereiro.getId(), janeiro.getId());
+	}
+	
 	public static Lancamento criarLancamento() {
 		Lancamento lancamento =  Lancamento.builder()
 									.ano(2019)
 									.mes(1)
 									.descricao("lancamento qualquer")
-									.valor(BigDecimal.valueOf(10))
+									.valor(Dinheiro.de(BigDecimal.valueOf(10)))
 									.tipo(TipoLancamento.RECEITA)
 									.status(StatusLancamento.PENDENTE)
 									.dataCadastro(LocalDate.now())
@@ -93,6 +228,15 @@ public class LancamentoRepositoryTest {
 		return lancamento;
 	}
 	
+	private Lancamento persistirLancamento(Usuario usuario, Integer mes, TipoLancamento tipo, int valor) {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setMes(mes);
+		lancamento.setTipo(tipo);
+		lancamento.setValor(Dinheiro.de(BigDecimal.valueOf(valor)));
+		return entityManager.persist(lancamento);
+	}
+	
 	private Lancamento criarEPersistirUmLancamento() {
 		Lancamento lancamento =  criarLancamento();
 		entityManager.persist(lancamento);
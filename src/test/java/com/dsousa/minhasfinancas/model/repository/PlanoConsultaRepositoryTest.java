@@ -0,0 +1,219 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.StreamUtils;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+
+//Executa as consultas dos repositories sobre um volume semeado e confere o EXPLAIN do SQL
+//que o Hibernate realmente gerou: nenhuma pode voltar a ler a tabela inteira (tableScan no H2).
+//O H2 roda sem Flyway (as migraçoes usam particionamento, plpgsql e gin, so do PostgreSQL) e tem os
+//indices dos @Index das entidades; indicesDasEntidadesDevemExistirNasMigracoes garante que sao os
+//mesmos que as migraçoes deixam em produçao.
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.dsousa.minhasfinancas.model.repository.PlanoConsultaRepositoryTest$CapturaSql")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class PlanoConsultaRepositoryTest {
+	
+	static final int USUARIOS = 20;
+	static final int LANCAMENTOS_POR_USUARIO = 100;
+	
+	//create [unique] index nome on tabela [using metodo] (colunas) e drop index nome, na ordem dos scripts
+	static final Pattern INDICE = Pattern.compile("(?i)DROP\\s+INDEX\\s+(?:IF\\s+EXISTS\\s+)?(?<removido>[\\w.]+)"
+			+ "|CREATE\\s+(?<unico>UNIQUE\\s+)?INDEX\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(?<nome>[\\w.]+)\\s+ON\\s+(?:ONLY\\s+)?"
+			+ "(?<tabela>[\\w.]+)\\s*(?:USING\\s+\\w+\\s*)?\\((?<colunas>[^)]*)\\)");
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	Usuario usuario;
+	
+	@Before
+	public void semear() {
+		List<Lancamento> lancamentos = new ArrayList<>();
+		for(int u = 0; u < USUARIOS; u++) {
+			Usuario novo = entityManager.persist(Usuario.builder().nome("usuario" + u).email("usuario" + u + "@email.com").build());
+			for(int i = 0; i < LANCAMENTOS_POR_USUARIO; i++) {
+				lancamentos.add(Lancamento.builder()
+						.descricao("lancamento " + i)
+						.ano(2015 + i % 5)
+						.mes(1 + i % 12)
+						.valor(Dinheiro.de(BigDecimal.valueOf(i)))
+						.tipo(i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+						.usuario(novo)
+						.build());
+			}
+			usuario = novo;
+		}
+		//sem ANALYZE explicito: no H2 ele faz commit e o volume vazaria para os outros testes
+		lancamentoRepository.salvarEmLote(lancamentos);
+	}
+	
+	@Test
+	public void obterTotaisPorTipoDeveUsarIndice() {
+		assertThat(explicar(() -> lancamentoRepository.obterTotaisPorTipo(usuario.getId(), 0), usuario.getId(), 0))
+			.doesNotContain("tableScan");
+	}
+	
+	@Test
+	public void obterTotaisMensaisPorTipoDeveUsarIndice() {
+		assertThat(explicar(() -> lancamentoRepository.obterTotaisMensaisPorTipo(usuario.getId(), 2018), usuario.getId(), 2018))
+			.doesNotContain("tableScan");
+	}
+	
+	@Test
+	public void obterMovimentoPorIdDeveUsarChavePrimaria() {
+		Long id = lancamentoRepository.streamPorUsuario(usuario.getId()).findFirst().get().getId();
+		assertThat(explicar(() -> lancamentoRepository.obterMovimentoPorId(id), id))
+			.doesNotContain("tableScan");
+	}
+	
+	@Test
+	public void streamPorUsuarioDeveUsarIndice() {
+		assertThat(explicar(() -> lancamentoRepository.streamPorUsuario(usuario.getId()).count(), usuario.getId()))
+			.doesNotContain("tableScan");
+	}
+	
+	@Test
+	public void existsByEmailDeveUsarIndice() {
+		assertThat(explicar(() -> usuarioRepository.existsByEmail(usuario.getEmail()), usuario.getEmail()))
+			.doesNotContain("tableScan");
+	}
+	
+	@Test
+	public void findByEmailDeveUsarIndice() {
+		assertThat(explicar(() -> usuarioRepository.findByEmail(usuario.getEmail()), usuario.getEmail()))
+			.doesNotContain("tableScan");
+	}
+	
+	@Test
+	public void indicesDasEntidadesDevemExistirNasMigracoes() throws IOException {
+		Map<String, String> migrados = indicesDasMigracoes();
+		
+		for(Class<?> entidade : Arrays.asList(Lancamento.class, Usuario.class)) {
+			Table tabela = entidade.getAnnotation(Table.class);
+			for(Index indice : tabela.indexes()) {
+				assertThat(migrados).containsEntry(indice.name(),
+						descrever(tabela.schema() + "." + tabela.name(), indice.unique(), indice.columnList()));
+			}
+		}
+	}
+	
+	//indices que sobram depois de aplicar os scripts em ordem de versao: nome -> tabela e colunas
+	private static Map<String, String> indicesDasMigracoes() throws IOException {
+		Resource[] scripts = new PathMatchingResourcePatternResolver().getResources("classpath*:db/migration/V*.sql");
+		Arrays.sort(scripts, Comparator.comparingDouble(PlanoConsultaRepositoryTest::versao));
+		Map<String, String> indices = new HashMap<>();
+		for(Resource script : scripts) {
+			String sql = StreamUtils.copyToString(script.getInputStream(), StandardCharsets.UTF_8).replaceAll("--[^\\n]*", "");
+			Matcher comando = INDICE.matcher(sql);
+			while(comando.find()) {
+				if(comando.group("removido") != null) {
+					indices.remove(semEsquema(comando.group("removido")));
+				} else {
+					indices.put(semEsquema(comando.group("nome")),
+							descrever(comando.group("tabela"), comando.group("unico") != null, comando.group("colunas")));
+				}
+			}
+		}
+		return indices;
+	}
+	
+	//V5__x.sql -> 5, V4_1__x.sql -> 4.1
+	private static double versao(Resource script) {
+		String nome = script.getFilename();
+		return Double.parseDouble(nome.substring(1, nome.indexOf("__")).replace('_', '.'));
+	}
+	
+	private static String semEsquema(String nome) {
+		return nome.substring(nome.lastIndexOf('.') + 1);
+	}
+	
+	//so o nome de cada coluna: operator class (gin_trgm_ops) e INCLUDE nao mudam a ordem da chave
+	private static String descrever(String tabela, boolean unico, String colunas) {
+		return (unico ? "unique " : "") + tabela.toLowerCase() + " (" + Arrays.stream(colunas.split(","))
+				.map(coluna -> coluna.trim().split("\\s+")[0].toLowerCase())
+				.collect(Collectors.joining(", ")) + ")";
+	}
+	
+	//executa a consulta capturando o SQL gerado e devolve o plano dele; parametros que sobrarem (limit) recebem 1
+	private String explicar(Supplier<?> consulta, Object... parametros) {
+		entityManager.flush();
+		CapturaSql.SQL.clear();
+		consulta.get();
+		//o primeiro statement é a propria consulta (os seguintes seriam cargas EAGER de associaçoes)
+		assertThat(CapturaSql.SQL).isNotEmpty();
+		
+		return jdbcTemplate.execute((java.sql.Connection conexao) -> {
+			try (PreparedStatement explain = conexao.prepareStatement("EXPLAIN " + CapturaSql.SQL.get(0))) {
+				int total = explain.getParameterMetaData().getParameterCount();
+				for(int i = 0; i < total; i++) {
+					explain.setObject(i + 1, i < parametros.length ? parametros[i] : 1);
+				}
+				try (ResultSet plano = explain.executeQuery()) {
+					plano.next();
+					return plano.getString(1);
+				}
+			}
+		});
+	}
+	
+	public static class CapturaSql implements StatementInspector {
+		
+		static final List<String> SQL = new ArrayList<>();
+		
+		@Override
+		public String inspect(String sql) {
+			SQL.add(sql);
+			return sql;
+		}
+	}
+}
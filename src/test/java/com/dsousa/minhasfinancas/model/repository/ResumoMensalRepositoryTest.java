@@ -0,0 +1,101 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.enums.Granularidade;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.SaldoAcumulado;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class ResumoMensalRepositoryTest {
+	
+	@Autowired
+	ResumoMensalRepository repository;
+	
+	//a consulta com janela so é escolhida no PostgreSQL; o H2 1.4.199 tambem a executa
+	@Autowired
+	ResumoMensalRepositoryImpl consultas;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	Long idUsuario;
+	
+	@Before
+	public void setUp() {
+		idUsuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario()).getId();
+		persistir(2018, 12, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 50000);
+		persistir(2019, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 100000);
+		persistir(2019, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 30000);
+		persistir(2019, 3, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 20050);
+		persistir(2019, 4, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 1000);
+		entityManager.flush();
+	}
+	
+	@Test
+	public void deveAcumularOSaldoEmUmaPassadaComOSaldoDeAberturaPrimeiro() {
+		List<SaldoAcumulado> serie = new ArrayList<>();
+		
+		repository.percorrerSaldoAcumulado(idUsuario, YearMonth.of(2019, 1), YearMonth.of(2019, 3), null, Granularidade.MES, serie::add);
+		
+		assertThat(serie).extracting(SaldoAcumulado::getMes).containsExactly(12, 1, 3);
+		assertThat(serie).extracting(SaldoAcumulado::getSaldo)
+				.containsExactly(Dinheiro.deCentavos(50000), Dinheiro.deCentavos(120000), Dinheiro.deCentavos(99950));
+		assertThat(serie.get(1).getReceitas()).isEqualTo(Dinheiro.deCentavos(100000));
+		assertThat(serie.get(1).getDespesas()).isEqualTo(Dinheiro.deCentavos(30000));
+	}
+	
+	@Test
+	public void deveChegarAMesmaSerieComAConsultaDeJanela() {
+		for(StatusLancamento status : new StatusLancamento[] {null, StatusLancamento.EFETIVADO}) {
+			for(Granularidade granularidade : Granularidade.values()) {
+				YearMonth de = granularidade == Granularidade.MES ? YearMonth.of(2019, 2) : YearMonth.of(2019, 1);
+				List<SaldoAcumulado> umaPassada = new ArrayList<>();
+				List<SaldoAcumulado> janela = new ArrayList<>();
+				
+				consultas.percorrerEmUmaPassada(idUsuario, de, YearMonth.of(2019, 12), status, granularidade, umaPassada::add);
+				consultas.percorrerComJanela(idUsuario, de, YearMonth.of(2019, 12), status, granularidade, janela::add);
+				
+				assertThat(janela).isNotEmpty().isEqualTo(umaPassada);
+			}
+		}
+	}
+	
+	@Test
+	public void deveTrazerSoOSaldoDeAberturaQuandoNaoHaMovimentoNoPeriodo() {
+		List<SaldoAcumulado> serie = new ArrayList<>();
+		
+		repository.percorrerSaldoAcumulado(idUsuario, YearMonth.of(2020, 1), YearMonth.of(2020, 6),
+				StatusLancamento.EFETIVADO, Granularidade.ANO, serie::add);
+		
+		assertThat(serie).hasSize(1);
+		assertThat(serie.get(0).getAno()).isEqualTo(2019);
+		assertThat(serie.get(0).getMes()).isNull();
+		assertThat(serie.get(0).getSaldo()).isEqualTo(Dinheiro.deCentavos(130950));
+	}
+	
+	private void persistir(Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status, long centavos) {
+		entityManager.persist(new ResumoMensal(idUsuario, ano, mes, tipo, status, Dinheiro.deCentavos(centavos), 1l));
+	}
+}
@@ -0,0 +1,63 @@
+package com.dsousa.minhasfinancas.model.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class SaldoUsuarioRepositoryTest {
+	
+	@Autowired
+	SaldoUsuarioRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveAcumularReceitasEDespesasNoSaldo() {
+		SaldoUsuario saldo = criarEPersistirSaldo(1l);
+		Long versaoAnterior = saldo.getVersao();
+		entityManager.clear();
+		
+		int atualizados = repository.acumular(1l, BigDecimal.valueOf(100), BigDecimal.valueOf(30));
+		
+		SaldoUsuario saldoAtualizado = entityManager.find(SaldoUsuario.class, 1l);
+		assertThat(atualizados).isEqualTo(1);
+		assertThat(saldoAtualizado.getReceitas()).isEqualByComparingTo("100");
+		assertThat(saldoAtualizado.getDespesas()).isEqualByComparingTo("30");
+		assertThat(saldoAtualizado.getSaldo()).isEqualByComparingTo("70");
+		assertThat(saldoAtualizado.getVersao()).isEqualTo(versaoAnterior + 1);
+	}
+	
+	@Test
+	public void naoDeveAtualizarNadaQuandoOUsuarioNaoTemSaldo() {
+		int atualizados = repository.acumular(99l, BigDecimal.ONE, BigDecimal.ZERO);
+		
+		assertThat(atualizados).isZero();
+	}
+	
+	private SaldoUsuario criarEPersistirSaldo(Long idUsuario) {
+		SaldoUsuario saldo = SaldoUsuario.builder()
+				.idUsuario(idUsuario)
+				.receitas(BigDecimal.ZERO)
+				.despesas(BigDecimal.ZERO)
+				.saldo(BigDecimal.ZERO)
+				.build();
+		return entityManager.persistAndFlush(saldo);
+	}
+}
@@ -0,0 +1,43 @@
+package com.dsousa.minhasfinancas.model.valor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+public class DinheiroTest {
+
+	@Test
+	public void deveConverterDeEParaBigDecimal() {
+		assertThat(Dinheiro.de(new BigDecimal("1500.1")).getCentavos()).isEqualTo(150010l);
+		assertThat(Dinheiro.de(BigDecimal.TEN).paraBigDecimal()).isEqualTo(new BigDecimal("10.00"));
+		assertThat(Dinheiro.de(null)).isNull();
+	}
+
+	@Test
+	public void deveArredondarComoONumericDoBanco() {
+		assertThat(Dinheiro.de(new BigDecimal("0.005")).getCentavos()).isEqualTo(1l);
+		assertThat(Dinheiro.de(new BigDecimal("-0.005")).getCentavos()).isEqualTo(-1l);
+		assertThat(Dinheiro.de(new BigDecimal("0.004")).signum()).isZero();
+	}
+
+	@Test
+	public void deveFormatarComDuasCasas() {
+		assertThat(Dinheiro.deCentavos(150010).toString()).isEqualTo("1500.10");
+		assertThat(Dinheiro.deCentavos(5).toString()).isEqualTo("0.05");
+		assertThat(Dinheiro.deCentavos(-5).toString()).isEqualTo("-0.05");
+		assertThat(Dinheiro.ZERO.toString()).isEqualTo("0.00");
+		assertThat(Dinheiro.deCentavos(Long.MIN_VALUE).toString()).isEqualTo("-92233720368547758.08");
+	}
+
+	@Test
+	public void deveSomarEmCentavosSemEstourarEmSilencio() {
+		Dinheiro dez = Dinheiro.deCentavos(1000);
+
+		assertThat(dez.mais(Dinheiro.deCentavos(5)).menos(Dinheiro.deCentavos(1005))).isEqualTo(Dinheiro.ZERO);
+		assertThat(dez.negativo().compareTo(dez)).isNegative();
+		assertThatThrownBy(() -> Dinheiro.deCentavos(Long.MAX_VALUE).mais(dez)).isInstanceOf(ArithmeticException.class);
+	}
+}
@@ -0,0 +1,160 @@
+package com.dsousa.minhasfinancas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.ResumoMensalRepository;
+import com.dsousa.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+//primeiras escritas concorrentes de um usuario novo, cada chamada ao service na propria transaçao (sem a de teste):
+//ninguem pode colidir na criaçao do saldo ou do grupo do resumo. A carga longa de atualizaçoes concorrentes fica
+//no perfil benchmark (LancamentoEstresseTest, em src/jmh)
+@RunWith(SpringRunner.class)
+//a espera padrao do H2 por uma trava (1 s) é curta para as threads enfileiradas na mesma linha
+@DataJpaTest(properties = LancamentoConcorrenciaTest.ESPERA_TRAVA)
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import(LancamentoServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LancamentoConcorrenciaTest {
+
+	static final String ESPERA_TRAVA = "spring.datasource.hikari.connection-init-sql=SET LOCK_TIMEOUT 10000";
+
+	static final int THREADS = 8;
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	SaldoUsuarioRepository saldoRepository;
+
+	@Autowired
+	ResumoMensalRepository resumoRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	List<Long> usuarios = new ArrayList<>();
+
+	@After
+	public void tearDown() {
+		removerUsuarios(jdbcTemplate, transactionManager, usuarios);
+	}
+
+	@Test
+	public void naoDeveColidirNasPrimeirasEscritasConcorrentesDoUsuario() throws Exception {
+		//usuario ainda sem saldo: todas as threads tentam criar a linha dele ao mesmo tempo.
+		//Um ano por thread, assim cada uma cria o proprio grupo do resumo e so o saldo é disputado
+		Usuario novo = novoUsuario();
+		incluirAoMesmoTempo(novo, t -> 2000 + t);
+
+		SaldoUsuario saldo = saldoRepository.findById(novo.getId()).get();
+		assertThat(Dinheiro.de(saldo.getReceitas())).isEqualTo(Dinheiro.deCentavos(100 * THREADS));
+		assertThat(Dinheiro.de(saldo.getSaldo())).isEqualTo(Dinheiro.deCentavos(100 * THREADS));
+		assertThat(saldo.getVersao()).isEqualTo(THREADS - 1l);
+	}
+
+	@Test
+	public void naoDeveColidirNasPrimeirasInclusoesConcorrentesNoMesmoGrupoDoResumo() throws Exception {
+		//todas as threads incluem no mesmo mes, tipo e status de um usuario novo: disputam o saldo e o grupo
+		Usuario novo = novoUsuario();
+		incluirAoMesmoTempo(novo, t -> 2019);
+
+		List<ResumoMensal> grupos = resumoRepository.obterPorPeriodo(novo.getId(), 2019, 1, 2019, 12);
+		assertThat(grupos).hasSize(1);
+		assertThat(grupos.get(0).getQuantidade()).isEqualTo((long) THREADS);
+		assertThat(grupos.get(0).getTotal()).isEqualTo(Dinheiro.deCentavos(100 * THREADS));
+		SaldoUsuario saldo = saldoRepository.findById(novo.getId()).get();
+		assertThat(Dinheiro.de(saldo.getReceitas())).isEqualTo(Dinheiro.deCentavos(100 * THREADS));
+	}
+
+	//email unico: um teste que nao conseguiu limpar nao derruba os seguintes na uk_usuario_email
+	private Usuario novoUsuario() {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario")
+				.email("concorrencia-" + UUID.randomUUID() + "@email.com").senha("senha").build());
+		usuarios.add(usuario.getId());
+		return usuario;
+	}
+
+	//cada thread inclui uma receita de 1,00 do usuario no ano indicado, todas liberadas juntas
+	private void incluirAoMesmoTempo(Usuario usuario, IntUnaryOperator anoDaThread) throws Exception {
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> tarefas = new ArrayList<>();
+		for(int t = 0; t < THREADS; t++) {
+			int ano = anoDaThread.applyAsInt(t);
+			tarefas.add(executor.submit(() -> {
+				Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+				lancamento.setUsuario(usuario);
+				lancamento.setAno(ano);
+				lancamento.setTipo(TipoLancamento.RECEITA);
+				lancamento.setValor(Dinheiro.deCentavos(100));
+				largada.await();
+				return service.salvar(lancamento);
+			}));
+		}
+
+		largada.countDown();
+		try {
+			for(Future<?> tarefa : tarefas) {
+				tarefa.get(2, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	//deletes nativos numa unica transaçao: nao passam pela versao de cada entidade e, se falharem,
+	//nao deixam a base pela metade
+	static void removerUsuarios(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, List<Long> usuarios) {
+		new TransactionTemplate(transactionManager).execute(status -> {
+			for(Long idUsuario : usuarios) {
+				jdbcTemplate.update("delete from financas.resumo_mensal where id_usuario = ?", idUsuario);
+				jdbcTemplate.update("delete from financas.saldo_usuario where id_usuario = ?", idUsuario);
+				jdbcTemplate.update("delete from financas.lancamento where id_usuario = ?", idUsuario);
+				jdbcTemplate.update("delete from financas.usuario where id = ?", idUsuario);
+			}
+			return null;
+		});
+	}
+}
@@ -0,0 +1,208 @@
+package com.dsousa.minhasfinancas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.AfterTransaction;
+
+import com.dsousa.minhasfinancas.exception.RegraNegocioException;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensalId;
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
+import com.dsousa.minhasfinancas.model.entity.TotalArquivado;
+import com.dsousa.minhasfinancas.model.entity.TotalArquivadoId;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+//conta os statements JDBC de cada operaçao de escrita, sem mocks
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import(LancamentoServiceImpl.class)
+public class LancamentoServiceEscritaTest {
+
+	@Autowired
+	LancamentoServiceImpl service;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	Statistics estatisticas;
+	
+	Usuario usuario;
+	
+	Lancamento lancamento;
+	
+	@Before
+	public void setUp() {
+		usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+		entityManager.persist(SaldoUsuario.builder().idUsuario(usuario.getId())
+				.receitas(BigDecimal.valueOf(10)).despesas(BigDecimal.ZERO).saldo(BigDecimal.valueOf(10)).build());
+		lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setTipo(TipoLancamento.RECEITA);
+		lancamento.setValor(Dinheiro.de(BigDecimal.valueOf(10)));
+		lancamento = entityManager.persist(lancamento);
+		entityManager.persist(new ResumoMensal(usuario.getId(), 2019, 1, TipoLancamento.RECEITA,
+				StatusLancamento.PENDENTE, Dinheiro.de(BigDecimal.valueOf(10)), 1l));
+		entityManager.flush();
+		entityManager.clear();
+		
+		estatisticas = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		estatisticas.setStatisticsEnabled(true);
+		estatisticas.clear();
+	}
+	
+	@Test
+	public void deveAtualizarOStatusSemCarregarOLancamento() {
+		boolean atualizado = service.atualizarStatus(lancamento.getId(), usuario.getId(), StatusLancamento.EFETIVADO);
+		
+		assertThat(atualizado).isTrue();
+		//movimento anterior + update do lancamento + versao do saldo + saida do grupo PENDENTE
+		//+ entrada no grupo EFETIVADO, que ainda nao existe: update sem linhas e, no H2, trava do saldo,
+		//novo update e insert (no PostgreSQL um unico insert ... on conflict)
+		assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(8);
+		entityManager.clear();
+		assertThat(entityManager.find(Lancamento.class, lancamento.getId()).getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+		assertThat(resumo(StatusLancamento.PENDENTE).getQuantidade()).isEqualTo(0l);
+		assertThat(resumo(StatusLancamento.EFETIVADO).getTotal()).isEqualByComparingTo(Dinheiro.de(BigDecimal.valueOf(10)));
+	}
+	
+	@Test
+	public void deveMoverOsGruposDoResumoNaAtualizacaoDeStatusEmMassa() {
+		Lancamento outro = LancamentoRepositoryTest.criarLancamento();
+		outro.setUsuario(usuario);
+		outro.setValor(Dinheiro.de(BigDecimal.valueOf(5)));
+		service.salvar(outro);
+		
+		int atualizados = service.atualizarStatus(Lancamento.builder().usuario(usuario).build(),
+				Arrays.asList(lancamento.getId(), outro.getId()), StatusLancamento.CANCELADO);
+		
+		assertThat(atualizados).isEqualTo(2);
+		entityManager.flush();
+		entityManager.clear();
+		assertThat(resumo(StatusLancamento.PENDENTE).getQuantidade()).isEqualTo(0l);
+		assertThat(resumo(StatusLancamento.PENDENTE).getTotal()).isEqualByComparingTo(Dinheiro.de(BigDecimal.ZERO));
+		assertThat(resumo(StatusLancamento.CANCELADO).getQuantidade()).isEqualTo(2l);
+		assertThat(resumo(StatusLancamento.CANCELADO).getTotal()).isEqualByComparingTo(Dinheiro.de(BigDecimal.valueOf(15)));
+		
+		//repetir a transiçao nao altera nada
+		assertThat(service.atualizarStatus(Lancamento.builder().usuario(usuario).build(),
+				null, StatusLancamento.CANCELADO)).isEqualTo(0);
+		assertThat(resumo(StatusLancamento.CANCELADO).getQuantidade()).isEqualTo(2l);
+	}
+	
+	@Test
+	public void deveAtualizarOLancamentoSemCarregarEntidadeNemUsuario() {
+		Lancamento alterado = LancamentoRepositoryTest.criarLancamento();
+		alterado.setId(lancamento.getId());
+		alterado.setUsuario(entityManager.getEntityManager().getReference(Usuario.class, usuario.getId()));
+		alterado.setTipo(TipoLancamento.RECEITA);
+		alterado.setValor(Dinheiro.de(BigDecimal.valueOf(25)));
+		alterado.setStatus(null);
+		
+		service.atualizar(alterado);
+		
+		//movimento anterior + update do lancamento + delta no saldo + delta no resumo
+		assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(4);
+		entityManager.clear();
+		assertThat(entityManager.find(SaldoUsuario.class, usuario.getId()).getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(25));
+		assertThat(resumo(StatusLancamento.PENDENTE).getTotal()).isEqualByComparingTo(Dinheiro.de(BigDecimal.valueOf(25)));
+		assertThat(resumo(StatusLancamento.PENDENTE).getQuantidade()).isEqualTo(1l);
+		assertThat(entityManager.find(Lancamento.class, lancamento.getId()).getStatus()).isEqualTo(lancamento.getStatus());
+	}
+	
+	@Test
+	public void deveDeletarPeloIdSemCarregarOLancamento() {
+		boolean deletado = service.deletar(lancamento.getId(), usuario.getId());
+		
+		assertThat(deletado).isTrue();
+		//movimento anterior + delete + estorno no saldo + estorno no resumo
+		assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(4);
+		entityManager.clear();
+		assertThat(entityManager.find(Lancamento.class, lancamento.getId())).isNull();
+		assertThat(entityManager.find(SaldoUsuario.class, usuario.getId()).getSaldo()).isEqualByComparingTo(BigDecimal.ZERO);
+		assertThat(resumo(StatusLancamento.PENDENTE).getQuantidade()).isEqualTo(0l);
+	}
+	
+	@Test
+	public void deveMudarAVersaoDoUsuarioACadaEscrita() {
+		long inicial = service.obterVersao(usuario.getId()).get();
+		
+		service.atualizarStatus(lancamento.getId(), usuario.getId(), StatusLancamento.EFETIVADO);
+		long aposStatus = service.obterVersao(usuario.getId()).get();
+		service.deletar(lancamento.getId(), usuario.getId());
+		long aposDelete = service.obterVersao(usuario.getId()).get();
+		
+		assertThat(aposStatus).isGreaterThan(inicial);
+		assertThat(aposDelete).isGreaterThan(aposStatus);
+	}
+	
+	@Test
+	public void deveRetornarFalsoAoDeletarUmLancamentoInexistente() {
+		assertThat(service.deletar(lancamento.getId() + 1000, usuario.getId())).isFalse();
+	}
+	
+	@Test
+	public void deveArquivarOAnoETornarSeusLancamentosSomenteLeitura() {
+		assertThat(service.arquivarAnosAte(2019)).containsExactly(2019);
+		entityManager.flush();
+		entityManager.clear();
+		//o commit recarrega o corte; aqui a transaçao do teste nunca commita
+		service.carregarAnoArquivado();
+		
+		TotalArquivado total = entityManager.find(TotalArquivado.class,
+				new TotalArquivadoId(usuario.getId(), 2019, TipoLancamento.RECEITA));
+		assertThat(total.getTotal()).isEqualByComparingTo(Dinheiro.de(BigDecimal.valueOf(10)));
+		assertThat(total.getQuantidade()).isEqualTo(1l);
+		assertThatThrownBy(() -> service.atualizarStatus(lancamento.getId(), usuario.getId(), StatusLancamento.EFETIVADO))
+				.isInstanceOf(RegraNegocioException.class);
+		assertThatThrownBy(() -> service.deletar(lancamento.getId(), usuario.getId()))
+				.isInstanceOf(RegraNegocioException.class);
+		
+		//o saldo reconstruido soma o ano ativo e o total arquivado
+		Lancamento ativo = LancamentoRepositoryTest.criarLancamento();
+		ativo.setUsuario(usuario);
+		ativo.setAno(2020);
+		ativo.setTipo(TipoLancamento.RECEITA);
+		ativo.setValor(Dinheiro.de(BigDecimal.valueOf(5)));
+		service.salvar(ativo);
+		service.reconstruirSaldo(usuario.getId());
+		entityManager.flush();
+		entityManager.clear();
+		assertThat(entityManager.find(SaldoUsuario.class, usuario.getId()).getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(15));
+	}
+	
+	@AfterTransaction
+	public void recarregarAnoArquivado() {
+		service.carregarAnoArquivado();
+	}
+	
+	private ResumoMensal resumo(StatusLancamento status) {
+		return entityManager.find(ResumoMensal.class,
+				new ResumoMensalId(usuario.getId(), 2019, 1, TipoLancamento.RECEITA, status));
+	}
+}
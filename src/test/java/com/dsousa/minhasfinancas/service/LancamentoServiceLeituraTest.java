@@ -0,0 +1,107 @@
+package com.dsousa.minhasfinancas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//conta os statements JDBC dos caminhos de leitura: o usuario so é carregado onde o grafo pede
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import(LancamentoServiceImpl.class)
+public class LancamentoServiceLeituraTest {
+
+	@Autowired
+	LancamentoService service;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	Statistics estatisticas;
+	
+	Usuario usuario;
+	
+	Lancamento lancamento;
+	
+	@Before
+	public void setUp() {
+		usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		for(int i = 0; i < 3; i++) {
+			lancamento = LancamentoRepositoryTest.criarLancamento();
+			lancamento.setUsuario(usuario);
+			entityManager.persist(lancamento);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		
+		estatisticas = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		estatisticas.setStatisticsEnabled(true);
+		estatisticas.clear();
+	}
+	
+	@Test
+	public void deveExportarSemCarregarOUsuario() {
+		List<Lancamento> exportados = new ArrayList<>();
+		
+		service.exportar(usuario.getId(), exportados::add);
+		
+		assertThat(exportados).hasSize(3);
+		assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void deveBuscarAPaginaSemCarregarOUsuario() {
+		List<LancamentoResumo> resultado = service.buscar(Lancamento.builder().usuario(usuario).build(), null, 10);
+		
+		assertThat(resultado).hasSize(3);
+		assertThat(resultado).extracting(LancamentoResumo::getUsuarioId).containsOnly(usuario.getId());
+		assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void deveObterPorIdJuntoComOUsuarioNumaConsulta() {
+		Lancamento encontrado = service.obterPorId(lancamento.getId()).get();
+		
+		assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(Hibernate.isInitialized(encontrado.getUsuario())).isTrue();
+	}
+	
+	@Test
+	public void deveSerializarOUsuarioIdSemInicializarOProxy() throws Exception {
+		Lancamento encontrado = entityManager.find(Lancamento.class, lancamento.getId());
+		
+		JsonNode json = new ObjectMapper().valueToTree(encontrado);
+		
+		assertThat(json.get("usuarioId").asLong()).isEqualTo(usuario.getId());
+		assertThat(json.has("usuario")).isFalse();
+		assertThat(Hibernate.isInitialized(encontrado.getUsuario())).isFalse();
+		assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+	}
+}
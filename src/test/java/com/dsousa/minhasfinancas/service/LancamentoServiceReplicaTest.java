@@ -0,0 +1,122 @@
+package com.dsousa.minhasfinancas.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dsousa.minhasfinancas.config.DataSourceConfig;
+import com.dsousa.minhasfinancas.model.datasource.RoteamentoDataSource;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.ResumoMensalRepository;
+import com.dsousa.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
+import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+//primario e replica em dois H2: a replica tem a mesma estrutura e nenhum dado, como uma replica atrasada.
+//Sem a transaçao de teste, cada chamada ao service abre e confirma a propria
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+@Import({DataSourceConfig.class, LancamentoServiceImpl.class})
+@TestPropertySource(properties = {
+		"minhasfinancas.datasource.replicas[0].url=" + LancamentoServiceReplicaTest.REPLICA,
+		"minhasfinancas.datasource.verificacao-replicas-segundos=0"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LancamentoServiceReplicaTest {
+	
+	static final String REPLICA = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	LancamentoService service;
+	
+	@Value("${spring.datasource.url}")
+	String urlPrimario;
+	
+	JdbcTemplate primario;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	SaldoUsuarioRepository saldoRepository;
+	
+	@Autowired
+	ResumoMensalRepository resumoRepository;
+	
+	Usuario usuario;
+	
+	@Before
+	public void setUp() {
+		primario = new JdbcTemplate(new DriverManagerDataSource(urlPrimario, "sa", "sa"));
+		JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA, "sa", "sa"));
+		replica.execute("drop all objects");
+		for(String comando : primario.queryForList("script nodata", String.class)) {
+			replica.execute(comando);
+		}
+		usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("replica@email.com").senha("senha").build());
+	}
+	
+	@After
+	public void tearDown() {
+		RoteamentoDataSource.definirUsuario(null);
+		resumoRepository.deleteAll();
+		saldoRepository.deleteAll();
+		lancamentoRepository.deleteAll();
+		usuarioRepository.deleteAll();
+	}
+	
+	@Test
+	public void deveBuscarNaReplicaESalvarNoPrimario() {
+		service.salvar(lancamento());
+		
+		assertThat(service.buscar(filtro(), null, 10)).isEmpty();
+		assertThat(lancamentoRepository.count()).isEqualTo(0l);
+		assertThat(primario.queryForObject("select count(*) from financas.lancamento", Long.class)).isEqualTo(1l);
+	}
+	
+	@Test
+	public void deveLerDoPrimarioLogoAposAEscritaDoMesmoUsuario() {
+		RoteamentoDataSource.definirUsuario(usuario.getId());
+		
+		service.salvar(lancamento());
+		
+		assertThat(service.buscar(filtro(), null, 10)).hasSize(1);
+		assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("10");
+		RoteamentoDataSource.definirUsuario(usuario.getId() + 1);
+		assertThat(service.buscar(filtro(), null, 10)).isEmpty();
+	}
+	
+	private Lancamento lancamento() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		return lancamento;
+	}
+	
+	private Lancamento filtro() {
+		return Lancamento.builder().usuario(usuario).build();
+	}
+}
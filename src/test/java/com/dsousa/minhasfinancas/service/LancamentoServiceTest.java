@@ -1,9 +1,12 @@
 package com.dsousa.minhasfinancas.service;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
@@ -11,15 +14,27 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Example;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.dsousa.minhasfinancas.exception.ConflitoVersaoException;
 import com.dsousa.minhasfinancas.exception.RegraNegocioException;
 import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.ResumoMensal;
+import com.dsousa.minhasfinancas.model.entity.SaldoUsuario;
 import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.enums.Granularidade;
 import com.dsousa.minhasfinancas.model.enums.StatusLancamento;
+import com.dsousa.minhasfinancas.model.enums.TipoLancamento;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.dsousa.minhasfinancas.model.projection.MovimentoLancamento;
+import com.dsousa.minhasfinancas.model.projection.SaldoAcumulado;
+import com.dsousa.minhasfinancas.model.repository.AnoArquivadoRepository;
 import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
 import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.ResumoMensalRepository;
+import com.dsousa.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dsousa.minhasfinancas.model.repository.TotalArquivadoRepository;
+import com.dsousa.minhasfinancas.model.valor.Dinheiro;
 import com.dsousa.minhasfinancas.service.impl.LancamentoServiceImpl;
 
 @RunWith(SpringRunner.class)
@@ -31,10 +46,23 @@ public class LancamentoServiceTest {
 	@MockBean
 	LancamentoRepository repository;
 	
+	@MockBean
+	SaldoUsuarioRepository saldoRepository;
+	
+	@MockBean
+	ResumoMensalRepository resumoRepository;
+	
+	@MockBean
+	TotalArquivadoRepository totalArquivadoRepository;
+	
+	@MockBean
+	AnoArquivadoRepository anoArquivadoRepository;
+	
 	@Test 
 	public void deveSalvarUmLancamento () {
 		//cenario
 		Lancamento lancamentoASalvar = LancamentoRepositoryTest.criarLancamento();
+		lancamentoASalvar.setUsuario(Usuario.builder().id(1l).build());
 		Mockito.doNothing().when(service).validar(lancamentoASalvar);
 		
 		Lancamento lancamentoSalvo = LancamentoRepositoryTest.criarLancamento();
@@ -68,17 +96,57 @@ public class LancamentoServiceTest {
 		Lancamento lancamentoSalvo = LancamentoRepositoryTest.criarLancamento();
 		lancamentoSalvo.setId(1l);
 		lancamentoSalvo.setStatus(StatusLancamento.PENDENTE);
+		lancamentoSalvo.setUsuario(Usuario.builder().id(1l).build());
 		
 		Mockito.doNothing().when(service).validar(lancamentoSalvo);
-		Mockito.when(repository.save(lancamentoSalvo)).thenReturn(lancamentoSalvo);
+		Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.of(movimento(1l, lancamentoSalvo.getTipo(), lancamentoSalvo.getValor().paraBigDecimal())));
+		Mockito.when(repository.atualizarDados(lancamentoSalvo, 2019, 0l)).thenReturn(1);
 		
 		//execuçao
 		service.atualizar(lancamentoSalvo);
-		//verificaçao que a metodo foi chamado pelo menos uma vez
-		Mockito.verify(repository, Mockito.times(1)).save(lancamentoSalvo);
+		//verificaçao que o update direto foi usado no lugar do save (sem select previo da entidade)
+		Mockito.verify(repository, Mockito.times(1)).atualizarDados(lancamentoSalvo, 2019, 0l);
+		Mockito.verify(repository, Mockito.never()).save(lancamentoSalvo);
 		
 	}
 	
+	@Test
+	public void naoDeveAtualizarUmLancamentoComVersaoDesatualizada() {
+		//cenario: o cliente leu a versao 0, a base ja esta na 1
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setVersao(0l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		MovimentoLancamento gravado = Mockito.mock(MovimentoLancamento.class);
+		Mockito.when(gravado.getIdUsuario()).thenReturn(1l);
+		Mockito.when(gravado.getAno()).thenReturn(2019);
+		Mockito.when(gravado.getVersao()).thenReturn(1l);
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.of(gravado));
+		
+		//execuçao e verificaçao
+		Assertions.assertThatThrownBy(() -> service.atualizar(lancamento)).isInstanceOf(ConflitoVersaoException.class);
+		Mockito.verify(repository, Mockito.never()).atualizarDados(Mockito.any(), Mockito.any(), Mockito.any());
+		Mockito.verify(saldoRepository, Mockito.never()).acumular(Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveRepetirAAtualizacaoDeStatusAteOLimiteDeTentativas() {
+		//cenario: outra escrita muda a versao a cada leitura
+		Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.of(movimento(1l, TipoLancamento.RECEITA, BigDecimal.valueOf(10))));
+		Mockito.when(repository.atualizarStatus(1l, 2019, 0l, StatusLancamento.EFETIVADO)).thenReturn(0, 0, 1);
+		Mockito.when(resumoRepository.acumular(Mockito.any())).thenReturn(1);
+		
+		//execuçao e verificaçao: a terceira tentativa grava, a quarta nao existe
+		Assertions.assertThat(service.atualizarStatus(1l, 1l, StatusLancamento.EFETIVADO)).isTrue();
+		Mockito.verify(saldoRepository, Mockito.times(1)).incrementarVersao(1l);
+		
+		Mockito.when(repository.atualizarStatus(1l, 2019, 0l, StatusLancamento.CANCELADO)).thenReturn(0);
+		Assertions.assertThatThrownBy(() -> service.atualizarStatus(1l, 1l, StatusLancamento.CANCELADO))
+				.isInstanceOf(ConflitoVersaoException.class);
+		Mockito.verify(repository, Mockito.times(3)).atualizarStatus(1l, 2019, 0l, StatusLancamento.CANCELADO);
+	}
+	
 	@Test
 	public void deveLancarErroAoTentarAtualizarUmLancamentoQueAindaNaoFoiSalvo() {
 		//cenario
@@ -96,12 +164,15 @@ public class LancamentoServiceTest {
 		//cenario
 	    Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
 	    lancamento.setId(1l);
+	    lancamento.setUsuario(Usuario.builder().id(1l).build());
+	    Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.of(movimento(1l, TipoLancamento.RECEITA, BigDecimal.valueOf(10))));
+	    Mockito.when(repository.deletarPorId(1l, 2019, 0l)).thenReturn(1);
 	    
 	    //execuçao
 	    service.deletar(lancamento);
 	    
-	    //verificaçao
-	    Mockito.verify(repository).delete(lancamento);
+	    //verificaçao: delete direto pela versao lida
+	    Mockito.verify(repository).deletarPorId(1l, 2019, 0l);
 	}
 	
 	@Test
@@ -113,7 +184,7 @@ public class LancamentoServiceTest {
 	    //execuçao
 	    Assertions.catchThrowableOfType(() -> service.deletar(lancamento), NullPointerException.class);
 	    //verificaçao que nunca chamou o metodo delete
-	    Mockito.verify(repository, Mockito.never()).delete(lancamento);
+	    Mockito.verify(repository, Mockito.never()).deletarPorId(Mockito.any(), Mockito.any(), Mockito.any());
 	}
 	
 	@Test
@@ -121,19 +192,21 @@ public class LancamentoServiceTest {
 		//cenario
 	    Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
 	    lancamento.setId(1l);
+	    lancamento.setUsuario(Usuario.builder().id(1l).build());
 	    
-	    List<Lancamento> lista = Arrays.asList(lancamento);
-	    //voir pourquoi ça ne marche pas 
-	    Mockito.when(repository.findAll(Mockito.any(Example.class))).thenReturn(lista);
+	    LancamentoResumo resumo = new LancamentoResumo(1l, "lancamento qualquer", 1, 2019, lancamento.getValor(),
+	    		TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 1l, 0l);
+	    List<LancamentoResumo> lista = Arrays.asList(resumo);
+	    Mockito.when(repository.buscarPagina(lancamento, null, 10)).thenReturn(lista);
 	    
 	    //execuçao 
-	    List<Lancamento> resultado =  service.buscar(lancamento);
+	    List<LancamentoResumo> resultado =  service.buscar(lancamento, null, 10);
 	    
 	    //verificaçao
 	    Assertions.assertThat(resultado)
 	    .isNotEmpty()
 	    .hasSize(1)
-	    .contains(lancamento);
+	    .contains(resumo);
 	    
 	    
 	}
@@ -164,7 +237,7 @@ public class LancamentoServiceTest {
 	    Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
 	    lancamento.setId(id);
 	    
-	    Mockito.when(repository.findById(id)).thenReturn(Optional.of(lancamento));
+	    Mockito.when(repository.findComUsuarioById(id)).thenReturn(Optional.of(lancamento));
 	    
 	    //execuçao
 	    Optional<Lancamento> resultado = service.obterPorId(id);
@@ -180,7 +253,7 @@ public class LancamentoServiceTest {
 	    Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
 	    lancamento.setId(id);
 	    
-	    Mockito.when(repository.findById(id)).thenReturn(Optional.empty());
+	    Mockito.when(repository.findComUsuarioById(id)).thenReturn(Optional.empty());
 	    
 	    //execuçao
 	    Optional<Lancamento> resultado = service.obterPorId(id);
@@ -189,6 +262,227 @@ public class LancamentoServiceTest {
 	    Assertions.assertThat(resultado.isPresent()).isFalse();
 	}
 	
+	@Test
+	public void deveAcumularOSaldoDoUsuarioAoSalvarUmLancamento() {
+		//cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		Mockito.when(saldoRepository.acumular(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(1);
+		
+		//execuçao
+		service.salvar(lancamento);
+		
+		//verificaçao
+		Mockito.verify(saldoRepository).acumular(1l, BigDecimal.valueOf(1000, 2), BigDecimal.valueOf(0, 2));
+		Mockito.verify(repository, Mockito.never()).obterTotaisPorTipo(Mockito.anyLong(), Mockito.anyInt());
+	}
+	
+	@Test
+	public void deveSalvarOsLancamentosValidosDoLoteEReportarOsInvalidos() {
+		//cenario
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Lancamento valido = LancamentoRepositoryTest.criarLancamento();
+		valido.setUsuario(usuario);
+		Lancamento invalido = LancamentoRepositoryTest.criarLancamento();
+		invalido.setUsuario(usuario);
+		invalido.setDescricao("");
+		Lancamento outroValido = LancamentoRepositoryTest.criarLancamento();
+		outroValido.setUsuario(usuario);
+		outroValido.setTipo(TipoLancamento.DESPESA);
+		Mockito.when(saldoRepository.acumular(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(1);
+		
+		//execuçao
+		Map<Integer, String> erros = service.salvarLote(Arrays.asList(valido, invalido, outroValido));
+		
+		//verificaçao
+		Assertions.assertThat(erros).containsOnlyKeys(1).containsValue("Informe uma descriçao valida.");
+		Mockito.verify(repository).salvarEmLote(Arrays.asList(valido, outroValido));
+		Mockito.verify(saldoRepository, Mockito.times(1)).acumular(1l, BigDecimal.valueOf(1000, 2), BigDecimal.valueOf(1000, 2));
+	}
+	
+	@Test
+	public void deveAplicarSomenteADiferencaAoAtualizarUmLancamento() {
+		//cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		lancamento.setValor(Dinheiro.de(BigDecimal.valueOf(25)));
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.of(movimento(1l, TipoLancamento.RECEITA, BigDecimal.valueOf(10))));
+		Mockito.when(saldoRepository.acumular(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(1);
+		Mockito.when(resumoRepository.acumular(Mockito.any())).thenReturn(1);
+		Mockito.when(repository.atualizarDados(lancamento, 2019, 0l)).thenReturn(1);
+		
+		//execuçao
+		service.atualizar(lancamento);
+		
+		//verificaçao
+		Mockito.verify(saldoRepository, Mockito.times(1)).acumular(Mockito.anyLong(), Mockito.any(), Mockito.any());
+		Mockito.verify(saldoRepository).acumular(1l, BigDecimal.valueOf(1500, 2), BigDecimal.valueOf(0, 2));
+		Mockito.verify(resumoRepository).acumular(new ResumoMensal(1l, 2019, 1, TipoLancamento.RECEITA,
+				StatusLancamento.PENDENTE, Dinheiro.de(BigDecimal.valueOf(15)), 0l));
+		Mockito.verify(resumoRepository, Mockito.never()).inserirOuAcumular(Mockito.any());
+	}
+	
+	@Test
+	public void deveLancarErroAoAtualizarUmLancamentoInexistente() {
+		//cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.empty());
+		
+		//execuçao e verificaçao
+		Throwable erro = Assertions.catchThrowable(() -> service.atualizar(lancamento));
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Lancamento nao encontrado na base de Dados.");
+		Mockito.verify(repository, Mockito.never()).atualizarDados(Mockito.any(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveAtualizarStatusSemCarregarOLancamento() {
+		//cenario
+		Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.of(movimento(1l, TipoLancamento.RECEITA, BigDecimal.valueOf(10))));
+		Mockito.when(repository.atualizarStatus(1l, 2019, 0l, StatusLancamento.EFETIVADO)).thenReturn(1);
+		Mockito.when(resumoRepository.acumular(Mockito.any())).thenReturn(1);
+		
+		//execuçao
+		boolean atualizado = service.atualizarStatus(1l, 1l, StatusLancamento.EFETIVADO);
+		
+		//verificaçao
+		Assertions.assertThat(atualizado).isTrue();
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+		Mockito.verify(saldoRepository).incrementarVersao(1l);
+		Mockito.verify(resumoRepository).acumular(new ResumoMensal(1l, 2019, 1, TipoLancamento.RECEITA,
+				StatusLancamento.PENDENTE, Dinheiro.de(BigDecimal.valueOf(-10)), -1l));
+		Mockito.verify(resumoRepository).acumular(new ResumoMensal(1l, 2019, 1, TipoLancamento.RECEITA,
+				StatusLancamento.EFETIVADO, Dinheiro.de(BigDecimal.valueOf(10)), 1l));
+	}
+	
+	@Test
+	public void naoDeveAlterarNemDeletarLancamentoDeOutroUsuario() {
+		//cenario: o lancamento 1 é do usuario 1
+		Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.of(movimento(1l, TipoLancamento.RECEITA, BigDecimal.valueOf(10))));
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(2l).build());
+		Mockito.doNothing().when(service).validar(lancamento);
+		
+		//execuçao e verificaçao: para o usuario 2 ele nao existe
+		Assertions.assertThat(service.atualizarStatus(1l, 2l, StatusLancamento.EFETIVADO)).isFalse();
+		Assertions.assertThat(service.deletar(1l, 2l)).isFalse();
+		Throwable erro = Assertions.catchThrowable(() -> service.atualizar(lancamento));
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Lancamento nao encontrado na base de Dados.");
+		Mockito.verify(repository, Mockito.never()).atualizarStatus(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyLong(), Mockito.any());
+		Mockito.verify(repository, Mockito.never()).deletarPorId(Mockito.any(), Mockito.any(), Mockito.any());
+		Mockito.verify(repository, Mockito.never()).atualizarDados(Mockito.any(), Mockito.any(), Mockito.any());
+		Mockito.verify(saldoRepository, Mockito.never()).acumular(Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveCriarOGrupoDoResumoNaPrimeiraInclusao() {
+		//cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(saldoRepository.acumular(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(1);
+		Mockito.when(resumoRepository.acumular(Mockito.any())).thenReturn(0);
+		
+		//execuçao
+		service.salvar(lancamento);
+		
+		//verificaçao
+		Mockito.verify(resumoRepository).inserirOuAcumular(new ResumoMensal(1l, 2019, 1, TipoLancamento.RECEITA,
+				StatusLancamento.PENDENTE, Dinheiro.de(BigDecimal.valueOf(10)), 1l));
+	}
+	
+	@Test
+	public void deveCompletarOsMesesSemMovimentoDaSerieComOSaldoAnterior() {
+		//cenario: saldo de abertura de dezembro e movimento so em fevereiro
+		Mockito.doAnswer(invocacao -> {
+			Consumer<SaldoAcumulado> consumidor = invocacao.getArgument(5);
+			consumidor.accept(new SaldoAcumulado(2018, 12, Dinheiro.deCentavos(5000), Dinheiro.ZERO, Dinheiro.deCentavos(5000)));
+			consumidor.accept(new SaldoAcumulado(2019, 2, Dinheiro.ZERO, Dinheiro.deCentavos(2000), Dinheiro.deCentavos(3000)));
+			return null;
+		}).when(resumoRepository).percorrerSaldoAcumulado(Mockito.eq(1l), Mockito.eq(YearMonth.of(2019, 1)),
+				Mockito.eq(YearMonth.of(2019, 4)), Mockito.isNull(), Mockito.eq(Granularidade.MES), Mockito.any());
+		
+		//execuçao
+		List<SaldoAcumulado> serie = service.obterSerieSaldo(1l, YearMonth.of(2019, 1), YearMonth.of(2019, 4), null, Granularidade.MES);
+		
+		//verificaçao
+		Assertions.assertThat(serie).extracting(SaldoAcumulado::getMes).containsExactly(1, 2, 3, 4);
+		Assertions.assertThat(serie).extracting(SaldoAcumulado::getSaldo).containsExactly(Dinheiro.deCentavos(5000),
+				Dinheiro.deCentavos(3000), Dinheiro.deCentavos(3000), Dinheiro.deCentavos(3000));
+		Assertions.assertThat(serie.get(0).getReceitas()).isEqualTo(Dinheiro.ZERO);
+	}
+	
+	@Test
+	public void deveEstornarOSaldoAoDeletarUmLancamento() {
+		//cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.of(movimento(1l, TipoLancamento.DESPESA, BigDecimal.valueOf(10))));
+		Mockito.when(repository.deletarPorId(1l, 2019, 0l)).thenReturn(1);
+		Mockito.when(saldoRepository.acumular(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(1);
+		
+		//execuçao
+		service.deletar(lancamento);
+		
+		//verificaçao
+		Mockito.verify(saldoRepository).acumular(1l, BigDecimal.valueOf(0, 2), BigDecimal.valueOf(-1000, 2));
+	}
+	
+	@Test
+	public void deveObterOSaldoConsolidadoSemSomarOsLancamentos() {
+		//cenario
+		SaldoUsuario saldo = SaldoUsuario.builder().idUsuario(1l).saldo(BigDecimal.valueOf(100)).build();
+		Mockito.when(saldoRepository.findById(1l)).thenReturn(Optional.of(saldo));
+		
+		//execuçao
+		BigDecimal resultado = service.obterSaldoPorUsuario(1l);
+		
+		//verificaçao
+		Assertions.assertThat(resultado).isEqualTo(BigDecimal.valueOf(100));
+		Mockito.verify(repository, Mockito.never()).obterTotaisPorTipo(Mockito.anyLong(), Mockito.anyInt());
+	}
+	
+	@Test
+	public void naoDeveAlterarLancamentoDeAnoArquivado() {
+		//cenario
+		Mockito.when(anoArquivadoRepository.obterUltimoAnoArquivado()).thenReturn(Optional.of(2019));
+		service.carregarAnoArquivado();
+		Mockito.when(repository.obterMovimentoPorId(1l)).thenReturn(Optional.of(movimento(1l, TipoLancamento.RECEITA, BigDecimal.valueOf(10))));
+		
+		try {
+			//execuçao
+			Throwable erro = Assertions.catchThrowable(() -> service.atualizarStatus(1l, 1l, StatusLancamento.EFETIVADO));
+			
+			//verificaçao
+			Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("O ano 2019 esta arquivado: seus lancamentos sao somente leitura.");
+			Mockito.verify(repository, Mockito.never()).atualizarStatus(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyLong(), Mockito.any());
+		} finally {
+			//o service e compartilhado pelos testes do contexto
+			Mockito.when(anoArquivadoRepository.obterUltimoAnoArquivado()).thenReturn(Optional.empty());
+			service.carregarAnoArquivado();
+		}
+	}
+	
+	private static MovimentoLancamento movimento(Long idUsuario, TipoLancamento tipo, BigDecimal valor) {
+		return new MovimentoLancamento() {
+			public Long getIdUsuario() { return idUsuario; }
+			public TipoLancamento getTipo() { return tipo; }
+			public Dinheiro getValor() { return Dinheiro.de(valor); }
+			public Integer getAno() { return 2019; }
+			public Integer getMes() { return 1; }
+			public StatusLancamento getStatus() { return StatusLancamento.PENDENTE; }
+			public Long getVersao() { return 0l; }
+		};
+	}
+	
 	@Test
 	public void deveLancarErrosAoValidarUmLancamento() {
 		Lancamento lancamento = new Lancamento();
@@ -248,12 +542,12 @@ public class LancamentoServiceTest {
 		erro = Assertions.catchThrowable(() -> service.validar(lancamento));
 		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Valor valido.");
 		
-		lancamento.setValor(BigDecimal.ZERO);
+		lancamento.setValor(Dinheiro.de(BigDecimal.ZERO));
 		
 		erro = Assertions.catchThrowable(() -> service.validar(lancamento));
 		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Valor valido.");
 		
-		lancamento.setValor(BigDecimal.valueOf(1));
+		lancamento.setValor(Dinheiro.de(BigDecimal.valueOf(1)));
 		
 		erro = Assertions.catchThrowable(() -> service.validar(lancamento));
 		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Tipo de Lancamento.");
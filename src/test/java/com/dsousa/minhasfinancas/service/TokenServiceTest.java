@@ -0,0 +1,57 @@
+package com.dsousa.minhasfinancas.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.service.impl.TokenServiceImpl;
+
+public class TokenServiceTest {
+	
+	static final String CHAVE = Base64.getEncoder().encodeToString("chave-de-teste-com-32-bytes-....".getBytes());
+	static final Instant AGORA = Instant.parse("2019-10-01T12:00:00Z");
+	
+	TokenService service = new TokenServiceImpl(CHAVE, 60, Clock.fixed(AGORA, ZoneOffset.UTC));
+	
+	Usuario usuario = Usuario.builder().id(7l).build();
+
+	@Test
+	public void deveValidarUmTokenEmitido() {
+		String token = service.gerarToken(usuario);
+		
+		Assertions.assertThat(service.validarToken(token)).contains(7l);
+	}
+	
+	@Test
+	public void deveRecusarUmTokenExpirado() {
+		String token = service.gerarToken(usuario);
+		TokenService depois = new TokenServiceImpl(CHAVE, 60, Clock.fixed(AGORA.plus(Duration.ofMinutes(61)), ZoneOffset.UTC));
+		
+		Assertions.assertThat(depois.validarToken(token)).isEmpty();
+	}
+	
+	@Test
+	public void deveRecusarUmTokenAlterado() {
+		String token = service.gerarToken(usuario);
+		String outroConteudo = Base64.getUrlEncoder().withoutPadding().encodeToString("8:9999999999".getBytes());
+		
+		Assertions.assertThat(service.validarToken(outroConteudo + token.substring(token.indexOf('.')))).isEmpty();
+		Assertions.assertThat(service.validarToken(token + "x")).isEmpty();
+		Assertions.assertThat(service.validarToken("@@@.@@@")).isEmpty();
+		Assertions.assertThat(service.validarToken(null)).isEmpty();
+	}
+	
+	@Test
+	public void deveRecusarUmTokenAssinadoComOutraChave() {
+		String outraChave = Base64.getEncoder().encodeToString("outra-chave-de-teste-com-32-byt".getBytes());
+		String token = new TokenServiceImpl(outraChave, 60, Clock.fixed(AGORA, ZoneOffset.UTC)).gerarToken(usuario);
+		
+		Assertions.assertThat(service.validarToken(token)).isEmpty();
+	}
+}
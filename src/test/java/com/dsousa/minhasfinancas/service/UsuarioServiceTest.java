@@ -18,6 +18,8 @@ import com.dsousa.minhasfinancas.model.entity.Usuario;
 import com.dsousa.minhasfinancas.model.repository.UsuarioRepository;
 import com.dsousa.minhasfinancas.service.impl.UsuarioServiceImpl;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @RunWith(SpringRunner.class)
 @ActiveProfiles("test")
 public class UsuarioServiceTest {
@@ -32,6 +34,7 @@ public class UsuarioServiceTest {
     public void setUp() {
     	//service = new UsuarioServiceImpl(repository);
     	//Mockito.spy(UsuarioServiceImpl.class);
+    	service.invalidarCache();
     }
     
 	@Test(expected = Test.None.class)
@@ -133,4 +136,78 @@ public class UsuarioServiceTest {
 		 //Pour vérifier le nombre de fois que la méthode Mockito a été appelé
 		 Mockito.verify(repository, Mockito.never()).save(usuario);
 	 }
+	 
+	 @Test
+	 public void deveObterUsuarioPorIdDoCacheSemASenha() {
+		 //cenario
+		 Usuario usuario = Usuario.builder().id(1l).nome("nome").email("email@email.com").senha("senha").build();
+		 Mockito.when(repository.findById(1l)).thenReturn(Optional.of(usuario));
+		 //açao
+		 service.obterPorId(1l);
+		 Optional<Usuario> resultado = service.obterPorId(1l);
+		 //verificaçao
+		 Mockito.verify(repository, Mockito.times(1)).findById(1l);
+		 Assertions.assertThat(resultado.get().getEmail()).isEqualTo("email@email.com");
+		 Assertions.assertThat(resultado.get().getSenha()).isNull();
+		 SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		 service.bindTo(registry);
+		 Assertions.assertThat(registry.get("cache.gets").tag("cache", "usuariosPorId").tag("result", "hit")
+				 .functionCounter().count()).isEqualTo(1);
+	 }
+	 
+	 @Test
+	 public void naoDeveGuardarNoCacheUsuarioInexistente() {
+		 //cenario
+		 Mockito.when(repository.findById(1l)).thenReturn(Optional.empty());
+		 //açao
+		 service.obterPorId(1l);
+		 service.obterPorId(1l);
+		 //verificaçao
+		 Mockito.verify(repository, Mockito.times(2)).findById(1l);
+	 }
+	 
+	 @Test
+	 public void deveInvalidarOCacheAoSalvarUmUsuario() {
+		 //cenario
+		 Usuario usuario = Usuario.builder().id(1l).nome("nome").email("email@email.com").build();
+		 Mockito.when(repository.findById(1l)).thenReturn(Optional.of(usuario));
+		 Mockito.when(repository.save(Mockito.any(Usuario.class))).thenReturn(usuario);
+		 Mockito.doNothing().when(service).validarEmail(Mockito.anyString());
+		 service.obterPorId(1l);
+		 //açao
+		 service.salvarUsuario(usuario);
+		 service.obterPorId(1l);
+		 //verificaçao: carga, email anterior no salvar e recarga depois da invalidaçao
+		 Mockito.verify(repository, Mockito.times(3)).findById(1l);
+	 }
+	 
+	 @Test
+	 public void deveInvalidarOEmailAnteriorAoAlterarOEmail() {
+		 //cenario
+		 Usuario anterior = Usuario.builder().id(1l).nome("nome").email("antigo@email.com").build();
+		 Usuario alterado = Usuario.builder().id(1l).nome("nome").email("novo@email.com").build();
+		 Mockito.when(repository.findById(1l)).thenReturn(Optional.of(anterior));
+		 Mockito.when(repository.save(Mockito.any(Usuario.class))).thenReturn(alterado);
+		 Mockito.when(repository.existsByEmail(Mockito.anyString())).thenReturn(false);
+		 service.obterPorId(1l);
+		 //açao
+		 service.salvarUsuario(alterado);
+		 service.validarEmail("antigo@email.com");
+		 //verificaçao: o email antigo nao é mais dado como existente pelo cache, a base é consultada
+		 Mockito.verify(repository).existsByEmail("antigo@email.com");
+	 }
+	 
+	 @Test( expected = RegraNegocioException.class)
+	 public void deveValidarEmailJaConhecidoSemConsultarABase() {
+		 //cenario
+		 Usuario usuario = Usuario.builder().id(1l).email("email@email.com").build();
+		 Mockito.when(repository.findById(1l)).thenReturn(Optional.of(usuario));
+		 service.obterPorId(1l);
+		 //açao
+		 try {
+			 service.validarEmail("email@email.com");
+		 } finally {
+			 Mockito.verify(repository, Mockito.never()).existsByEmail(Mockito.anyString());
+		 }
+	 }
 }
@@ -0,0 +1,74 @@
+package db.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.dsousa.minhasfinancas.MinhasfinancasApplication;
+import com.dsousa.minhasfinancas.model.entity.Lancamento;
+import com.dsousa.minhasfinancas.model.entity.Usuario;
+import com.dsousa.minhasfinancas.model.projection.LancamentoResumo;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepository;
+import com.dsousa.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dsousa.minhasfinancas.model.repository.UsuarioRepositoryTest;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+//fora do pacote da aplicaçao: a configuraçao nao é encontrada sozinha
+@ContextConfiguration(classes = MinhasfinancasApplication.class)
+public class V4_1__descricao_busca_existenteTest {
+	
+	@Autowired
+	LancamentoRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	DataSource dataSource;
+	
+	@Test
+	public void devePreencherADescricaoBuscaDosLancamentosAntigos() throws Exception {
+		//cenario: lancamento gravado antes da coluna existir
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento antigo = LancamentoRepositoryTest.criarLancamento();
+		antigo.setUsuario(usuario);
+		antigo.setDescricao("Conta de Água");
+		entityManager.persistAndFlush(antigo);
+		jdbcTemplate.update("update financas.lancamento set descricao_busca = null where id = ?", antigo.getId());
+		entityManager.clear();
+		Lancamento filtro = Lancamento.builder().usuario(usuario).descricao("agua").build();
+		assertThat(repository.buscarPagina(filtro, null, 10)).isEmpty();
+		
+		//execuçao: na mesma conexao (e transaçao) do teste
+		int preenchidos = V4_1__descricao_busca_existente.preencher(DataSourceUtils.getConnection(dataSource));
+		
+		//verificaçao
+		assertThat(preenchidos).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("select descricao_busca from financas.lancamento where id = ?",
+				String.class, antigo.getId())).isEqualTo(Lancamento.normalizarParaBusca("Conta de Água"));
+		List<LancamentoResumo> resultado = repository.buscarPagina(filtro, null, 10);
+		assertThat(resultado).extracting(LancamentoResumo::getId).containsExactly(antigo.getId());
+		assertThat(V4_1__descricao_busca_existente.preencher(DataSourceUtils.getConnection(dataSource))).isZero();
+	}
+}